@@ -1,12 +1,24 @@
 package org.example;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import org.example.config.ProjectConfig;
+import org.example.events.BookInventory;
+import org.example.events.RingBufferEventMulticaster;
 import org.example.security.SecurityContext;
 import org.example.services.BookService;
+import org.example.tracing.AdviceOverhead;
+import org.example.tracing.ChromeTraceExporter;
+import org.example.tracing.OverheadReport;
+import org.example.tracing.Trace;
+import org.example.tracing.Tracer;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.AbstractApplicationContext;
 
 /**
  * Spring AOP Project
@@ -20,6 +32,9 @@ public class App
         Logger logger = Logger.getLogger("org.springframework");
         logger.setLevel(Level.FINE);
 
+        // span tracing is off unless asked for; the demo prints and exports a trace below
+        Tracer.setEnabled(true);
+
         AnnotationConfigApplicationContext ctx =
                 new AnnotationConfigApplicationContext(ProjectConfig.class);
 
@@ -55,6 +70,36 @@ public class App
 
         bookService.findBook("1984");
 
+        // 2) What the calls left behind: book events, span traces and advice self time
+        // With -Devents.ringBuffer=true book events reach their listeners on the event bus threads;
+        // wait for them before reading
+        if (ctx.getBean(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+                instanceof RingBufferEventMulticaster ring) {
+            ring.drain(1, TimeUnit.SECONDS);
+        }
+        BookInventory inventory = ctx.getBean(BookInventory.class);
+        System.out.println("Inventory: " + inventory.size() + " books after " + inventory.getApplied() + " events");
+
+        // print the last span trace and export all for chrome://tracing / Perfetto
+        List<Trace> traces = Tracer.recentTraces().snapshot();
+        if (!traces.isEmpty()) {
+            System.out.println(traces.get(traces.size() - 1));
+        }
+        try {
+            Path out = Path.of("target", "aop-trace.json");
+            ChromeTraceExporter.write(traces, out);
+            System.out.println("Chrome trace written to " + out.toAbsolutePath());
+        } catch (IOException e) {
+            System.out.println("Could not write trace: " + e.getMessage());
+        }
+
+        // Per-advice self-time accounting is off by default (zero cost when off);
+        // run with -Daop.overhead.enabled=true to collect and print it
+        if (AdviceOverhead.isEnabled()) {
+            System.out.println("---- Advice overhead (self time, sorted) ----");
+            System.out.print(AdviceOverhead.report().format(OverheadReport.SortKey.SELF_TOTAL));
+        }
+
         // 3) Clean shutdown (good habit; required for lifecycle demos in other modules)
         ctx.close();
     }
@@ -0,0 +1,20 @@
+package org.example.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Hedged execution for idempotent reads: if a call is slower than the observed
+ * {@code afterPercentile} latency, a duplicate is started and the first result wins.
+ * Only put this on methods that are safe to run more than once.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Hedged {
+    int afterPercentile() default 95;
+    int maxExtra() default 1;
+    /** Upper bound on duplicate executions, as a percentage of calls. */
+    int maxExtraLoadPercent() default 10;
+}
@@ -0,0 +1,24 @@
+package org.example.annotations;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs a mutation at most once per idempotency key.
+ *
+ * The key normally comes from the caller through {@code IdempotencyKey.set(..)}
+ * and is remembered for {@code ttlMs}; a call without one simply runs. With
+ * {@code deriveKey} the method signature and arguments serve as the key when
+ * the caller supplies none, for {@code derivedKeyTtlMs} only: equal
+ * arguments are not proof of a duplicate, so keep that window to the time a
+ * client retry or double submit takes.
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Idempotent {
+    long ttlMs() default 600_000;
+    boolean deriveKey() default false;
+    long derivedKeyTtlMs() default 2_000;
+}
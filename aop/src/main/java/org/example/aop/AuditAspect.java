@@ -12,7 +12,7 @@ import org.example.aop.InvocationContext;
 
 @Aspect
 @Component
-@Order(4)
+@Order(5)
 public class AuditAspect {
     private final Logger logger = Logger.getLogger(AuditAspect.class.getName());
 
@@ -0,0 +1,14 @@
+package org.example.aop;
+
+/**
+ * Thrown when a call runs past the deadline established by {@code @Timeout}.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    public DeadlineExceededException(String message) {
+        super(message);
+    }
+
+    public DeadlineExceededException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,270 @@
+package org.example.aop;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import org.example.annotations.Hedged;
+import org.example.security.SecurityContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Tail-latency hedging for {@link Hedged} reads.
+ *
+ * The call runs on the caller's thread as usual. If it has not finished
+ * within the live p{@code afterPercentile} latency, a timer starts a duplicate
+ * on a virtual thread, and the first successful result wins. A winning
+ * duplicate interrupts the caller's thread to cut the original short, so a
+ * hedge only saves time when the slow call responds to interruption;
+ * otherwise the caller still returns the duplicate's result, once the
+ * original gives up. Losing duplicates are cancelled by interruption.
+ * Duplicates are capped at {@code maxExtraLoadPercent} of calls.
+ *
+ * Each duplicate proceeds through its own clone of the method invocation,
+ * with the invocation exposed on the worker thread so downstream advice
+ * still sees it. Security role, invocation id and deadline are carried over;
+ * other thread-local state (trace spans, overhead frames) stays with the
+ * caller. Every attempt's time counts toward the percentile, including
+ * failures and the time until a loser was cut short, so slow losers do not
+ * drop out of the tail.
+ */
+@Aspect
+@Component
+@Order(7)
+public class HedgingAspect {
+    private static final Logger logger = Logger.getLogger(HedgingAspect.class.getName());
+
+    /** Below this many samples the percentile is not trusted and calls run unhedged. */
+    private static final int WARMUP_SAMPLES = 20;
+
+    private static final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private static final ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "hedge-timer");
+        t.setDaemon(true);
+        return t;
+    });
+    private static final ConcurrentHashMap<String, MethodState> states = new ConcurrentHashMap<>();
+
+    static {
+        timer.setRemoveOnCancelPolicy(true);
+    }
+
+    public record HedgeStats(long calls, long hedges, long hedgeWins, long thresholdNanos) {
+        public double extraLoadPercent() {
+            return calls == 0 ? 0.0 : 100.0 * hedges / calls;
+        }
+    }
+
+    @Around("@annotation(hedged)")
+    public Object aroundHedged(ProceedingJoinPoint pjp, Hedged hedged) throws Throwable {
+        String name = pjp.getSignature().toShortString();
+        MethodState state = states.computeIfAbsent(name, k -> new MethodState());
+        state.calls.increment();
+
+        if (state.latency.count() < WARMUP_SAMPLES || hedged.maxExtra() <= 0) {
+            long start = System.nanoTime();
+            try {
+                return pjp.proceed();
+            } finally {
+                state.latency.record(System.nanoTime() - start);
+            }
+        }
+
+        long threshold = state.latency.percentile(hedged.afterPercentile());
+        state.lastThreshold = threshold;
+        // The clone is taken on the caller thread: invocableClone() is not thread-safe.
+        ProxyMethodInvocation invocation = (ProxyMethodInvocation) ExposeInvocationInterceptor.currentInvocation();
+        Race race = new Race(name, (ProxyMethodInvocation) invocation.invocableClone(), state, hedged, threshold);
+        race.schedule();
+
+        long start = System.nanoTime();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = pjp.proceed();
+        } catch (Throwable t) {
+            failure = t;
+        } finally {
+            state.latency.record(System.nanoTime() - start);
+        }
+        return race.primaryDone(result, failure);
+    }
+
+    /** One hedged call: the caller's attempt and the duplicates started for it. */
+    private static final class Race {
+        private final String name;
+        /** Never proceeded itself; each duplicate gets a clone of it, taken on the timer thread. */
+        private final ProxyMethodInvocation template;
+        private final MethodState state;
+        private final Hedged hedged;
+        private final long threshold;
+        private final Thread caller = Thread.currentThread();
+        private final CallerContext context = new CallerContext();
+
+        private final List<Future<?>> duplicates = new ArrayList<>(1);
+        private ScheduledFuture<?> next;
+        private int running;
+        private boolean primaryDone;
+        private boolean decided;
+        private boolean hedgeWon;
+        private Object result;
+
+        Race(String name, ProxyMethodInvocation template, MethodState state, Hedged hedged, long threshold) {
+            this.name = name;
+            this.template = template;
+            this.state = state;
+            this.hedged = hedged;
+            this.threshold = threshold;
+        }
+
+        synchronized void schedule() {
+            next = timer.schedule(this::hedge, threshold, TimeUnit.NANOSECONDS);
+        }
+
+        /** Timer thread: start one more duplicate unless the call is over or the load cap is hit. */
+        private void hedge() {
+            synchronized (this) {
+                if (primaryDone || decided) return;
+            }
+            if (!state.tryAcquireHedge(hedged.maxExtraLoadPercent())) return;
+            logger.info("[" + (context.id != null ? context.id : "-") + "] [Hedge] " + name + " slower than p" + hedged.afterPercentile() + "="
+                    + threshold / 1_000 + "us, starting duplicate");
+            MethodInvocation clone = template.invocableClone();
+            synchronized (this) {
+                if (primaryDone || decided) return;
+                running++;
+                duplicates.add(executor.submit(() -> runDuplicate(clone)));
+                if (duplicates.size() < hedged.maxExtra()) {
+                    next = timer.schedule(this::hedge, threshold, TimeUnit.NANOSECONDS);
+                }
+            }
+        }
+
+        private void runDuplicate(MethodInvocation clone) {
+            context.apply();
+            long start = System.nanoTime();
+            Object value = null;
+            Throwable failure = null;
+            try {
+                value = ExposeInvocationInterceptor.INSTANCE.invoke(clone);
+            } catch (Throwable t) {
+                failure = t;
+            } finally {
+                state.latency.record(System.nanoTime() - start);
+                SecurityContext.clear();
+                InvocationContext.clear();
+            }
+            duplicateDone(value, failure);
+        }
+
+        private synchronized void duplicateDone(Object value, Throwable failure) {
+            running--;
+            if (decided) return;
+            if (failure == null) {
+                decided = true;
+                hedgeWon = true;
+                result = value;
+                // cut the original short; once primaryDone is set the caller is no longer in it
+                if (!primaryDone) caller.interrupt();
+            }
+            notifyAll();
+        }
+
+        /**
+         * Caller thread, after its own attempt: the duplicate's result if one
+         * won, else the caller's own; after a failure, any running duplicate
+         * is waited for before the failure is thrown as it was.
+         */
+        Object primaryDone(Object value, Throwable failure) throws Throwable {
+            try {
+                synchronized (this) {
+                    primaryDone = true;
+                    if (!decided && failure != null) {
+                        try {
+                            while (!decided && running > 0) {
+                                wait();
+                            }
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        }
+                    }
+                    if (decided && hedgeWon) {
+                        // the interrupt was meant for the original attempt only
+                        Thread.interrupted();
+                        state.hedgeWins.increment();
+                        return result;
+                    }
+                    decided = true;
+                }
+                if (failure != null) throw failure;
+                return value;
+            } finally {
+                cancel();
+            }
+        }
+
+        private synchronized void cancel() {
+            if (next != null) next.cancel(false);
+            for (Future<?> duplicate : duplicates) {
+                duplicate.cancel(true);
+            }
+        }
+    }
+
+    /** Thread-local state of the calling thread, replayed on each duplicate. */
+    private static final class CallerContext {
+        final String role = SecurityContext.getRole();
+        final String id = InvocationContext.peekId();
+        final long deadline = InvocationContext.deadlineNanos();
+
+        void apply() {
+            SecurityContext.setRole(role);
+            InvocationContext.restore(id);
+            InvocationContext.restoreDeadline(deadline);
+        }
+    }
+
+    public static Map<String, HedgeStats> getStats() {
+        Map<String, HedgeStats> out = new TreeMap<>();
+        states.forEach((k, s) -> out.put(k,
+                new HedgeStats(s.calls.sum(), s.hedges.get(), s.hedgeWins.sum(), s.lastThreshold)));
+        return out;
+    }
+
+    private static final class MethodState {
+        final LatencyHistogram latency = new LatencyHistogram(1_000);
+        final LongAdder calls = new LongAdder();
+        final AtomicLong hedges = new AtomicLong();
+        final LongAdder hedgeWins = new LongAdder();
+        volatile long lastThreshold = -1;
+
+        /** Counts a duplicate if that keeps duplicates within the cap; CAS so racing callers cannot overshoot it. */
+        boolean tryAcquireHedge(int maxExtraLoadPercent) {
+            long limit = calls.sum() * (long) maxExtraLoadPercent;
+            while (true) {
+                long current = hedges.get();
+                if ((current + 1) * 100 > limit) return false;
+                if (hedges.compareAndSet(current, current + 1)) return true;
+            }
+        }
+    }
+}
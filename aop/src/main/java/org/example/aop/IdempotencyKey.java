@@ -0,0 +1,20 @@
+package org.example.aop;
+
+/**
+ * Caller-supplied idempotency key for the next {@code @Idempotent} call(s) on this thread.
+ */
+public class IdempotencyKey {
+    private static final ThreadLocal<String> KEY = new ThreadLocal<>();
+
+    public static void set(String key) {
+        KEY.set(key);
+    }
+
+    public static String get() {
+        return KEY.get();
+    }
+
+    public static void clear() {
+        KEY.remove();
+    }
+}
@@ -0,0 +1,136 @@
+package org.example.aop;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded, time-expiring table of idempotent results.
+ *
+ * Entries are indexed by key in a {@link ConcurrentHashMap} and also queued in
+ * insertion order. One table serves one method, so all entries share a TTL
+ * and insertion order is also expiry order: eviction only looks at the head,
+ * O(1) per evicted entry and no locks.
+ *
+ * Entries removed early (failed calls, expired entries replaced by a new
+ * claim) leave a stale queue node. Only live entries count toward
+ * {@code maxEntries}, so stale nodes never push a live entry out early; they
+ * are skipped when they reach the head. To keep the queue bounded they are
+ * also swept out in one O(queue) pass whenever more than {@code maxEntries}
+ * of them have piled up. That pass runs on the thread whose release tipped
+ * the count over, so it is O(1) amortized per early removal but not per
+ * call: a failure-heavy method sees an occasional scan of up to about
+ * {@code 2 * maxEntries} nodes.
+ */
+public class IdempotencyTable {
+
+    private static final AtomicIntegerFieldUpdater<Entry> RETIRED =
+            AtomicIntegerFieldUpdater.newUpdater(Entry.class, "retired");
+
+    public static final class Entry {
+        final String key;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+        final long expiresAt;
+        /** 1 once the entry no longer counts as live; flipped exactly once. */
+        volatile int retired;
+
+        Entry(String key, long expiresAt) {
+            this.key = key;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean expired(long now) {
+            return now - expiresAt >= 0;
+        }
+
+        public CompletableFuture<Object> result() {
+            return result;
+        }
+    }
+
+    /** Result of {@link #claim}: either this caller owns the key or it found an existing entry. */
+    public record Claim(Entry entry, boolean owner) {
+    }
+
+    private final int maxEntries;
+    private final ConcurrentHashMap<String, Entry> entries;
+    private final ConcurrentLinkedQueue<Entry> order = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger live = new AtomicInteger();
+    private final AtomicInteger stale = new AtomicInteger();
+    private final LongAdder evictions = new LongAdder();
+
+    public IdempotencyTable(int maxEntries) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be > 0: " + maxEntries);
+        }
+        this.maxEntries = maxEntries;
+        this.entries = new ConcurrentHashMap<>(Math.min(maxEntries, 1 << 16));
+    }
+
+    public Claim claim(String key, long ttlNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            Entry existing = entries.get(key);
+            if (existing != null) {
+                if (!existing.expired(now)) return new Claim(existing, false);
+                if (entries.remove(key, existing)) retireEarly(existing);
+            }
+            Entry fresh = new Entry(key, now + ttlNanos);
+            if (entries.putIfAbsent(key, fresh) == null) {
+                order.add(fresh);
+                live.incrementAndGet();
+                evict(now);
+                return new Claim(fresh, true);
+            }
+        }
+    }
+
+    /** Drops an entry so the key can run again (used when the call failed). */
+    public void release(Entry entry) {
+        if (entries.remove(entry.key, entry)) retireEarly(entry);
+    }
+
+    /** The entry left the map before reaching the head of the queue: its node is now stale. */
+    private void retireEarly(Entry entry) {
+        if (!RETIRED.compareAndSet(entry, 0, 1)) return;
+        live.decrementAndGet();
+        if (stale.incrementAndGet() > maxEntries) {
+            int[] swept = new int[1];
+            order.removeIf(e -> {
+                if (e.retired == 0) return false;
+                swept[0]++;
+                return true;
+            });
+            stale.addAndGet(-swept[0]);
+        }
+    }
+
+    private void evict(long now) {
+        Entry head;
+        while (live.get() > maxEntries || ((head = order.peek()) != null && head.expired(now))) {
+            Entry oldest = order.poll();
+            if (oldest == null) break;
+            if (RETIRED.compareAndSet(oldest, 0, 1)) {
+                live.decrementAndGet();
+                if (entries.remove(oldest.key, oldest)) evictions.increment();
+            } else {
+                stale.decrementAndGet();
+            }
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long evictions() {
+        return evictions.sum();
+    }
+
+    public int capacity() {
+        return maxEntries;
+    }
+}
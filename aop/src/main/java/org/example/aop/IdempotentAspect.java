@@ -0,0 +1,111 @@
+package org.example.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import org.example.annotations.Idempotent;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Deduplicates {@link Idempotent} calls.
+ *
+ * The first call for a key runs and publishes its result; duplicates that arrive
+ * while it is in flight wait for that result, later ones get it straight from
+ * the table. Either way the method and the advice below this aspect (metrics,
+ * audit, retry) do not run again. Failed calls are not remembered. Calls
+ * without a key (see {@link Idempotent}) run unconditionally.
+ *
+ * Ordered after SecurityAspect so a cached result is never handed to a caller
+ * who is not allowed to make the call, and before MetricsAspect so a replay
+ * is not counted as a call. Table size per method:
+ * -Didempotency.maxEntries (default 10000).
+ */
+@Aspect
+@Component
+@Order(3)
+public class IdempotentAspect {
+    private static final Logger logger = Logger.getLogger(IdempotentAspect.class.getName());
+
+    private final int maxEntries = Integer.getInteger("idempotency.maxEntries", 10_000);
+    private final ConcurrentHashMap<String, IdempotencyTable> tables = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder replayed = new LongAdder();
+    private final LongAdder joinedInFlight = new LongAdder();
+
+    @Around("@annotation(idempotent)")
+    public Object aroundIdempotent(ProceedingJoinPoint pjp, Idempotent idempotent) throws Throwable {
+        String method = pjp.getSignature().toShortString();
+        String key = IdempotencyKey.get();
+        long ttlMs = idempotent.ttlMs();
+        if (key == null) {
+            if (!idempotent.deriveKey()) {
+                executed.increment();
+                return pjp.proceed();
+            }
+            key = Arrays.deepToString(pjp.getArgs());
+            ttlMs = idempotent.derivedKeyTtlMs();
+        }
+
+        IdempotencyTable table = tables.computeIfAbsent(method, k -> new IdempotencyTable(maxEntries));
+        IdempotencyTable.Claim claim = table.claim(key, TimeUnit.MILLISECONDS.toNanos(ttlMs));
+        IdempotencyTable.Entry entry = claim.entry();
+
+        if (!claim.owner()) {
+            if (entry.result().isDone()) replayed.increment();
+            else joinedInFlight.increment();
+            logger.info("[" + InvocationContext.currentId() + "] [Idempotent] duplicate " + method + " key=" + key + ", reusing result");
+            return await(entry);
+        }
+
+        executed.increment();
+        try {
+            Object result = pjp.proceed();
+            entry.result().complete(result);
+            return result;
+        } catch (Throwable t) {
+            table.release(entry);
+            entry.result().completeExceptionally(t);
+            throw t;
+        }
+    }
+
+    private Object await(IdempotencyTable.Entry entry) throws Throwable {
+        try {
+            long remaining = InvocationContext.remainingNanos();
+            return remaining == Long.MAX_VALUE
+                    ? entry.result().get()
+                    : entry.result().get(Math.max(0L, remaining), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException("Deadline exceeded waiting for in-flight duplicate [" + InvocationContext.currentId() + "]");
+        }
+    }
+
+    public Map<String, Long> getStats() {
+        Map<String, Long> out = new TreeMap<>();
+        out.put("executed", executed.sum());
+        out.put("replayed", replayed.sum());
+        out.put("joinedInFlight", joinedInFlight.sum());
+        long size = 0, evictions = 0;
+        for (IdempotencyTable t : tables.values()) {
+            size += t.size();
+            evictions += t.evictions();
+        }
+        out.put("entries", size);
+        out.put("evictions", evictions);
+        return out;
+    }
+}
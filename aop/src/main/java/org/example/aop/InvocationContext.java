@@ -1,7 +1,11 @@
 package org.example.aop;
 
 public class InvocationContext {
+    /** Sentinel for "no deadline"; deadlines are {@link System#nanoTime()} values. */
+    public static final long NO_DEADLINE = Long.MAX_VALUE;
+
     private static final ThreadLocal<String> ID = new ThreadLocal<>();
+    private static final ThreadLocal<long[]> DEADLINE = ThreadLocal.withInitial(() -> new long[] { NO_DEADLINE });
 
     public static void setId(String id) {
         ID.set(id);
@@ -12,7 +16,60 @@ public class InvocationContext {
         return id == null ? "-" : id;
     }
 
+    /** @return the id of the enclosing invocation, or null outside any service call */
+    public static String peekId() {
+        return ID.get();
+    }
+
+    /** Restores the id seen before a nested call (null clears it). */
+    public static void restore(String previous) {
+        if (previous == null) {
+            ID.remove();
+        } else {
+            ID.set(previous);
+        }
+    }
+
     public static void clear() {
         ID.remove();
     }
+
+    public static long deadlineNanos() {
+        return DEADLINE.get()[0];
+    }
+
+    public static boolean hasDeadline() {
+        return deadlineNanos() != NO_DEADLINE;
+    }
+
+    /** @return nanos left before the deadline (may be negative), or Long.MAX_VALUE without one */
+    public static long remainingNanos() {
+        long deadline = deadlineNanos();
+        return deadline == NO_DEADLINE ? Long.MAX_VALUE : deadline - System.nanoTime();
+    }
+
+    /**
+     * Applies {@code deadline} only if it is earlier than the current one.
+     *
+     * @return the previous deadline, to hand back to {@link #restoreDeadline(long)}
+     */
+    public static long tightenDeadline(long deadline) {
+        long[] slot = DEADLINE.get();
+        long previous = slot[0];
+        if (previous == NO_DEADLINE || deadline - previous < 0) {
+            slot[0] = deadline;
+        }
+        return previous;
+    }
+
+    public static void restoreDeadline(long previous) {
+        DEADLINE.get()[0] = previous;
+    }
+
+    /** Cooperative cancellation point for long-running work. */
+    public static void checkDeadline() {
+        if (remainingNanos() <= 0) {
+            throw new DeadlineExceededException("Deadline exceeded [" + currentId() + "]");
+        }
+    }
 }
@@ -9,6 +9,8 @@ import org.springframework.stereotype.Component;
 import java.util.UUID;
 import java.util.logging.Logger;
 
+import org.example.tracing.Tracer;
+
 @Aspect
 @Component
 @Order(0)
@@ -17,14 +19,17 @@ public class InvocationIdAspect {
 
     @Around("execution(* org.example.services.*.*(..))")
     public Object wrapWithId(ProceedingJoinPoint pjp) throws Throwable {
-        String id = UUID.randomUUID().toString().substring(0, 8);
+        // Nested service calls keep the outer id so the whole call tree correlates
+        String outer = InvocationContext.peekId();
+        String id = outer != null ? outer : UUID.randomUUID().toString().substring(0, 8);
         InvocationContext.setId(id);
+        Tracer.tagTrace(id);
         logger.info("[" + id + "] START " + pjp.getSignature());
         try {
             return pjp.proceed();
         } finally {
             logger.info("[" + id + "] END   " + pjp.getSignature());
-            InvocationContext.clear();
+            InvocationContext.restore(outer);
         }
     }
 }
@@ -0,0 +1,80 @@
+package org.example.aop;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free log-linear latency histogram (8 sub-buckets per power of two,
+ * about 12.5% relative error) over a sliding window of two halves: once the
+ * live half holds {@code window} samples the older half is dropped, so
+ * percentiles follow the recent latency rather than the whole history.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 488;
+
+    private final AtomicLongArray[] halves = { new AtomicLongArray(BUCKETS), new AtomicLongArray(BUCKETS) };
+    private final AtomicLongArray counts = new AtomicLongArray(2);
+    private final long window;
+    private volatile int live;
+
+    public LatencyHistogram(long window) {
+        this.window = window;
+    }
+
+    public void record(long nanos) {
+        int h = live;
+        halves[h].incrementAndGet(bucket(Math.max(0L, nanos)));
+        if (counts.incrementAndGet(h) >= window) {
+            rotate(h);
+        }
+    }
+
+    /** @return upper bound of the bucket holding the p-th percentile, or -1 with no samples */
+    public long percentile(double p) {
+        long total = 0;
+        long[] merged = new long[BUCKETS];
+        for (AtomicLongArray half : halves) {
+            for (int i = 0; i < BUCKETS; i++) {
+                long c = half.get(i);
+                merged[i] += c;
+                total += c;
+            }
+        }
+        if (total == 0) return -1;
+        long rank = (long) Math.ceil(total * (p / 100.0));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += merged[i];
+            if (seen >= rank) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    public long count() {
+        return counts.get(0) + counts.get(1);
+    }
+
+    // rare: only the recorder that fills the live half pays for the swap
+    private synchronized void rotate(int from) {
+        if (live != from) return;
+        int next = 1 - from;
+        AtomicLongArray stale = halves[next];
+        for (int i = 0; i < BUCKETS; i++) stale.set(i, 0);
+        counts.set(next, 0);
+        live = next;
+    }
+
+    static int bucket(long v) {
+        if (v < 8) return (int) v;
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int sub = (int) ((v >>> (exp - 3)) & 7);
+        return (exp - 2) * 8 + sub;
+    }
+
+    static long upperBound(int bucket) {
+        if (bucket < 8) return bucket;
+        int exp = bucket / 8 + 2;
+        int sub = bucket % 8;
+        long lower = (8L + sub) << (exp - 3);
+        return lower + (1L << (exp - 3)) - 1;
+    }
+}
@@ -15,7 +15,7 @@ import org.example.aop.InvocationContext;
 
 @Aspect
 @Component
-@Order(3)
+@Order(4)
 public class MetricsAspect {
     private static final Logger logger = Logger.getLogger(MetricsAspect.class.getName());
     private static final ConcurrentHashMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
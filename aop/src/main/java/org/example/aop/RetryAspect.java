@@ -8,12 +8,13 @@ import org.springframework.stereotype.Component;
 
 import org.example.annotations.Retryable;
 
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Logger;
 import org.example.aop.InvocationContext;
 
 @Aspect
 @Component
-@Order(5)
+@Order(6)
 public class RetryAspect {
     private final Logger logger = Logger.getLogger(RetryAspect.class.getName());
 
@@ -25,12 +26,19 @@ public class RetryAspect {
         while (true) {
             try {
                 tried++;
+                InvocationContext.checkDeadline();
                 return pjp.proceed();
             } catch (Throwable t) {
                 if (tried >= attempts) {
                     logger.severe("[" + InvocationContext.currentId() + "] [Retry] all attempts failed for " + pjp.getSignature());
                     throw t;
                 }
+                // Don't retry into a deadline we already know we can't meet (see TimeoutAspect)
+                if (t instanceof DeadlineExceededException
+                        || InvocationContext.remainingNanos() <= TimeUnit.MILLISECONDS.toNanos(delay)) {
+                    logger.warning("[" + InvocationContext.currentId() + "] [Retry] deadline too close, giving up after attempt " + tried + " for " + pjp.getSignature());
+                    throw t;
+                }
                 logger.warning("[" + InvocationContext.currentId() + "] [Retry] attempt " + tried + " failed for " + pjp.getSignature() + ", retrying after " + delay + "ms");
                 try {
                     Thread.sleep(delay);
@@ -0,0 +1,155 @@
+package org.example.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Graceful shutdown for the service layer.
+ *
+ * Outermost advice on every service call: it counts the calls in flight and,
+ * once shutdown has begun, rejects new ones with {@link ShutdownRejectedException}.
+ * Calls made from inside an admitted call are always let through, so admitted
+ * work can finish.
+ *
+ * As a {@link SmartLifecycle} in the last phase it is stopped first when the
+ * context closes, before any bean is destroyed: admission closes, then
+ * {@link #stop()} waits for the in-flight calls to drain, at most
+ * -Dshutdown.drainTimeoutMs (default 5000). Destruction then proceeds; calls
+ * still running past the deadline are reported, not interrupted.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class ShutdownCoordinator implements SmartLifecycle {
+    private static final Logger logger = Logger.getLogger(ShutdownCoordinator.class.getName());
+
+    private static final long DRAIN_TIMEOUT_MS = Long.getLong("shutdown.drainTimeoutMs", 5_000L);
+
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final long drainTimeoutMillis;
+    private volatile boolean accepting = true;
+    private volatile boolean running;
+
+    public ShutdownCoordinator() {
+        this(DRAIN_TIMEOUT_MS);
+    }
+
+    public ShutdownCoordinator(long drainTimeoutMillis) {
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    @Around("execution(* org.example.services.*.*(..))")
+    public Object admit(ProceedingJoinPoint pjp) throws Throwable {
+        int[] calls = depth.get();
+        if (calls[0] > 0) {
+            calls[0]++;
+            try {
+                return pjp.proceed();
+            } finally {
+                calls[0]--;
+            }
+        }
+
+        // count first, then check: stop() closes admission before it reads the count
+        inFlight.incrementAndGet();
+        if (!accepting) {
+            leave();
+            rejected.increment();
+            throw new ShutdownRejectedException("Shutting down, not accepting " + pjp.getSignature().toShortString());
+        }
+        admitted.increment();
+        calls[0]++;
+        try {
+            return pjp.proceed();
+        } finally {
+            calls[0]--;
+            leave();
+        }
+    }
+
+    private void leave() {
+        if (inFlight.decrementAndGet() == 0 && !accepting) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    @Override
+    public void start() {
+        accepting = true;
+        running = true;
+    }
+
+    /** Closes admission and waits for in-flight calls, up to the drain timeout. */
+    @Override
+    public void stop() {
+        long start = System.nanoTime();
+        accepting = false;
+        int atClose = inFlight.get();
+        boolean drained = awaitDrain(start + TimeUnit.MILLISECONDS.toNanos(drainTimeoutMillis));
+        long waitedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        if (drained) {
+            logger.info("[Shutdown] admission closed; " + atClose + " in-flight calls drained in " + waitedMs + " ms");
+        } else {
+            logger.warning("[Shutdown] drain deadline of " + drainTimeoutMillis + " ms passed with "
+                    + inFlight.get() + " calls still in flight");
+        }
+        running = false;
+    }
+
+    private synchronized boolean awaitDrain(long deadline) {
+        boolean interrupted = false;
+        while (inFlight.get() > 0) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) break;
+            try {
+                TimeUnit.NANOSECONDS.timedWait(this, remaining);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) Thread.currentThread().interrupt();
+        return inFlight.get() == 0;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Stopped before every other phase. */
+    @Override
+    public int getPhase() {
+        return Integer.MAX_VALUE;
+    }
+
+    public boolean isAccepting() {
+        return accepting;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getAdmitted() {
+        return admitted.sum();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
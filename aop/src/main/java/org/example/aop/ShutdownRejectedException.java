@@ -0,0 +1,11 @@
+package org.example.aop;
+
+/**
+ * Thrown for a service call that arrives after {@link ShutdownCoordinator} has
+ * stopped admitting new work.
+ */
+public class ShutdownRejectedException extends RuntimeException {
+    public ShutdownRejectedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,128 @@
+package org.example.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import org.example.annotations.Timeout;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Enforces {@link Timeout} budgets.
+ *
+ * The deadline lives in {@link InvocationContext}, so nested calls (and
+ * {@link RetryAspect}, which runs inside this aspect) see the remaining budget.
+ * A nested {@code @Timeout} can only tighten it. When this level owns the
+ * tightest deadline, a watchdog interrupts the calling thread once it passes;
+ * work can also poll {@link InvocationContext#checkDeadline()}.
+ * Timeouts and other failures are counted separately.
+ */
+@Aspect
+@Component
+@Order(1)
+public class TimeoutAspect {
+    private static final Logger logger = Logger.getLogger(TimeoutAspect.class.getName());
+
+    private static final ConcurrentHashMap<String, LongAdder> timeouts = new ConcurrentHashMap<>();
+    private static final ConcurrentHashMap<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    private static final ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "timeout-watchdog");
+        t.setDaemon(true);
+        return t;
+    });
+
+    @Around("@annotation(timeout)")
+    public Object aroundTimeout(ProceedingJoinPoint pjp, Timeout timeout) throws Throwable {
+        String name = pjp.getSignature().toShortString();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeout.value());
+        long previous = InvocationContext.tightenDeadline(deadline);
+        boolean owner = InvocationContext.deadlineNanos() == deadline;
+
+        if (InvocationContext.remainingNanos() <= 0) {
+            InvocationContext.restoreDeadline(previous);
+            timeouts.computeIfAbsent(name, k -> new LongAdder()).increment();
+            throw new DeadlineExceededException("No time budget left for " + name + " [" + InvocationContext.currentId() + "]");
+        }
+
+        Interrupter interrupter = owner ? new Interrupter(Thread.currentThread()) : null;
+        ScheduledFuture<?> task = owner
+                ? watchdog.schedule(interrupter, InvocationContext.remainingNanos(), TimeUnit.NANOSECONDS)
+                : null;
+        try {
+            Object result = pjp.proceed();
+            if (InvocationContext.remainingNanos() <= 0) {
+                throw new DeadlineExceededException("Deadline of " + timeout.value() + "ms exceeded by " + name);
+            }
+            return result;
+        } catch (Throwable t) {
+            if (t instanceof DeadlineExceededException || InvocationContext.remainingNanos() <= 0) {
+                timeouts.computeIfAbsent(name, k -> new LongAdder()).increment();
+                logger.warning("[" + InvocationContext.currentId() + "] [Timeout] " + name + " exceeded its deadline");
+                if (t instanceof DeadlineExceededException) throw t;
+                throw new DeadlineExceededException("Deadline of " + timeout.value() + "ms exceeded by " + name, t);
+            }
+            errors.computeIfAbsent(name, k -> new LongAdder()).increment();
+            throw t;
+        } finally {
+            if (task != null) {
+                task.cancel(false);
+                interrupter.disarm();
+            }
+            InvocationContext.restoreDeadline(previous);
+        }
+    }
+
+    public static Map<String, Long> getTimeoutCounts() {
+        return snapshot(timeouts);
+    }
+
+    public static Map<String, Long> getErrorCounts() {
+        return snapshot(errors);
+    }
+
+    private static Map<String, Long> snapshot(ConcurrentHashMap<String, LongAdder> counters) {
+        Map<String, Long> out = new java.util.TreeMap<>();
+        counters.forEach((k, v) -> out.put(k, v.sum()));
+        return out;
+    }
+
+    /**
+     * Interrupts the caller at most once, and never after the call has finished:
+     * firing and disarming are serialized, and disarm clears a delivered interrupt.
+     */
+    private static final class Interrupter implements Runnable {
+        private final Thread caller;
+        private boolean done;
+        private boolean fired;
+
+        Interrupter(Thread caller) {
+            this.caller = caller;
+        }
+
+        @Override
+        public synchronized void run() {
+            if (!done) {
+                fired = true;
+                caller.interrupt();
+            }
+        }
+
+        synchronized void disarm() {
+            done = true;
+            if (fired) {
+                Thread.interrupted();
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.example.bench;
+
+import org.example.events.BatchEventListener;
+import org.example.events.BookAdded;
+import org.example.events.BookEvent;
+import org.example.events.BookRemoved;
+import org.example.events.RingBufferEventMulticaster;
+import org.example.events.WaitStrategy;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Event throughput through {@code context.publishEvent}, Spring's synchronous
+ * multicaster against {@link RingBufferEventMulticaster} per wait strategy.
+ *
+ * {@code producers} threads publish BookAdded/BookRemoved for their own
+ * {@code keys} titles each, alternating per title. Two listeners - one
+ * {@link BatchEventListener}, one plain - check that every title's events
+ * arrive in order; the run counts until both have seen every event. Any
+ * ordering violation is reported.
+ *
+ * Usage: EventBusBenchmark [events=4000000] [producers=4] [keys=64]
+ *        [strategies=BLOCKING,SLEEPING,YIELDING] [ringSize=65536] [virtual=false]
+ */
+public class EventBusBenchmark {
+
+    public static void main(String[] args) throws InterruptedException {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 4_000_000;
+        int producers = args.length > 1 ? Integer.parseInt(args[1]) : 4;
+        int keys = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        String strategies = args.length > 3 ? args[3] : "BLOCKING,SLEEPING,YIELDING";
+        int ringSize = args.length > 4 ? Integer.parseInt(args[4]) : 65_536;
+        boolean virtual = args.length > 5 && Boolean.parseBoolean(args[5]);
+
+        String[] titles = new String[producers * keys];
+        for (int i = 0; i < titles.length; i++) {
+            titles[i] = "Book " + i;
+        }
+        run("synchronous", null, events, producers, keys, titles);
+        for (String strategy : strategies.split(",")) {
+            run(strategy + (virtual ? " (virtual)" : ""), new RingBufferEventMulticaster(ringSize,
+                    WaitStrategy.valueOf(strategy), 256, virtual, 10_000), events, producers, keys, titles);
+        }
+    }
+
+    private static void run(String label, RingBufferEventMulticaster ring, int events, int producers, int keys,
+                            String[] titles) throws InterruptedException {
+        GenericApplicationContext ctx = new GenericApplicationContext();
+        if (ring != null) {
+            ctx.getBeanFactory().registerSingleton(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME, ring);
+        } else {
+            ctx.getBeanFactory().registerSingleton(AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME,
+                    new SimpleApplicationEventMulticaster());
+        }
+        OrderCheck batch = new OrderCheck(titles);
+        OrderCheck plain = new OrderCheck(titles);
+        ctx.addApplicationListener(new BatchEventListener<BookEvent>() {
+            @Override
+            public void onEvents(List<BookEvent> events) {
+                for (BookEvent event : events) {
+                    batch.accept(event);
+                }
+            }
+        });
+        // Spring matches PayloadApplicationEvent<BookEvent> exactly, not subtypes: check the payload instead
+        ctx.addApplicationListener(new ApplicationListener<PayloadApplicationEvent<?>>() {
+            @Override
+            public void onApplicationEvent(PayloadApplicationEvent<?> event) {
+                if (event.getPayload() instanceof BookEvent bookEvent) plain.accept(bookEvent);
+            }
+        });
+        ctx.refresh();
+
+        int perProducer = events / producers;
+        Thread[] threads = new Thread[producers];
+        long start = System.nanoTime();
+        for (int p = 0; p < producers; p++) {
+            int first = p * keys;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    String title = titles[first + i % keys];
+                    // per title: added, removed, added, ...
+                    ctx.publishEvent((i / keys) % 2 == 0 ? new BookAdded(title, "Author") : new BookRemoved(title));
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        long published = System.nanoTime() - start;
+        if (ring != null && !ring.drain(60, TimeUnit.SECONDS)) {
+            System.out.println(label + ": listeners did not catch up");
+        }
+        long delivered = System.nanoTime() - start;
+        long total = (long) perProducer * producers;
+        System.out.printf("%-20s %5.2f M events/s published, %5.2f M events/s delivered to both listeners;"
+                        + " order violations: batch=%d plain=%d, seen=%d/%d%n", label,
+                total * 1e3 / published, total * 1e3 / delivered, batch.violations.sum(), plain.violations.sum(),
+                batch.seen.sum(), plain.seen.sum());
+        ctx.close();
+    }
+
+    /**
+     * Added and removed must alternate per title, starting with added. Each
+     * title has one publisher, so its slot is only touched by one thread at a
+     * time even when Spring calls listeners on the publishers' threads.
+     */
+    private static final class OrderCheck {
+        private final Map<String, Integer> indexes = new IdentityHashMap<>();
+        private final boolean[] present;
+        final LongAdder seen = new LongAdder();
+        final LongAdder violations = new LongAdder();
+
+        OrderCheck(String[] titles) {
+            this.present = new boolean[titles.length];
+            for (int i = 0; i < titles.length; i++) {
+                indexes.put(titles[i], i);
+            }
+        }
+
+        void accept(BookEvent event) {
+            int index = indexes.get(event.title());
+            boolean added = event instanceof BookAdded;
+            if (present[index] == added) violations.increment();
+            present[index] = added;
+            seen.increment();
+        }
+    }
+}
@@ -1,13 +1,36 @@
 package org.example.config;
 
+import org.example.events.RingBufferEventMulticaster;
+import org.example.events.WaitStrategy;
 import org.example.services.BookService;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.context.event.ApplicationEventMulticaster;
+import org.springframework.context.event.SimpleApplicationEventMulticaster;
+import org.springframework.context.support.AbstractApplicationContext;
 
 @EnableAspectJAutoProxy
 @Configuration
 @ComponentScan(basePackages = "org.example")
 public class ProjectConfig {
     // Beans configuration if any
+
+    // -Devents.ringBuffer=true: publishEvent hands events to per-listener threads through a ring buffer;
+    // -Devents.waitStrategy=BUSY_SPIN|YIELDING|SLEEPING|BLOCKING, -Devents.virtualThreads=true,
+    // -Devents.publishTimeoutMs (how long publishEvent waits on a full ring before it throws, default 1000).
+    // Otherwise Spring's synchronous multicaster.
+    @Bean(name = AbstractApplicationContext.APPLICATION_EVENT_MULTICASTER_BEAN_NAME)
+    public ApplicationEventMulticaster applicationEventMulticaster() {
+        if (!Boolean.getBoolean("events.ringBuffer")) {
+            return new SimpleApplicationEventMulticaster();
+        }
+        RingBufferEventMulticaster multicaster = new RingBufferEventMulticaster(Integer.getInteger("events.ringSize", 8192),
+                WaitStrategy.valueOf(System.getProperty("events.waitStrategy", "BLOCKING")),
+                Integer.getInteger("events.maxBatch", 256), Boolean.getBoolean("events.virtualThreads"),
+                Long.getLong("events.drainTimeoutMs", 5_000L));
+        multicaster.setPublishTimeoutMillis(Long.getLong("events.publishTimeoutMs", 1_000L));
+        return multicaster;
+    }
 }
@@ -0,0 +1,40 @@
+package org.example.events;
+
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.GenericApplicationListener;
+import org.springframework.core.ResolvableType;
+
+import java.util.List;
+
+/**
+ * Listener that takes events of type {@code E} in batches: payloads published
+ * with {@code publishEvent(Object)}, or application events themselves.
+ *
+ * Under {@link RingBufferEventMulticaster} it gets every run of events that is
+ * available at once, up to the configured batch size, in publication order.
+ * Any other multicaster hands it one-element lists.
+ */
+public interface BatchEventListener<E> extends GenericApplicationListener {
+
+    /** The list is reused between calls: copy what has to outlive the call. */
+    void onEvents(List<E> events);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    default void onApplicationEvent(ApplicationEvent event) {
+        Object payload = event instanceof PayloadApplicationEvent<?> p ? p.getPayload() : event;
+        onEvents(List.of((E) payload));
+    }
+
+    @Override
+    default boolean supportsEventType(ResolvableType eventType) {
+        Class<?> accepted = ResolvableType.forClass(getClass()).as(BatchEventListener.class).resolveGeneric(0);
+        if (accepted == null) return false;
+        if (eventType.toClass() == PayloadApplicationEvent.class) {
+            Class<?> payloadType = eventType.resolveGeneric(0);
+            return payloadType != null && accepted.isAssignableFrom(payloadType);
+        }
+        return accepted.isAssignableFrom(eventType.toClass());
+    }
+}
@@ -0,0 +1,4 @@
+package org.example.events;
+
+public record BookAdded(String title, String author) implements BookEvent {
+}
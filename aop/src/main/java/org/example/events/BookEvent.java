@@ -0,0 +1,14 @@
+package org.example.events;
+
+/**
+ * What {@link org.example.services.BookService} publishes. Events about the
+ * same title share a {@link #key()}; listeners see them in publication order.
+ */
+public sealed interface BookEvent permits BookAdded, BookRemoved {
+
+    String title();
+
+    default String key() {
+        return title();
+    }
+}
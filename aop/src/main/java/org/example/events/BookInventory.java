@@ -0,0 +1,42 @@
+package org.example.events;
+
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The books currently in the catalogue, kept up to date from {@link BookEvent}s,
+ * a batch at a time.
+ */
+@Component
+public class BookInventory implements BatchEventListener<BookEvent> {
+    private final Map<String, String> authorsByTitle = new ConcurrentHashMap<>();
+    private final LongAdder applied = new LongAdder();
+
+    @Override
+    public void onEvents(List<BookEvent> events) {
+        for (BookEvent event : events) {
+            switch (event) {
+                case BookAdded added -> authorsByTitle.put(added.title(), added.author());
+                case BookRemoved removed -> authorsByTitle.remove(removed.title());
+            }
+        }
+        applied.add(events.size());
+    }
+
+    public boolean contains(String title) {
+        return authorsByTitle.containsKey(title);
+    }
+
+    public int size() {
+        return authorsByTitle.size();
+    }
+
+    /** Events applied so far. */
+    public long getApplied() {
+        return applied.sum();
+    }
+}
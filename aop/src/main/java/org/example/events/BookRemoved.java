@@ -0,0 +1,4 @@
+package org.example.events;
+
+public record BookRemoved(String title) implements BookEvent {
+}
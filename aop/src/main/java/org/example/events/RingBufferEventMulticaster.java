@@ -0,0 +1,589 @@
+package org.example.events;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
+import org.springframework.context.event.AbstractApplicationEventMulticaster;
+import org.springframework.context.event.ApplicationContextEvent;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.ResolvableTypeProvider;
+import org.springframework.util.ErrorHandler;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Predicate;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Application event multicaster that delivers on consumer threads through a
+ * preallocated ring buffer.
+ *
+ * Registered as the {@code applicationEventMulticaster} bean it replaces
+ * Spring's synchronous one. {@code publishEvent} claims a slot (one atomic
+ * increment), stores the event with a bitmask of the listeners it is for, and
+ * returns; each listener has its own consumer thread (platform or virtual)
+ * reading the ring in sequence order. Every listener therefore sees events in
+ * the order they were published, which includes order per key. A slot's
+ * event is released once every listener it was for has taken it.
+ *
+ * A full ring pushes back: the publisher waits while the slowest consumer is
+ * a full ring behind. Events are never delivered around the ring, since that
+ * would overtake what is queued. Instead, publishEvent throws a
+ * {@link RejectedExecutionException} and nothing is delivered in three cases:
+ * the wait would exceed {@code publishTimeoutMillis}, the publisher is
+ * interrupted, or the publisher is a listener whose own consumer holds the
+ * ring up. In that last case waiting could never end.
+ *
+ * {@link BatchEventListener}s get each run of available events as one list,
+ * up to {@code maxBatch}. Which listeners an event goes to is worked out once
+ * per (event class, payload class, source class) and cached until listeners
+ * change; events that carry their own generic type are matched per event.
+ *
+ * Delivered synchronously on the publisher's thread, as before: context
+ * lifecycle events (a ContextClosedEvent waits for the ring to drain first),
+ * listeners that opt out with {@code supportsAsyncExecution() == false},
+ * listeners beyond the 64th, and everything after {@link #destroy()}.
+ * Listener exceptions go to the {@link ErrorHandler} (logged by default)
+ * and never reach the publisher.
+ */
+public class RingBufferEventMulticaster extends AbstractApplicationEventMulticaster implements DisposableBean {
+    private static final Logger logger = Logger.getLogger(RingBufferEventMulticaster.class.getName());
+
+    private static final int SPINS = 100;
+    private static final long SLEEP_NANOS = 100_000;
+    /** Parked consumers also wake up on their own this often, in case a wake-up was missed. */
+    private static final long PARK_NANOS = 1_000_000;
+    private static final int MAX_CONSUMERS = Long.SIZE;
+
+    private final ApplicationEvent[] events;
+    /** Per slot: bits of the consumers that have yet to take its event. */
+    private final AtomicLongArray targets;
+    /** Per slot: the round (sequence / size) whose event it holds, -1 before the first. */
+    private final AtomicIntegerArray published;
+    private final int indexMask;
+    private final int shift;
+    private final AtomicLong cursor = new AtomicLong();
+    private final WaitStrategy waitStrategy;
+    private final int maxBatch;
+    private final boolean virtualThreads;
+    private final long drainTimeoutMillis;
+    private volatile long publishTimeoutNanos = TimeUnit.SECONDS.toNanos(1);
+
+    private final Map<ApplicationListener<?>, Consumer> consumers = Collections.synchronizedMap(new IdentityHashMap<>());
+    private volatile Consumer[] gating = new Consumer[0];
+    private long usedBits;
+    /**
+     * Lowest consumer sequence last seen by a publisher. Never above a consumer
+     * added since: every sequence is below the cursor it was read at.
+     */
+    private volatile long gatingSequence = -1;
+    private final Map<TargetsKey, Targets> targetsCache = new ConcurrentHashMap<>();
+    private final AtomicInteger sleepers = new AtomicInteger();
+    private volatile ErrorHandler errorHandler;
+    private volatile boolean closed;
+    /** Events refused because the ring stayed full. */
+    private final AtomicLong rejected = new AtomicLong();
+
+    /**
+     * @param ringSize           slots, rounded up to a power of two
+     * @param waitStrategy       how idle consumers wait
+     * @param maxBatch           most events handed to a {@link BatchEventListener} at once
+     * @param virtualThreads     consumers on virtual instead of daemon platform threads
+     * @param drainTimeoutMillis how long close waits for consumers to catch up
+     */
+    public RingBufferEventMulticaster(int ringSize, WaitStrategy waitStrategy, int maxBatch, boolean virtualThreads,
+                                      long drainTimeoutMillis) {
+        if (ringSize < 2 || ringSize > (1 << 30)) throw new IllegalArgumentException("ringSize out of range: " + ringSize);
+        int size = Integer.highestOneBit(ringSize - 1) << 1;
+        this.events = new ApplicationEvent[size];
+        this.targets = new AtomicLongArray(size);
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.indexMask = size - 1;
+        this.shift = Integer.numberOfTrailingZeros(size);
+        this.waitStrategy = waitStrategy;
+        this.maxBatch = Math.max(1, maxBatch);
+        this.virtualThreads = virtualThreads;
+        this.drainTimeoutMillis = drainTimeoutMillis;
+    }
+
+    /** Receives listener exceptions (null: they are logged, the default). */
+    public void setErrorHandler(ErrorHandler errorHandler) {
+        this.errorHandler = errorHandler;
+    }
+
+    /** Longest a publisher waits for room in a full ring before publishEvent throws; 1 s by default. */
+    public void setPublishTimeoutMillis(long publishTimeoutMillis) {
+        this.publishTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(publishTimeoutMillis);
+    }
+
+    @Override
+    public void multicastEvent(ApplicationEvent event) {
+        multicastEvent(event, null);
+    }
+
+    @Override
+    public void multicastEvent(ApplicationEvent event, ResolvableType eventType) {
+        if (closed || event instanceof ApplicationContextEvent) {
+            if (event instanceof ContextClosedEvent) {
+                drain(drainTimeoutMillis, TimeUnit.MILLISECONDS);
+            }
+            for (ApplicationListener<?> listener : getApplicationListeners(event, typeOf(event, eventType))) {
+                invoke(listener, event);
+            }
+            return;
+        }
+        Targets targets = targetsFor(event, eventType);
+        // into the ring first: if it is refused, no listener has seen the event
+        if (targets.mask != 0) {
+            publish(event, targets.mask);
+        }
+        for (ApplicationListener<?> listener : targets.sync) {
+            invoke(listener, event);
+        }
+    }
+
+    private static ResolvableType typeOf(ApplicationEvent event, ResolvableType eventType) {
+        return eventType != null ? eventType : ResolvableType.forInstance(event);
+    }
+
+    /** Claims a slot, waiting for room if the ring is full, and publishes the event in it. */
+    private void publish(ApplicationEvent event, long mask) {
+        long sequence = cursor.get();
+        long deadline = 0;
+        Consumer self = null;
+        int idle = 0;
+        while (true) {
+            long wrapPoint = sequence - events.length;
+            // claim only with room: a claimed sequence must be published, or its consumers stall on it
+            if (wrapPoint <= gatingSequence || hasCapacity(wrapPoint)) {
+                if (cursor.compareAndSet(sequence, sequence + 1)) break;
+                sequence = cursor.get();
+                continue;
+            }
+            if (idle == 0) {
+                self = currentConsumer();
+                deadline = System.nanoTime() + publishTimeoutNanos;
+            }
+            // a listener's consumer only moves on once the listener returns
+            if (self != null && self.sequence.get() < wrapPoint) {
+                throw rejected(event, "published by " + self.name + ", whose consumer the ring is waiting for");
+            }
+            if (Thread.currentThread().isInterrupted()) {
+                throw rejected(event, "interrupted while waiting for room");
+            }
+            if (idle > 0 && System.nanoTime() - deadline >= 0) {
+                throw rejected(event, "no room within " + TimeUnit.NANOSECONDS.toMillis(publishTimeoutNanos) + " ms");
+            }
+            backOff(idle++);
+            sequence = cursor.get();
+        }
+        int index = (int) sequence & indexMask;
+        events[index] = event;
+        targets.set(index, mask);
+        // volatile write: publishes the slot, and orders it before the sleepers check
+        published.set(index, (int) (sequence >>> shift));
+        if (sleepers.get() > 0) {
+            for (Consumer consumer : gating) {
+                if (consumer.sleeping) LockSupport.unpark(consumer.thread);
+            }
+        }
+    }
+
+    /** True once every consumer is past {@code wrapPoint}, so its slot can be reused. */
+    private boolean hasCapacity(long wrapPoint) {
+        // with no consumer nothing gates; caching "no limit" would let a consumer added later be lapped
+        if (gating.length == 0) return true;
+        long min = minimumSequence();
+        if (min < wrapPoint) return false;
+        gatingSequence = min;
+        return true;
+    }
+
+    private static void backOff(int idle) {
+        if (idle < SPINS) {
+            Thread.onSpinWait();
+        } else if (idle < 2 * SPINS) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(SLEEP_NANOS / 10);
+        }
+    }
+
+    /** The consumer running on this thread, when a listener publishes; null otherwise. */
+    private Consumer currentConsumer() {
+        Thread current = Thread.currentThread();
+        for (Consumer consumer : gating) {
+            if (consumer.thread == current) return consumer;
+        }
+        return null;
+    }
+
+    private RejectedExecutionException rejected(ApplicationEvent event, String reason) {
+        if (rejected.getAndIncrement() == 0) {
+            logger.warning("[EventBus] ring full, refusing events (logged once): " + reason);
+        }
+        return new RejectedExecutionException("[EventBus] ring full, " + event.getClass().getSimpleName()
+                + " not published: " + reason);
+    }
+
+    private long minimumSequence() {
+        long min = Long.MAX_VALUE;
+        for (Consumer consumer : gating) {
+            min = Math.min(min, consumer.sequence.get());
+        }
+        return min;
+    }
+
+    /**
+     * Waits until every consumer has handled everything published so far.
+     * False if the timeout passed first.
+     */
+    public boolean drain(long timeout, TimeUnit unit) {
+        long target = cursor.get() - 1;
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (true) {
+            boolean behind = false;
+            for (Consumer consumer : gating) {
+                // a consumer added after these events were published starts past them
+                if (consumer.sequence.get() < target && consumer.running) behind = true;
+            }
+            if (!behind) return true;
+            if (System.nanoTime() - deadline >= 0) return false;
+            LockSupport.parkNanos(SLEEP_NANOS / 2);
+        }
+    }
+
+    /** Delivers what is queued (up to the drain timeout), then stops the consumers. */
+    @Override
+    public void destroy() {
+        closed = true;
+        boolean drained = drain(drainTimeoutMillis, TimeUnit.MILLISECONDS);
+        List<Consumer> stopped;
+        synchronized (consumers) {
+            stopped = new ArrayList<>(consumers.values());
+            consumers.clear();
+        }
+        for (Consumer consumer : stopped) {
+            consumer.stop();
+        }
+        for (Consumer consumer : stopped) {
+            consumer.join(TimeUnit.SECONDS.toMillis(1));
+        }
+        logger.info("[EventBus] closed (" + (drained ? "drained" : "drain timed out") + "): " + report());
+    }
+
+    /** Per listener: events delivered, batches, errors and how far behind the publishers it is. */
+    public String report() {
+        StringBuilder out = new StringBuilder("published=").append(cursor.get());
+        if (rejected.get() > 0) out.append(" rejected=").append(rejected.get());
+        for (Consumer consumer : gating) {
+            out.append(' ').append(consumer.name).append("(delivered=").append(consumer.delivered)
+                    .append(" batches=").append(consumer.batches).append(" errors=").append(consumer.errors)
+                    .append(" lag=").append(Math.max(0, cursor.get() - 1 - consumer.sequence.get())).append(')');
+        }
+        return out.toString();
+    }
+
+    // ---- which listeners an event goes to
+
+    private Targets targetsFor(ApplicationEvent event, ResolvableType eventType) {
+        TargetsKey key = keyOf(event, eventType);
+        if (key == null) return resolveTargets(event, eventType);
+        Targets targets = targetsCache.get(key);
+        if (targets == null) {
+            targets = resolveTargets(event, eventType);
+            targetsCache.put(key, targets);
+        }
+        return targets;
+    }
+
+    /** Null when listener matching may depend on more than the classes involved. */
+    private static TargetsKey keyOf(ApplicationEvent event, ResolvableType eventType) {
+        Class<?> source = event.getSource() != null ? event.getSource().getClass() : null;
+        if (event instanceof PayloadApplicationEvent<?> payloadEvent) {
+            Object payload = payloadEvent.getPayload();
+            return payload instanceof ResolvableTypeProvider ? null
+                    : new TargetsKey(event.getClass(), payload.getClass(), source);
+        }
+        if (event instanceof ResolvableTypeProvider || (eventType != null && eventType.hasGenerics())) return null;
+        return new TargetsKey(event.getClass(), null, source);
+    }
+
+    private Targets resolveTargets(ApplicationEvent event, ResolvableType eventType) {
+        long mask = 0;
+        List<ApplicationListener<?>> sync = new ArrayList<>();
+        for (ApplicationListener<?> listener : getApplicationListeners(event, typeOf(event, eventType))) {
+            Consumer consumer = listener.supportsAsyncExecution() ? consumerFor(listener) : null;
+            if (consumer != null) {
+                mask |= consumer.bit;
+            } else {
+                sync.add(listener);
+            }
+        }
+        return new Targets(mask, sync.toArray(new ApplicationListener<?>[0]));
+    }
+
+    /** The listener's consumer, started on first use; null when all 64 are taken. */
+    private Consumer consumerFor(ApplicationListener<?> listener) {
+        Consumer consumer = consumers.get(listener);
+        if (consumer != null) return consumer;
+        synchronized (consumers) {
+            consumer = consumers.get(listener);
+            if (consumer != null || closed) return consumer;
+            if (Long.bitCount(usedBits) == MAX_CONSUMERS) {
+                logger.warning("[EventBus] more than " + MAX_CONSUMERS + " listeners, " + listener
+                        + " is called on the publisher's thread");
+                return null;
+            }
+            long bit = Long.lowestOneBit(~usedBits);
+            usedBits |= bit;
+            // starts past everything already published: those slots were not meant for it
+            consumer = new Consumer(listener, bit, cursor.get() - 1);
+            consumers.put(listener, consumer);
+            Consumer[] grown = Arrays.copyOf(gating, gating.length + 1);
+            grown[gating.length] = consumer;
+            gating = grown;
+            consumer.start();
+            return consumer;
+        }
+    }
+
+    /** Forgets the cached targets and stops consumers whose listener is gone. */
+    private void listenersChanged() {
+        targetsCache.clear();
+        Set<ApplicationListener<?>> current = Collections.newSetFromMap(new IdentityHashMap<>());
+        current.addAll(getApplicationListeners());
+        synchronized (consumers) {
+            List<Consumer> remaining = new ArrayList<>();
+            for (Consumer consumer : gating) {
+                if (current.contains(consumer.listener)) {
+                    remaining.add(consumer);
+                } else {
+                    consumers.remove(consumer.listener);
+                    usedBits &= ~consumer.bit;
+                    consumer.stop();
+                }
+            }
+            gating = remaining.toArray(new Consumer[0]);
+        }
+    }
+
+    @Override
+    public void addApplicationListener(ApplicationListener<?> listener) {
+        super.addApplicationListener(listener);
+        targetsCache.clear();
+    }
+
+    @Override
+    public void addApplicationListenerBean(String listenerBeanName) {
+        super.addApplicationListenerBean(listenerBeanName);
+        targetsCache.clear();
+    }
+
+    @Override
+    public void removeApplicationListener(ApplicationListener<?> listener) {
+        super.removeApplicationListener(listener);
+        listenersChanged();
+    }
+
+    @Override
+    public void removeApplicationListenerBean(String listenerBeanName) {
+        super.removeApplicationListenerBean(listenerBeanName);
+        listenersChanged();
+    }
+
+    @Override
+    public void removeApplicationListeners(Predicate<ApplicationListener<?>> predicate) {
+        super.removeApplicationListeners(predicate);
+        listenersChanged();
+    }
+
+    @Override
+    public void removeApplicationListenerBeans(Predicate<String> predicate) {
+        super.removeApplicationListenerBeans(predicate);
+        listenersChanged();
+    }
+
+    @Override
+    public void removeAllListeners() {
+        super.removeAllListeners();
+        listenersChanged();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void invoke(ApplicationListener listener, ApplicationEvent event) {
+        try {
+            listener.onApplicationEvent(event);
+        } catch (Throwable e) {
+            failed(listener, e);
+        }
+    }
+
+    private void failed(ApplicationListener<?> listener, Throwable e) {
+        ErrorHandler handler = errorHandler;
+        if (handler != null) {
+            handler.handleError(e);
+        } else {
+            logger.log(Level.WARNING, "[EventBus] listener " + listener + " failed", e);
+        }
+    }
+
+    private record TargetsKey(Class<?> eventClass, Class<?> payloadClass, Class<?> sourceClass) {
+    }
+
+    private record Targets(long mask, ApplicationListener<?>[] sync) {
+    }
+
+    /** Reads the ring for one listener, in sequence order. */
+    private final class Consumer implements Runnable {
+        final ApplicationListener<?> listener;
+        final long bit;
+        final String name;
+        /** Last sequence handled; slots up to here may be reused. */
+        final AtomicLong sequence;
+        final BatchEventListener<Object> batchListener;
+        private final List<Object> batch;
+        final Thread thread;
+        volatile boolean running = true;
+        volatile boolean sleeping;
+        // written by the consumer thread only
+        volatile long delivered;
+        volatile long batches;
+        volatile long errors;
+
+        @SuppressWarnings("unchecked")
+        Consumer(ApplicationListener<?> listener, long bit, long sequence) {
+            this.listener = listener;
+            this.bit = bit;
+            this.name = listener.getClass().getSimpleName();
+            this.sequence = new AtomicLong(sequence);
+            this.batchListener = listener instanceof BatchEventListener<?> b ? (BatchEventListener<Object>) b : null;
+            this.batch = batchListener != null ? new ArrayList<>(maxBatch) : null;
+            String threadName = "event-" + name;
+            this.thread = virtualThreads ? Thread.ofVirtual().name(threadName).unstarted(this)
+                    : Thread.ofPlatform().name(threadName).daemon().unstarted(this);
+        }
+
+        void start() {
+            thread.start();
+        }
+
+        void stop() {
+            running = false;
+            LockSupport.unpark(thread);
+        }
+
+        void join(long millis) {
+            try {
+                thread.join(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        @Override
+        public void run() {
+            long next = sequence.get() + 1;
+            while (true) {
+                long available = waitFor(next);
+                if (available < next) return;
+                deliver(next, available);
+                sequence.set(available);
+                next = available + 1;
+            }
+        }
+
+        private boolean isPublished(long seq) {
+            return published.get((int) seq & indexMask) == (int) (seq >>> shift);
+        }
+
+        /** Highest sequence of the run available from {@code next} (at most maxBatch), or next - 1 once stopped. */
+        private long waitFor(long next) {
+            int idle = 0;
+            while (!isPublished(next)) {
+                if (!running) return next - 1;
+                idle(idle++, next);
+            }
+            long last = next;
+            long limit = next + maxBatch - 1;
+            while (last < limit && isPublished(last + 1)) {
+                last++;
+            }
+            return last;
+        }
+
+        private void idle(int idle, long next) {
+            if (waitStrategy == WaitStrategy.BUSY_SPIN || idle < SPINS) {
+                Thread.onSpinWait();
+            } else if (waitStrategy == WaitStrategy.YIELDING
+                    || (waitStrategy == WaitStrategy.SLEEPING && idle < 2 * SPINS)) {
+                Thread.yield();
+            } else if (waitStrategy == WaitStrategy.SLEEPING) {
+                LockSupport.parkNanos(SLEEP_NANOS);
+            } else {
+                sleeping = true;
+                sleepers.incrementAndGet();
+                // re-check after announcing: a publisher that missed us will see the flag
+                if (!isPublished(next) && running) {
+                    LockSupport.parkNanos(PARK_NANOS);
+                }
+                sleeping = false;
+                sleepers.decrementAndGet();
+            }
+        }
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private void deliver(long from, long to) {
+            long count = 0;
+            for (long seq = from; seq <= to; seq++) {
+                int index = (int) seq & indexMask;
+                if ((targets.get(index) & bit) == 0) continue;
+                ApplicationEvent event = events[index];
+                // the last consumer to take the event releases it; the slot stays ours until sequence moves past it
+                if (targets.getAndAccumulate(index, bit, (mask, b) -> mask & ~b) == bit) events[index] = null;
+                if (batchListener != null) {
+                    batch.add(event instanceof PayloadApplicationEvent<?> p ? p.getPayload() : event);
+                } else {
+                    try {
+                        ((ApplicationListener) listener).onApplicationEvent(event);
+                    } catch (Throwable e) {
+                        errors++;
+                        failed(listener, e);
+                    }
+                }
+                count++;
+            }
+            if (batchListener != null && !batch.isEmpty()) {
+                try {
+                    batchListener.onEvents(batch);
+                } catch (Throwable e) {
+                    errors++;
+                    failed(listener, e);
+                } finally {
+                    batch.clear();
+                }
+                batches++;
+            }
+            delivered += count;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.events;
+
+/**
+ * What a {@link RingBufferEventMulticaster} consumer does while no event is
+ * available: trade latency for CPU. Consumers on virtual threads should use
+ * {@link #SLEEPING} or {@link #BLOCKING}, which park and so free the carrier.
+ */
+public enum WaitStrategy {
+    /** Spins; lowest latency, burns a core per consumer. */
+    BUSY_SPIN,
+    /** Spins briefly, then yields the CPU between checks. */
+    YIELDING,
+    /** Spins, yields, then sleeps ~100 us between checks. */
+    SLEEPING,
+    /** Spins briefly, then parks until a publisher wakes it. */
+    BLOCKING
+}
@@ -1,20 +1,35 @@
 package org.example.implementations;
 
 import org.example.annotations.Audit;
+import org.example.annotations.Hedged;
+import org.example.annotations.Idempotent;
 import org.example.annotations.LogExecutionTime;
 import org.example.annotations.Metrics;
 import org.example.annotations.RequireRole;
 import org.example.annotations.Retryable;
+import org.example.annotations.Timeout;
 import org.example.annotations.Transactional;
+import org.example.events.BookAdded;
+import org.example.events.BookRemoved;
 import org.example.services.BookService;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.ApplicationEventPublisherAware;
 import org.springframework.stereotype.Component;
 
 @Component
-public class BookServiceImpl implements BookService {
+public class BookServiceImpl implements BookService, ApplicationEventPublisherAware {
+    private ApplicationEventPublisher events;
+
+    @Override
+    public void setApplicationEventPublisher(ApplicationEventPublisher events) {
+        this.events = events;
+    }
+
     @LogExecutionTime
     @Override
     public void addBook(String title, String author) {
         System.out.println("[" + org.example.aop.InvocationContext.currentId() + "] Adding book: " + title + " by " + author);
+        if (events != null) events.publishEvent(new BookAdded(title, author));
     }
 
     @LogExecutionTime
@@ -23,14 +38,18 @@ public class BookServiceImpl implements BookService {
     @Metrics(name = "book.remove")
     @Audit
     @Retryable(attempts = 3, delayMs = 300)
+    @Timeout(2000)
+    @Idempotent
     public void removeBook(String title) {
         if (title == null || title.isEmpty()) {
             throw new RuntimeException("Book title is null!");
         }
         System.out.println("[" + org.example.aop.InvocationContext.currentId() + "] Removing book: " + title);
         System.out.println("[" + org.example.aop.InvocationContext.currentId() + "] Book removed: " + title);
+        if (events != null) events.publishEvent(new BookRemoved(title));
     }
 
+    @Hedged(afterPercentile = 95, maxExtra = 1)
     @Override
     public String findBook(String title) {
         System.out.println("[" + org.example.aop.InvocationContext.currentId() + "] Finding book: " + title);
@@ -0,0 +1,72 @@
+package org.example.infra;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.example.tracing.SpanInterceptor;
+import org.example.tracing.TargetSpanInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.AspectJPrecedenceInformation;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.adapter.AdvisorAdapterRegistry;
+import org.springframework.aop.framework.adapter.GlobalAdvisorAdapterRegistry;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+
+/**
+ * Rewrites the advisor chain of every AOP proxy so each piece of advice runs
+ * inside its own span (see {@link org.example.tracing.Tracer}).
+ *
+ * - Runs after the auto-proxy creator (which is HIGHEST_PRECEDENCE), so the
+ *   proxy and its sorted advisors already exist.
+ * - Pointcuts are reused unchanged, so dynamic matching and argument binding
+ *   (e.g. {@code @annotation(retryable)}) behave exactly as before.
+ * - A terminal interceptor records the target method as the innermost span.
+ */
+@Component
+public class AdviceChainTracingPostProcessor implements BeanPostProcessor, Ordered {
+
+    private final AdvisorAdapterRegistry adapters = GlobalAdvisorAdapterRegistry.getInstance();
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        if (!(bean instanceof Advised advised) || advised.isFrozen()) return bean;
+
+        Advisor[] advisors = advised.getAdvisors();
+        boolean changed = false;
+        for (int i = 0; i < advisors.length; i++) {
+            Advisor advisor = advisors[i];
+            if (!(advisor instanceof AspectJPrecedenceInformation) || !(advisor instanceof PointcutAdvisor pa)) continue;
+
+            MethodInterceptor[] interceptors = adapters.getInterceptors(advisor);
+            if (interceptors.length != 1) continue;
+
+            advised.replaceAdvisor(advisor,
+                    new DefaultPointcutAdvisor(pa.getPointcut(), new SpanInterceptor(label(advisor), interceptors[0])));
+            changed = true;
+        }
+        if (changed) {
+            advised.addAdvisor(new DefaultPointcutAdvisor(Pointcut.TRUE, new TargetSpanInterceptor()));
+        }
+        return bean;
+    }
+
+    private String label(Advisor advisor) {
+        String aspect = ((AspectJPrecedenceInformation) advisor).getAspectName();
+        Advice advice = advisor.getAdvice();
+        if (advice instanceof AbstractAspectJAdvice aj) {
+            return aspect + "." + aj.getAspectJAdviceMethod().getName();
+        }
+        return aspect;
+    }
+}
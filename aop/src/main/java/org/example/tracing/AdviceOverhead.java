@@ -0,0 +1,127 @@
+package org.example.tracing;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Self-time accounting per (advice, method): time spent in an advice minus the
+ * time spent in whatever it proceeded into.
+ *
+ * Each traced interceptor pushes a frame on a per-thread stack of primitive
+ * "child time" counters; on exit it reports its elapsed time to the parent
+ * frame and records {@code elapsed - childTime} as its own self time.
+ * Totals live in fixed-size {@link AtomicLongArray}s indexed by a slot id.
+ *
+ * Off by default; toggle with -Daop.overhead.enabled=true or {@link #setEnabled(boolean)}.
+ * When off the interceptors skip every clock read and counter update.
+ */
+public final class AdviceOverhead {
+
+    static final int MAX_SLOTS = 1024;
+    private static final int MAX_DEPTH = 128;
+
+    private static final ConcurrentHashMap<String, Integer> SLOT_INDEX = new ConcurrentHashMap<>();
+    private static final String[] ADVICE = new String[MAX_SLOTS];
+    private static final String[] METHOD = new String[MAX_SLOTS];
+    private static final AtomicLongArray CALLS = new AtomicLongArray(MAX_SLOTS);
+    private static final AtomicLongArray SELF_NANOS = new AtomicLongArray(MAX_SLOTS);
+    private static final AtomicLongArray TOTAL_NANOS = new AtomicLongArray(MAX_SLOTS);
+    private static final AtomicLongArray MAX_SELF_NANOS = new AtomicLongArray(MAX_SLOTS);
+    private static int slotCount;
+
+    private static final ThreadLocal<Frames> FRAMES = ThreadLocal.withInitial(Frames::new);
+
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getProperty("aop.overhead.enabled", "false"));
+
+    private AdviceOverhead() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+
+    /** @return a stable slot for this advice/method pair, or -1 once the table is full */
+    static int slot(String advice, Method method) {
+        String key = advice + '#' + method.getDeclaringClass().getSimpleName() + '.' + method.getName();
+        Integer existing = SLOT_INDEX.get(key);
+        if (existing != null) {
+            return existing;
+        }
+        synchronized (SLOT_INDEX) {
+            existing = SLOT_INDEX.get(key);
+            if (existing != null) return existing;
+            if (slotCount == MAX_SLOTS) return -1;
+            int slot = slotCount;
+            ADVICE[slot] = advice;
+            METHOD[slot] = method.getDeclaringClass().getSimpleName() + "." + method.getName();
+            slotCount = slot + 1;
+            SLOT_INDEX.put(key, slot);
+            return slot;
+        }
+    }
+
+    static void enter() {
+        FRAMES.get().push();
+    }
+
+    /** Pops the current frame and records its self time; {@code elapsed} includes the children. */
+    static void exit(int slot, long elapsedNanos) {
+        long childNanos = FRAMES.get().pop(elapsedNanos);
+        if (slot < 0) return;
+        long self = Math.max(0L, elapsedNanos - childNanos);
+        CALLS.incrementAndGet(slot);
+        SELF_NANOS.addAndGet(slot, self);
+        TOTAL_NANOS.addAndGet(slot, elapsedNanos);
+        long max;
+        do {
+            max = MAX_SELF_NANOS.get(slot);
+        } while (self > max && !MAX_SELF_NANOS.compareAndSet(slot, max, self));
+    }
+
+    public static OverheadReport report() {
+        int n;
+        synchronized (SLOT_INDEX) {
+            n = slotCount;
+        }
+        OverheadReport.Row[] rows = new OverheadReport.Row[n];
+        for (int i = 0; i < n; i++) {
+            rows[i] = new OverheadReport.Row(ADVICE[i], METHOD[i], CALLS.get(i),
+                    SELF_NANOS.get(i), TOTAL_NANOS.get(i), MAX_SELF_NANOS.get(i));
+        }
+        return new OverheadReport(rows);
+    }
+
+    /** Zeroes all counters; slot assignments are kept. */
+    public static void reset() {
+        for (int i = 0; i < MAX_SLOTS; i++) {
+            CALLS.set(i, 0);
+            SELF_NANOS.set(i, 0);
+            TOTAL_NANOS.set(i, 0);
+            MAX_SELF_NANOS.set(i, 0);
+        }
+    }
+
+    /** Per-thread stack of child-time counters. */
+    private static final class Frames {
+        private final long[] childNanos = new long[MAX_DEPTH];
+        private int depth = -1;
+
+        void push() {
+            depth++;
+            if (depth < MAX_DEPTH) childNanos[depth] = 0L;
+        }
+
+        long pop(long elapsedNanos) {
+            long child = depth < MAX_DEPTH && depth >= 0 ? childNanos[depth] : 0L;
+            depth--;
+            if (depth >= 0 && depth < MAX_DEPTH) childNanos[depth] += elapsedNanos;
+            return child;
+        }
+    }
+}
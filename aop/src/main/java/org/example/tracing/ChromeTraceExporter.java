@@ -0,0 +1,79 @@
+package org.example.tracing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Writes traces in the Chrome trace-event format ("X" complete events),
+ * loadable in chrome://tracing or https://ui.perfetto.dev.
+ */
+public final class ChromeTraceExporter {
+
+    private ChromeTraceExporter() {
+    }
+
+    public static String toJson(List<Trace> traces) {
+        long origin = Long.MAX_VALUE;
+        for (Trace t : traces) {
+            if (t.spanCount() > 0) {
+                origin = Math.min(origin, t.startNanos(0));
+            }
+        }
+
+        StringBuilder sb = new StringBuilder(256 + traces.size() * 512);
+        sb.append("{\"traceEvents\":[");
+        boolean first = true;
+        for (Trace t : traces) {
+            for (int i = 0; i < t.spanCount(); i++) {
+                if (!first) sb.append(',');
+                first = false;
+                sb.append("\n{\"name\":\"").append(escape(t.name(i))).append('"')
+                  .append(",\"cat\":\"aop\",\"ph\":\"X\"")
+                  .append(",\"ts\":").append(micros(t.startNanos(i) - origin))
+                  .append(",\"dur\":").append(micros(t.durationNanos(i)))
+                  .append(",\"pid\":1,\"tid\":").append(t.getThreadId())
+                  .append(",\"args\":{\"traceId\":\"").append(escape(t.getTraceId())).append('"')
+                  .append(",\"span\":").append(i)
+                  .append(",\"parent\":").append(t.parent(i))
+                  .append(",\"selfUs\":").append(micros(t.selfNanos(i)))
+                  .append("}}");
+            }
+        }
+        sb.append("\n],\"displayTimeUnit\":\"ns\"}\n");
+        return sb.toString();
+    }
+
+    public static void write(List<Trace> traces, Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Files.writeString(file, toJson(traces), StandardCharsets.UTF_8);
+    }
+
+    private static String micros(long nanos) {
+        return String.format(java.util.Locale.ROOT, "%.3f", nanos / 1_000.0);
+    }
+
+    private static String escape(String s) {
+        StringBuilder sb = new StringBuilder(s.length());
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) sb.append(String.format("\\u%04x", (int) c));
+                    else sb.append(c);
+                }
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,63 @@
+package org.example.tracing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Snapshot of {@link AdviceOverhead} counters, sortable by any column.
+ */
+public final class OverheadReport {
+
+    public enum SortKey {
+        SELF_TOTAL(Comparator.comparingLong(Row::selfNanos)),
+        SELF_AVG(Comparator.comparingDouble(Row::avgSelfNanos)),
+        SELF_MAX(Comparator.comparingLong(Row::maxSelfNanos)),
+        CALLS(Comparator.comparingLong(Row::calls));
+
+        private final Comparator<Row> order;
+
+        SortKey(Comparator<Row> order) {
+            this.order = order;
+        }
+    }
+
+    public record Row(String advice, String method, long calls, long selfNanos, long totalNanos, long maxSelfNanos) {
+        public double avgSelfNanos() {
+            return calls == 0 ? 0.0 : (double) selfNanos / calls;
+        }
+    }
+
+    private final Row[] rows;
+
+    OverheadReport(Row[] rows) {
+        this.rows = rows;
+    }
+
+    /** @return rows with at least one call, largest first */
+    public List<Row> sortedBy(SortKey key) {
+        List<Row> out = new ArrayList<>(rows.length);
+        for (Row r : rows) {
+            if (r.calls() > 0) out.add(r);
+        }
+        out.sort(key.order.reversed());
+        return out;
+    }
+
+    public List<Row> rows() {
+        return List.copyOf(Arrays.asList(rows));
+    }
+
+    public String format(SortKey key) {
+        StringBuilder sb = new StringBuilder(128 + rows.length * 96);
+        sb.append(String.format("%-40s %-28s %8s %12s %12s %12s%n",
+                "advice", "method", "calls", "self(us)", "avgSelf(us)", "maxSelf(us)"));
+        for (Row r : sortedBy(key)) {
+            sb.append(String.format("%-40s %-28s %8d %12.1f %12.2f %12.1f%n",
+                    r.advice(), r.method(), r.calls(),
+                    r.selfNanos() / 1_000.0, r.avgSelfNanos() / 1_000.0, r.maxSelfNanos() / 1_000.0));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,71 @@
+package org.example.tracing;
+
+/**
+ * Per-thread, preallocated span storage.
+ *
+ * Spans are appended in start order; parents always have a lower index than
+ * their children, so a finished trace can be rebuilt without extra pointers.
+ * Nothing here is thread-safe: one buffer belongs to exactly one thread.
+ */
+final class SpanBuffer {
+
+    private final String[] names;
+    private final int[] parents;
+    private final long[] starts;
+    private final long[] ends;
+
+    private int size;
+    private int current = -1;
+    private int dropped;
+    private String traceId;
+
+    SpanBuffer(int capacity) {
+        this.names = new String[capacity];
+        this.parents = new int[capacity];
+        this.starts = new long[capacity];
+        this.ends = new long[capacity];
+    }
+
+    /** @return span index, or -1 if the buffer is full (the span is counted as dropped) */
+    int begin(String name, long nowNanos) {
+        if (size == names.length) {
+            dropped++;
+            return -1;
+        }
+        int i = size++;
+        names[i] = name;
+        parents[i] = current;
+        starts[i] = nowNanos;
+        ends[i] = 0L;
+        current = i;
+        return i;
+    }
+
+    /** @return true when the root span just ended and the trace is complete */
+    boolean end(int span, long nowNanos) {
+        ends[span] = nowNanos;
+        current = parents[span];
+        return current == -1;
+    }
+
+    boolean isActive() {
+        return current != -1;
+    }
+
+    void tag(String id) {
+        if (traceId == null) {
+            traceId = id;
+        }
+    }
+
+    Trace drain(Thread thread) {
+        Trace trace = new Trace(traceId, thread.getName(), thread.threadId(),
+                names, parents, starts, ends, size, dropped);
+        // only references are cleared; the arrays stay allocated for the next trace
+        java.util.Arrays.fill(names, 0, size, null);
+        size = 0;
+        dropped = 0;
+        traceId = null;
+        return trace;
+    }
+}
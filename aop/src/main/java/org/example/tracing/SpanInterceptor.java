@@ -0,0 +1,57 @@
+package org.example.tracing;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Wraps one interceptor of an advice chain in a span. Because the delegate
+ * calls {@code invocation.proceed()}, downstream advice and the target become
+ * child spans of this one.
+ *
+ * When {@link AdviceOverhead} is enabled it also records this advice's self
+ * time (its elapsed time minus the time spent in {@code proceed()}).
+ */
+public final class SpanInterceptor implements MethodInterceptor {
+
+    private final String label;
+    private final MethodInterceptor delegate;
+    private final ConcurrentHashMap<Method, Integer> slots = new ConcurrentHashMap<>();
+
+    public SpanInterceptor(String label, MethodInterceptor delegate) {
+        this.label = label;
+        this.delegate = delegate;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public MethodInterceptor getDelegate() {
+        return delegate;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        int span = Tracer.begin(label);
+        if (!AdviceOverhead.isEnabled()) {
+            try {
+                return delegate.invoke(invocation);
+            } finally {
+                Tracer.end(span);
+            }
+        }
+
+        int slot = slots.computeIfAbsent(invocation.getMethod(), m -> AdviceOverhead.slot(label, m));
+        long start = System.nanoTime();
+        AdviceOverhead.enter();
+        try {
+            return delegate.invoke(invocation);
+        } finally {
+            AdviceOverhead.exit(slot, System.nanoTime() - start);
+            Tracer.end(span);
+        }
+    }
+}
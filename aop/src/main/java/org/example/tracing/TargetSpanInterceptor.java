@@ -0,0 +1,46 @@
+package org.example.tracing;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+/**
+ * Last interceptor in a traced chain: records the target method itself.
+ * Only opens a span when a trace is already running, so unadvised methods
+ * such as toString() do not start traces of their own.
+ *
+ * With {@link AdviceOverhead} enabled the target is accounted as "target",
+ * which closes the self-time books for the advice above it.
+ */
+public final class TargetSpanInterceptor implements MethodInterceptor {
+
+    private final ConcurrentHashMap<Method, Integer> slots = new ConcurrentHashMap<>();
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        boolean traced = Tracer.isActive();
+        boolean accounted = AdviceOverhead.isEnabled();
+        if (!traced && !accounted) {
+            return invocation.proceed();
+        }
+
+        int span = -1;
+        if (traced) {
+            Object target = invocation.getThis();
+            String owner = target != null ? target.getClass().getSimpleName()
+                    : invocation.getMethod().getDeclaringClass().getSimpleName();
+            span = Tracer.begin("target:" + owner + "." + invocation.getMethod().getName());
+        }
+        int slot = accounted ? slots.computeIfAbsent(invocation.getMethod(), m -> AdviceOverhead.slot("target", m)) : -1;
+        long start = accounted ? System.nanoTime() : 0L;
+        if (accounted) AdviceOverhead.enter();
+        try {
+            return invocation.proceed();
+        } finally {
+            if (accounted) AdviceOverhead.exit(slot, System.nanoTime() - start);
+            Tracer.end(span);
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package org.example.tracing;
+
+import java.util.Arrays;
+
+/**
+ * A finished, immutable trace: one root span plus all of its descendants
+ * recorded on a single thread. Times are {@link System#nanoTime()} values.
+ */
+public final class Trace {
+
+    private final String traceId;
+    private final String threadName;
+    private final long threadId;
+    private final String[] names;
+    private final int[] parents;
+    private final long[] starts;
+    private final long[] ends;
+    private final int dropped;
+
+    Trace(String traceId, String threadName, long threadId,
+          String[] names, int[] parents, long[] starts, long[] ends, int size, int dropped) {
+        this.traceId = traceId != null ? traceId : "-";
+        this.threadName = threadName;
+        this.threadId = threadId;
+        this.names = Arrays.copyOf(names, size);
+        this.parents = Arrays.copyOf(parents, size);
+        this.starts = Arrays.copyOf(starts, size);
+        this.ends = Arrays.copyOf(ends, size);
+        this.dropped = dropped;
+    }
+
+    public String getTraceId() {
+        return traceId;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    public int spanCount() {
+        return names.length;
+    }
+
+    /** Spans that did not fit into the per-thread buffer. */
+    public int droppedSpans() {
+        return dropped;
+    }
+
+    public String name(int span) {
+        return names[span];
+    }
+
+    /** @return parent span index, or -1 for the root */
+    public int parent(int span) {
+        return parents[span];
+    }
+
+    public long startNanos(int span) {
+        return starts[span];
+    }
+
+    public long durationNanos(int span) {
+        return ends[span] - starts[span];
+    }
+
+    /** Span duration minus the time spent in its direct children. */
+    public long selfNanos(int span) {
+        long self = durationNanos(span);
+        for (int i = span + 1; i < names.length; i++) {
+            if (parents[i] == span) {
+                self -= durationNanos(i);
+            }
+        }
+        return self;
+    }
+
+    public long totalNanos() {
+        return names.length == 0 ? 0L : durationNanos(0);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(64 + names.length * 48);
+        sb.append("Trace[").append(traceId).append("] thread=").append(threadName)
+          .append(" total=").append(totalNanos() / 1_000).append("us");
+        for (int i = 0; i < names.length; i++) {
+            sb.append('\n');
+            for (int p = parents[i]; p != -1; p = parents[p]) {
+                sb.append("  ");
+            }
+            sb.append(names[i])
+              .append(" total=").append(durationNanos(i) / 1_000).append("us")
+              .append(" self=").append(selfNanos(i) / 1_000).append("us");
+        }
+        return sb.toString();
+    }
+}
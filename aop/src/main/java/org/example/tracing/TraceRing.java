@@ -0,0 +1,52 @@
+package org.example.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded in-memory ring of the most recent finished traces.
+ * Writers never block; once full, the oldest trace is overwritten.
+ */
+public final class TraceRing {
+
+    private final AtomicReferenceArray<Trace> slots;
+    private final AtomicLong written = new AtomicLong();
+
+    public TraceRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be > 0: " + capacity);
+        }
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void add(Trace trace) {
+        long seq = written.getAndIncrement();
+        slots.set((int) (seq % slots.length()), trace);
+    }
+
+    /** @return the retained traces, oldest first */
+    public List<Trace> snapshot() {
+        long end = written.get();
+        long start = Math.max(0, end - slots.length());
+        List<Trace> out = new ArrayList<>((int) (end - start));
+        for (long seq = start; seq < end; seq++) {
+            Trace t = slots.get((int) (seq % slots.length()));
+            if (t != null) {
+                out.add(t);
+            }
+        }
+        return out;
+    }
+
+    public long totalWritten() {
+        return written.get();
+    }
+
+    public void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+}
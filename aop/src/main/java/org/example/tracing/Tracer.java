@@ -0,0 +1,70 @@
+package org.example.tracing;
+
+/**
+ * Span tracer used by the advice chain.
+ *
+ * Each thread records into its own preallocated {@link SpanBuffer}; when the
+ * outermost span ends the trace is copied out once and pushed to the
+ * {@link TraceRing}. Nested spans therefore never touch shared state.
+ *
+ * Off by default; toggle with -Dtracing.enabled=true or {@link #setEnabled(boolean)}.
+ */
+public final class Tracer {
+
+    private static final int SPANS_PER_THREAD = Integer.getInteger("tracing.spansPerThread", 256);
+    private static final TraceRing RING = new TraceRing(Integer.getInteger("tracing.ringSize", 128));
+    private static final ThreadLocal<SpanBuffer> BUFFER =
+            ThreadLocal.withInitial(() -> new SpanBuffer(SPANS_PER_THREAD));
+
+    private static volatile boolean enabled =
+            Boolean.parseBoolean(System.getProperty("tracing.enabled", "false"));
+
+    private Tracer() {
+    }
+
+    /** @return a span handle for {@link #end(int)}, or -1 when tracing is off */
+    public static int begin(String name) {
+        if (!enabled) {
+            return -1;
+        }
+        return BUFFER.get().begin(name, System.nanoTime());
+    }
+
+    public static void end(int span) {
+        if (span < 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        SpanBuffer buffer = BUFFER.get();
+        if (buffer.end(span, now)) {
+            RING.add(buffer.drain(Thread.currentThread()));
+        }
+    }
+
+    /** @return true if the current thread is inside a recorded span */
+    public static boolean isActive() {
+        return enabled && BUFFER.get().isActive();
+    }
+
+    /** Labels the current trace (first caller wins), e.g. with the invocation id. */
+    public static void tagTrace(String id) {
+        if (enabled) {
+            SpanBuffer buffer = BUFFER.get();
+            if (buffer.isActive()) {
+                buffer.tag(id);
+            }
+        }
+    }
+
+    public static TraceRing recentTraces() {
+        return RING;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean on) {
+        enabled = on;
+    }
+}
@@ -9,7 +9,36 @@ import org.example.security.SecurityContext;
 import org.example.services.BookService;
 import org.example.aop.*;
 import org.example.annotations.*;
+import org.example.events.BatchEventListener;
+import org.example.events.BookInventory;
+import org.example.events.RingBufferEventMulticaster;
+import org.example.events.WaitStrategy;
+import org.example.tracing.AdviceOverhead;
+import org.example.tracing.ChromeTraceExporter;
+import org.example.tracing.OverheadReport;
+import org.example.tracing.Trace;
+import org.example.tracing.Tracer;
+import org.springframework.aop.framework.Advised;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.PayloadApplicationEvent;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.EnableAspectJAutoProxy;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.PrintStream;
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
 
 /**
  * Unit test for all classes in AOP project
@@ -188,6 +217,9 @@ public class AppTest
         assertTrue(Retryable.class != null);
         assertTrue(RequireRole.class != null);
         assertTrue(Metrics.class != null);
+        assertTrue(Timeout.class != null);
+        assertTrue(Hedged.class != null);
+        assertTrue(Idempotent.class != null);
     }
 
     /**
@@ -209,6 +241,685 @@ public class AppTest
         assertTrue(config != null);
     }
 
+    /**
+     * Test span tracing records each advice and the target as nested spans
+     */
+    public void testRemoveBookIsTraced()
+    {
+        Tracer.setEnabled(true);
+        try {
+            Tracer.recentTraces().clear();
+            long before = Tracer.recentTraces().totalWritten();
+            bookService.removeBook("Traced Book");
+            assertEquals(before + 1, Tracer.recentTraces().totalWritten());
+
+            List<Trace> traces = Tracer.recentTraces().snapshot();
+            Trace trace = traces.get(traces.size() - 1);
+            assertEquals(-1, trace.parent(0));
+            assertTrue(trace.spanCount() > 5);
+            assertEquals("-", InvocationContext.currentId());
+
+            boolean sawTarget = false;
+            for (int i = 0; i < trace.spanCount(); i++) {
+                if (trace.name(i).equals("target:BookServiceImpl.removeBook")) {
+                    sawTarget = true;
+                    assertTrue(trace.parent(i) >= 0);
+                }
+                assertTrue(trace.selfNanos(i) >= 0);
+            }
+            assertTrue(sawTarget);
+            assertFalse(trace.getTraceId().equals("-"));
+
+            String json = ChromeTraceExporter.toJson(traces);
+            assertTrue(json.contains("\"traceEvents\""));
+            assertTrue(json.contains("\"ph\":\"X\""));
+        } finally {
+            Tracer.setEnabled(false);
+        }
+
+        long before = Tracer.recentTraces().totalWritten();
+        bookService.findBook("Not traced");
+        assertEquals(before, Tracer.recentTraces().totalWritten());
+    }
+
+    /**
+     * Test a nested invocation keeps and then restores the outer invocation id
+     */
+    public void testNestedInvocationKeepsOuterId()
+    {
+        InvocationContext.setId("outer-id");
+        try {
+            bookService.findBook("Nested");
+            assertEquals("outer-id", InvocationContext.currentId());
+        } finally {
+            InvocationContext.clear();
+        }
+    }
+
+    /**
+     * Test per-advice self-time accounting and its runtime switch
+     */
+    public void testAdviceOverheadAccounting()
+    {
+        AdviceOverhead.setEnabled(true);
+        try {
+            AdviceOverhead.reset();
+            bookService.removeBook("Accounted Book");
+
+            List<OverheadReport.Row> rows =
+                    AdviceOverhead.report().sortedBy(OverheadReport.SortKey.SELF_TOTAL);
+            assertFalse(rows.isEmpty());
+            for (int i = 1; i < rows.size(); i++) {
+                assertTrue(rows.get(i - 1).selfNanos() >= rows.get(i).selfNanos());
+            }
+            boolean sawRetry = false;
+            boolean sawTarget = false;
+            for (OverheadReport.Row row : rows) {
+                assertTrue(row.selfNanos() <= row.totalNanos());
+                if (row.advice().startsWith("retryAspect.")) sawRetry = true;
+                if (row.advice().equals("target") && row.method().endsWith("removeBook")) sawTarget = true;
+            }
+            assertTrue(sawRetry);
+            assertTrue(sawTarget);
+        } finally {
+            AdviceOverhead.setEnabled(false);
+        }
+
+        AdviceOverhead.reset();
+        bookService.findBook("Not accounted");
+        assertTrue(AdviceOverhead.report().sortedBy(OverheadReport.SortKey.CALLS).isEmpty());
+    }
+
+    /**
+     * Test nested calls inherit the caller's remaining budget and retry stops early
+     */
+    public void testRetryStopsWhenDeadlineCannotBeMet()
+    {
+        long errorsBefore = TimeoutAspect.getErrorCounts().getOrDefault("BookService.removeBook(..)", 0L);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+        long previous = InvocationContext.tightenDeadline(deadline);
+        long start = System.nanoTime();
+        try {
+            bookService.removeBook("");
+            fail("Should have thrown exception for empty title");
+        } catch (DeadlineExceededException e) {
+            fail("Validation error should not be reported as a timeout");
+        } catch (RuntimeException e) {
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            assertTrue("retry should give up instead of sleeping past the deadline", elapsedMs < 300);
+            assertEquals(deadline, InvocationContext.deadlineNanos());
+        } finally {
+            InvocationContext.restoreDeadline(previous);
+        }
+        assertFalse(InvocationContext.hasDeadline());
+        assertEquals(errorsBefore + 1,
+                (long) TimeoutAspect.getErrorCounts().get("BookService.removeBook(..)"));
+    }
+
+    /**
+     * Test an exhausted budget is reported as a timeout, not an error
+     */
+    public void testExhaustedBudgetCountsAsTimeout()
+    {
+        long timeoutsBefore = TimeoutAspect.getTimeoutCounts().getOrDefault("BookService.removeBook(..)", 0L);
+        long previous = InvocationContext.tightenDeadline(System.nanoTime() - 1);
+        try {
+            bookService.removeBook("Too Late");
+            fail("Should have thrown DeadlineExceededException");
+        } catch (DeadlineExceededException e) {
+            assertTrue(true);
+        } finally {
+            InvocationContext.restoreDeadline(previous);
+        }
+        assertEquals(timeoutsBefore + 1,
+                (long) TimeoutAspect.getTimeoutCounts().get("BookService.removeBook(..)"));
+        assertFalse(Thread.currentThread().isInterrupted());
+    }
+
+    /**
+     * Test hedged reads return the right result and keep extra load capped
+     */
+    public void testHedgedFindBook()
+    {
+        for (int i = 0; i < 60; i++) {
+            assertEquals("Book found: Hedge " + i, bookService.findBook("Hedge " + i));
+        }
+        HedgingAspect.HedgeStats stats = HedgingAspect.getStats().get("BookService.findBook(..)");
+        assertNotNull(stats);
+        assertTrue(stats.calls() >= 60);
+        assertTrue(stats.thresholdNanos() > 0);
+        assertTrue(stats.extraLoadPercent() <= 10.0 + 100.0 / stats.calls());
+        assertTrue(stats.hedgeWins() <= stats.hedges());
+    }
+
+    /**
+     * Test a hedged call runs on the caller's thread, a faster duplicate cuts
+     * it short, and checked exceptions come back as declared
+     */
+    public void testHedgeCutsSlowCallerShort() throws Exception
+    {
+        try (AnnotationConfigApplicationContext hedgeCtx = new AnnotationConfigApplicationContext(HedgeConfig.class)) {
+            SlowReader reader = hedgeCtx.getBean(SlowReader.class);
+            // the bean is a class proxy: its own fields are not the target's
+            SlowReader target = (SlowReader) ((Advised) reader).getTargetSource().getTarget();
+            for (int i = 0; i < 40; i++) {
+                assertEquals("value " + i, reader.read("value " + i));
+            }
+
+            target.slowThread = Thread.currentThread();
+            target.threads.clear();
+            long start = System.nanoTime();
+            assertEquals("slow", reader.read("slow"));
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            assertFalse(Thread.currentThread().isInterrupted());
+            assertEquals(Thread.currentThread(), target.threads.get(0));
+            assertTrue(HedgingAspect.getStats().get("SlowReader.read(..)").hedgeWins() >= 1);
+
+            target.slowThread = null;
+            target.fail = true;
+            try {
+                reader.read("broken");
+                fail("expected IOException");
+            } catch (IOException e) {
+                assertEquals("cannot read broken", e.getMessage());
+            }
+        }
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    static class HedgeConfig {
+        @Bean
+        HedgingAspect hedgingAspect() {
+            return new HedgingAspect();
+        }
+
+        @Bean
+        SlowReader slowReader() {
+            return new SlowReader();
+        }
+    }
+
+    public static class SlowReader {
+        final List<Thread> threads = new CopyOnWriteArrayList<>();
+        volatile Thread slowThread;
+        volatile boolean fail;
+
+        @Hedged(afterPercentile = 50, maxExtra = 1, maxExtraLoadPercent = 100)
+        public String read(String key) throws IOException {
+            threads.add(Thread.currentThread());
+            if (fail) throw new IOException("cannot read " + key);
+            if (Thread.currentThread() == slowThread) {
+                try {
+                    Thread.sleep(30_000);
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException("cut short");
+                }
+            }
+            return key;
+        }
+    }
+
+    /**
+     * Test the latency histogram percentiles and bucket bounds
+     */
+    public void testLatencyHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram(10_000);
+        assertEquals(-1, histogram.percentile(95));
+        for (int i = 1; i <= 100; i++) {
+            histogram.record(i * 1_000L);
+        }
+        assertEquals(100, histogram.count());
+        long p50 = histogram.percentile(50);
+        long p95 = histogram.percentile(95);
+        assertTrue(p50 >= 50_000 && p50 <= 50_000 * 1.125);
+        assertTrue(p95 >= 95_000 && p95 <= 95_000 * 1.125);
+        assertTrue(histogram.percentile(100) >= 100_000);
+    }
+
+    /**
+     * Test removeBook is deduplicated per caller-supplied key only, and failures are not remembered
+     */
+    public void testIdempotentRemoveBook()
+    {
+        IdempotentAspect idempotent = ctx.getBean(IdempotentAspect.class);
+        // without a key equal arguments are two real calls
+        bookService.removeBook("Twice");
+        bookService.removeBook("Twice");
+        assertEquals(Long.valueOf(2), idempotent.getStats().get("executed"));
+        assertEquals(Long.valueOf(0), idempotent.getStats().get("replayed"));
+
+        IdempotencyKey.set("client-key-0");
+        try {
+            for (int i = 0; i < 2; i++) {
+                try {
+                    bookService.removeBook("");
+                    fail("Should have thrown exception for empty title");
+                } catch (RuntimeException e) {
+                    assertTrue(true);
+                }
+            }
+        } finally {
+            IdempotencyKey.clear();
+        }
+        assertEquals(Long.valueOf(4), idempotent.getStats().get("executed"));
+
+        IdempotencyKey.set("client-key-1");
+        try {
+            bookService.removeBook("First");
+            bookService.removeBook("Second");
+        } finally {
+            IdempotencyKey.clear();
+        }
+        assertEquals(Long.valueOf(5), idempotent.getStats().get("executed"));
+        assertEquals(Long.valueOf(1), idempotent.getStats().get("replayed"));
+    }
+
+    /**
+     * Test argument-derived keys are opt-in and only dedupe within their short window
+     */
+    public void testDerivedIdempotencyKeyExpires() throws Exception
+    {
+        try (AnnotationConfigApplicationContext idemCtx = new AnnotationConfigApplicationContext(IdempotentConfig.class)) {
+            Counter counter = idemCtx.getBean(Counter.class);
+            assertEquals(1, counter.bump("x"));
+            assertEquals(1, counter.bump("x"));
+            assertEquals(2, counter.bump("y"));
+            Thread.sleep(300);
+            assertEquals(3, counter.bump("x"));
+        }
+    }
+
+    @Configuration
+    @EnableAspectJAutoProxy
+    static class IdempotentConfig {
+        @Bean
+        IdempotentAspect idempotentAspect() {
+            return new IdempotentAspect();
+        }
+
+        @Bean
+        Counter counter() {
+            return new Counter();
+        }
+    }
+
+    public static class Counter {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Idempotent(deriveKey = true, derivedKeyTtlMs = 200)
+        public int bump(String key) {
+            return count.incrementAndGet();
+        }
+    }
+
+    /**
+     * Test the idempotency table stays bounded and expires entries
+     */
+    public void testIdempotencyTableEviction()
+    {
+        IdempotencyTable table = new IdempotencyTable(2);
+        long ttl = TimeUnit.MINUTES.toNanos(1);
+        assertTrue(table.claim("a", ttl).owner());
+        assertTrue(table.claim("b", ttl).owner());
+        assertFalse(table.claim("a", ttl).owner());
+        assertTrue(table.claim("c", ttl).owner());
+        assertEquals(2, table.size());
+        assertEquals(1, table.evictions());
+        assertTrue(table.claim("a", ttl).owner());
+
+        assertTrue(table.claim("short", 0).owner());
+        assertTrue(table.claim("short", 0).owner());
+
+        // released entries do not count toward the bound
+        IdempotencyTable released = new IdempotencyTable(2);
+        for (int i = 0; i < 10; i++) {
+            released.release(released.claim("failing", ttl).entry());
+        }
+        assertTrue(released.claim("x", ttl).owner());
+        assertTrue(released.claim("y", ttl).owner());
+        assertEquals(2, released.size());
+        assertEquals(0, released.evictions());
+        assertFalse(released.claim("x", ttl).owner());
+    }
+
+    /**
+     * Test close() stops admitting service calls and waits for the ones in flight
+     */
+    public void testShutdownDrainsInFlightCalls() throws Exception
+    {
+        ShutdownCoordinator coordinator = ctx.getBean(ShutdownCoordinator.class);
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PrintStream out = System.out;
+        // addBook prints its message from inside the call: hold it there
+        System.setOut(new PrintStream(out, true) {
+            @Override
+            public void println(String x) {
+                if (x != null && x.contains("Adding book: Slow")) {
+                    entered.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                super.println(x);
+            }
+        });
+        try {
+            AtomicBoolean completed = new AtomicBoolean();
+            Thread caller = new Thread(() -> {
+                bookService.addBook("Slow", "Author");
+                completed.set(true);
+            });
+            caller.start();
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+            assertEquals(1, coordinator.getInFlight());
+
+            Thread closer = new Thread(ctx::close);
+            closer.start();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coordinator.isAccepting() && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertFalse(coordinator.isAccepting());
+            try {
+                bookService.findBook("Late");
+                fail("Should have rejected a call during shutdown");
+            } catch (ShutdownRejectedException e) {
+                assertEquals(1, coordinator.getRejected());
+            }
+            assertTrue("close must wait for the in-flight call", closer.isAlive());
+
+            release.countDown();
+            caller.join(5_000);
+            closer.join(5_000);
+            assertTrue(completed.get());
+            assertFalse(closer.isAlive());
+            assertEquals(0, coordinator.getInFlight());
+        } finally {
+            release.countDown();
+            System.setOut(out);
+        }
+    }
+
+    /** ProjectConfig with the ring-buffer event multicaster switched on. */
+    private static AnnotationConfigApplicationContext ringBufferContext() {
+        System.setProperty("events.ringBuffer", "true");
+        try {
+            return new AnnotationConfigApplicationContext(ProjectConfig.class);
+        } finally {
+            System.clearProperty("events.ringBuffer");
+        }
+    }
+
+    /**
+     * Test book events reach the inventory, synchronously by default
+     */
+    public void testBookEventsUpdateInventory()
+    {
+        BookInventory inventory = ctx.getBean(BookInventory.class);
+        bookService.addBook("Dune", "Frank Herbert");
+        bookService.addBook("Emma", "Jane Austen");
+        bookService.removeBook("Dune");
+        assertEquals(3, inventory.getApplied());
+        assertTrue(inventory.contains("Emma"));
+        assertFalse(inventory.contains("Dune"));
+    }
+
+    /**
+     * Test book events reach the inventory through the opt-in event bus
+     */
+    public void testBookEventsUpdateInventoryThroughRingBuffer()
+    {
+        try (AnnotationConfigApplicationContext ringCtx = ringBufferContext()) {
+            BookService books = ringCtx.getBean(BookService.class);
+            BookInventory inventory = ringCtx.getBean(BookInventory.class);
+            books.addBook("Dune", "Frank Herbert");
+            books.addBook("Emma", "Jane Austen");
+            books.removeBook("Dune");
+            assertTrue(ringCtx.getBean(RingBufferEventMulticaster.class).drain(5, TimeUnit.SECONDS));
+            assertEquals(3, inventory.getApplied());
+            assertTrue(inventory.contains("Emma"));
+            assertFalse(inventory.contains("Dune"));
+        }
+    }
+
+    /**
+     * Test a listener publishing into a ring its own consumer holds up is refused instead of deadlocking
+     */
+    public void testListenerPublishingIntoFullRingIsRejected()
+    {
+        RingBufferEventMulticaster multicaster = new RingBufferEventMulticaster(2, WaitStrategy.BLOCKING, 1, false, 1_000);
+        multicaster.setPublishTimeoutMillis(10_000);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        AtomicInteger refused = new AtomicInteger();
+        multicaster.addApplicationListener(new ApplicationListener<PayloadApplicationEvent<Integer>>() {
+            @Override
+            public void onApplicationEvent(PayloadApplicationEvent<Integer> event) {
+                received.add(event.getPayload());
+                if (event.getPayload() == 0) {
+                    for (int i = 1; i <= 4; i++) {
+                        try {
+                            multicaster.multicastEvent(new PayloadApplicationEvent<>(this, i));
+                        } catch (RejectedExecutionException e) {
+                            refused.incrementAndGet();
+                        }
+                    }
+                }
+            }
+        });
+        try {
+            long start = System.nanoTime();
+            multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 0));
+            // the first drain ends once event 0 is handled, by then the listener has published the rest
+            assertTrue(multicaster.drain(5, TimeUnit.SECONDS));
+            assertTrue(multicaster.drain(5, TimeUnit.SECONDS));
+            // refused straight away, not after the publish timeout
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(5));
+            // one more fits next to the event being handled; nothing is delivered around the ring
+            assertEquals(List.of(0, 1), received);
+            assertEquals(3, refused.get());
+            assertTrue(multicaster.report().contains("rejected=3"));
+        } finally {
+            multicaster.destroy();
+        }
+    }
+
+    /**
+     * Test a publisher facing a full ring waits for room, and is refused once the wait times out
+     */
+    public void testPublisherWaitsForRoomThenIsRejected() throws Exception
+    {
+        RingBufferEventMulticaster multicaster = new RingBufferEventMulticaster(2, WaitStrategy.BLOCKING, 1, false, 1_000);
+        multicaster.setPublishTimeoutMillis(50);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> received = new CopyOnWriteArrayList<>();
+        Thread publisher = Thread.currentThread();
+        multicaster.addApplicationListener(new ApplicationListener<PayloadApplicationEvent<Integer>>() {
+            @Override
+            public void onApplicationEvent(PayloadApplicationEvent<Integer> event) {
+                assertNotSame(publisher, Thread.currentThread());
+                received.add(event.getPayload());
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        try {
+            multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 0));
+            multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 1));
+            long start = System.nanoTime();
+            try {
+                multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 2));
+                fail("the ring stayed full");
+            } catch (RejectedExecutionException expected) {
+                assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(50));
+            }
+
+            // with the timeout long enough, the same publish just waits until the consumer makes room
+            multicaster.setPublishTimeoutMillis(5_000);
+            Thread opener = new Thread(() -> {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(50));
+                release.countDown();
+            });
+            opener.start();
+            multicaster.multicastEvent(new PayloadApplicationEvent<>(this, 3));
+            opener.join();
+            assertTrue(multicaster.drain(5, TimeUnit.SECONDS));
+            assertEquals(List.of(0, 1, 3), received);
+        } finally {
+            release.countDown();
+            multicaster.destroy();
+        }
+    }
+
+    /**
+     * Test a ring far smaller than the traffic keeps each key's events in order for every listener
+     */
+    public void testSmallRingKeepsPerKeyOrderUnderBackpressure() throws Exception
+    {
+        RingBufferEventMulticaster multicaster = new RingBufferEventMulticaster(4, WaitStrategy.BLOCKING, 2, false, 1_000);
+        multicaster.setPublishTimeoutMillis(10_000);
+        int threads = 3, keysPerThread = 2, steps = 300;
+        ConcurrentHashMap<Integer, Integer> slowLast = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Integer, Integer> batchLast = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        AtomicInteger slowSeen = new AtomicInteger();
+        multicaster.addApplicationListener(new ApplicationListener<PayloadApplicationEvent<Step>>() {
+            @Override
+            public void onApplicationEvent(PayloadApplicationEvent<Step> event) {
+                Step step = event.getPayload();
+                Integer last = slowLast.put(step.key(), step.seq());
+                if (step.seq() != (last == null ? 0 : last + 1)) outOfOrder.incrementAndGet();
+                // slower than the publishers, so they keep running into a full ring
+                if (slowSeen.incrementAndGet() % 16 == 0) LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        });
+        multicaster.addApplicationListener(new BatchEventListener<Step>() {
+            @Override
+            public void onEvents(List<Step> events) {
+                for (Step step : events) {
+                    Integer last = batchLast.put(step.key(), step.seq());
+                    if (step.seq() != (last == null ? 0 : last + 1)) outOfOrder.incrementAndGet();
+                }
+            }
+        });
+        try {
+            Thread[] publishers = new Thread[threads];
+            for (int t = 0; t < threads; t++) {
+                int first = t * keysPerThread;
+                publishers[t] = new Thread(() -> {
+                    for (int seq = 0; seq < steps; seq++) {
+                        for (int key = first; key < first + keysPerThread; key++) {
+                            multicaster.multicastEvent(new PayloadApplicationEvent<>(this, new Step(key, seq)));
+                        }
+                    }
+                });
+                publishers[t].start();
+            }
+            for (Thread publisher : publishers) {
+                publisher.join();
+            }
+            assertTrue(multicaster.drain(10, TimeUnit.SECONDS));
+            assertEquals(0, outOfOrder.get());
+            assertFalse(multicaster.report().contains("rejected="));
+            for (int key = 0; key < threads * keysPerThread; key++) {
+                assertEquals(Integer.valueOf(steps - 1), slowLast.get(key));
+                assertEquals(Integer.valueOf(steps - 1), batchLast.get(key));
+            }
+        } finally {
+            multicaster.destroy();
+        }
+    }
+
+    /**
+     * Test the ring lets go of an event once its listeners have taken it
+     */
+    public void testRingReleasesDeliveredEvents() throws InterruptedException
+    {
+        RingBufferEventMulticaster multicaster = new RingBufferEventMulticaster(64, WaitStrategy.BLOCKING, 16, false, 1_000);
+        multicaster.addApplicationListener(new ApplicationListener<PayloadApplicationEvent<Object>>() {
+            @Override
+            public void onApplicationEvent(PayloadApplicationEvent<Object> event) {
+            }
+        });
+        try {
+            Object payload = new Object();
+            WeakReference<Object> ref = new WeakReference<>(payload);
+            multicaster.multicastEvent(new PayloadApplicationEvent<>(this, payload));
+            payload = null;
+            assertTrue(multicaster.drain(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 10 && ref.get() != null; i++) {
+                System.gc();
+                Thread.sleep(20);
+            }
+            assertNull(ref.get());
+        } finally {
+            multicaster.destroy();
+        }
+    }
+
+    record Step(int key, int seq) {
+    }
+
+    /**
+     * Test concurrent publishers: every listener sees each key's events in order
+     */
+    public void testEventBusKeepsPerKeyOrder() throws Exception
+    {
+        ctx.close();
+        ctx = ringBufferContext();
+        int threads = 4, keysPerThread = 8, steps = 5_000;
+        ConcurrentHashMap<Integer, Integer> batchLast = new ConcurrentHashMap<>();
+        ConcurrentHashMap<Integer, Integer> plainLast = new ConcurrentHashMap<>();
+        AtomicInteger outOfOrder = new AtomicInteger();
+        ctx.addApplicationListener(new BatchEventListener<Step>() {
+            @Override
+            public void onEvents(List<Step> events) {
+                for (Step step : events) {
+                    Integer last = batchLast.put(step.key(), step.seq());
+                    if (step.seq() != (last == null ? 0 : last + 1)) outOfOrder.incrementAndGet();
+                }
+            }
+        });
+        ctx.addApplicationListener(new ApplicationListener<PayloadApplicationEvent<Step>>() {
+            @Override
+            public void onApplicationEvent(PayloadApplicationEvent<Step> event) {
+                Step step = event.getPayload();
+                Integer last = plainLast.put(step.key(), step.seq());
+                if (step.seq() != (last == null ? 0 : last + 1)) outOfOrder.incrementAndGet();
+            }
+        });
+
+        Thread[] publishers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int first = t * keysPerThread;
+            publishers[t] = new Thread(() -> {
+                for (int seq = 0; seq < steps; seq++) {
+                    for (int key = first; key < first + keysPerThread; key++) {
+                        ctx.publishEvent(new Step(key, seq));
+                    }
+                }
+            });
+            publishers[t].start();
+        }
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+        assertTrue(ctx.getBean(RingBufferEventMulticaster.class).drain(10, TimeUnit.SECONDS));
+        assertEquals(0, outOfOrder.get());
+        assertEquals(threads * keysPerThread, batchLast.size());
+        for (int key = 0; key < threads * keysPerThread; key++) {
+            assertEquals(Integer.valueOf(steps - 1), batchLast.get(key));
+            assertEquals(Integer.valueOf(steps - 1), plainLast.get(key));
+        }
+    }
+
     /**
      * Rigorous Test - Basic functionality
      */
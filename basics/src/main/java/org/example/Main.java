@@ -1,14 +1,21 @@
 package org.example;
 
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
 import java.util.Map;
 
 import org.example.beans.Person;
 import org.example.beans.PrototypeService;
 import org.example.beans.Vehicle;
-import org.example.config.ProjectConfig;
+import org.example.lazy.AccessProfileWarmer;
+import org.example.lazy.ResolveOnceLazyResolver;
+import org.example.pool.PooledRequest;
+import org.example.pool.PooledScopeConfigurer;
+import org.example.aot.AppContexts;
 import org.example.services.EmployeeService;
+import org.springframework.aot.AotDetector;
 import org.springframework.beans.factory.NoSuchBeanDefinitionException;
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
 
 /**
  * Main application demonstrating Spring Framework fundamentals:
@@ -24,12 +31,36 @@ public class Main {
     public static void main(String[] args) {
         System.out.println("========== SPRING CORE PRACTICE APPLICATION ==========\n");
 
-        AnnotationConfigApplicationContext context = null;
+        GenericApplicationContext context = null;
         
         try {
-            // Initialize Spring context
-            context = new AnnotationConfigApplicationContext(ProjectConfig.class);
-            System.out.println("✓ Spring context initialized successfully\n");
+            // Initialize Spring context (-Dspring.aot.enabled=true uses the definitions generated by the aot profile)
+            long start = System.nanoTime();
+            context = AppContexts.projectConfig();
+            // -Dcontext.lazy=true: every singleton lazy, warmed in the background from the recorded access profile
+            if (Boolean.getBoolean("context.lazy")) {
+                AccessProfileWarmer.enable(context, Path.of(System.getProperty("warmup.profile", "target/warmup-profile.txt")));
+            }
+            // -Dlazy.resolveOnce=true: @Lazy injection points look their target up once, then hold the bean itself
+            if (Boolean.getBoolean("lazy.resolveOnce")) {
+                ResolveOnceLazyResolver.enable(context);
+            }
+            // -Dscope.pooled=true: the prototypes below come from a bounded pool instead of being rebuilt per lookup
+            boolean pooled = Boolean.getBoolean("scope.pooled");
+            if (pooled) {
+                PooledScopeConfigurer.enable(context)
+                        .pooled("prototypeService")
+                        .pooled("prototypePersonTemplate", bean -> {
+                            Person template = (Person) bean;
+                            template.setName("Template Person");
+                            template.setAge(0);
+                        });
+            }
+            context.refresh();
+            System.out.println("✓ Spring context initialized successfully ("
+                    + (AotDetector.useGeneratedArtifacts() ? "aot" : "reflective") + ", "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms, "
+                    + ManagementFactory.getClassLoadingMXBean().getLoadedClassCount() + " classes loaded)\n");
 
             // ==================== 1. BASIC BEAN CREATION ====================
             System.out.println("---------- 1. BASIC BEAN CREATION ----------");
@@ -45,7 +76,13 @@ public class Main {
 
             // ==================== 4. PROTOTYPE SCOPE ====================
             System.out.println("\n---------- 4. PROTOTYPE SCOPE ----------");
-            demonstratePrototypeScope(context);
+            // One request per round: pooled beans borrowed inside go back when it closes,
+            // so with -Dscope.pooled=true the second round reuses the first round's instances
+            for (int round = 1; round <= (pooled ? 2 : 1); round++) {
+                try (PooledRequest request = PooledRequest.begin()) {
+                    demonstratePrototypeScope(context);
+                }
+            }
 
             // ===================    = 5. LAZY INITIALIZATION ====================
             System.out.println("\n---------- 5. LAZY INITIALIZATION ----------");
@@ -82,7 +119,7 @@ public class Main {
     /**
      * Demonstrates basic bean creation and manual instantiation comparison
      */
-    private static void demonstrateBasicBeanCreation(AnnotationConfigApplicationContext context) {
+    private static void demonstrateBasicBeanCreation(GenericApplicationContext context) {
         System.out.println("Creating Vehicle without Spring:");
         Vehicle manualVehicle = new Vehicle();
         manualVehicle.setName("Honda City");
@@ -96,7 +133,7 @@ public class Main {
     /**
      * Demonstrates various error handling scenarios
      */
-    private static void demonstrateErrorHandling(AnnotationConfigApplicationContext context) {
+    private static void demonstrateErrorHandling(GenericApplicationContext context) {
         // 1. Fetching bean without specifying name (when multiple exist)
         System.out.println("1. Handling NoUniqueBeanDefinitionException:");
         try {
@@ -137,7 +174,7 @@ public class Main {
     /**
      * Demonstrates Singleton scope (default) - same instance every time
      */
-    private static void demonstrateSingletonScope(AnnotationConfigApplicationContext context) {
+    private static void demonstrateSingletonScope(GenericApplicationContext context) {
         System.out.println("Fetching same Singleton bean multiple times:");
         
         Person person1 = context.getBean("person", Person.class);
@@ -154,7 +191,7 @@ public class Main {
     /**
      * Demonstrates Prototype scope - new instance every time
      */
-    private static void demonstratePrototypeScope(AnnotationConfigApplicationContext context) {
+    private static void demonstratePrototypeScope(GenericApplicationContext context) {
         System.out.println("Fetching Prototype beans multiple times:");
         
         PrototypeService service1 = context.getBean(PrototypeService.class);
@@ -173,7 +210,7 @@ public class Main {
     /**
      * Demonstrates Lazy initialization - bean created only when first accessed
      */
-    private static void demonstrateLazyInitialization(AnnotationConfigApplicationContext context) {
+    private static void demonstrateLazyInitialization(GenericApplicationContext context) {
         System.out.println("Lazy bean not created until first access:");
         System.out.println("  (Watch for 'Creating lazy vehicle bean...' message when we fetch it)");
         
@@ -188,7 +225,7 @@ public class Main {
     /**
      * Demonstrates Factory pattern for bean creation
      */
-    private static void demonstrateFactoryPattern(AnnotationConfigApplicationContext context) {
+    private static void demonstrateFactoryPattern(GenericApplicationContext context) {
         System.out.println("Creating bean using Factory method:");
         
         try {
@@ -202,24 +239,28 @@ public class Main {
     /**
      * Demonstrates circular dependency resolution using @Lazy
      */
-    private static void demonstrateCircularDependency(AnnotationConfigApplicationContext context) {
+    private static void demonstrateCircularDependency(GenericApplicationContext context) {
         System.out.println("Testing Circular Dependency Resolution:");
         System.out.println("  (Person -> Spouse -> Person would be circular)");
         
-        Person person1 = context.getBean("person", Person.class);
-        Person person2 = context.getBean("person2", Person.class);
-
-        System.out.println("\n  Person 1: " + person1.getName() + ", Spouse: " + 
-            (person1.getSpouse() != null ? person1.getSpouse().getName() : "None"));
-        System.out.println("  Person 2: " + person2.getName() + ", Spouse: " + 
-            (person2.getSpouse() != null ? person2.getSpouse().getName() : "None"));
-        System.out.println("\n  ✓ Circular dependency resolved using @Lazy annotation!");
+        try {
+            Person person1 = context.getBean("person", Person.class);
+            Person person2 = context.getBean("person2", Person.class);
+
+            System.out.println("\n  Person 1: " + person1.getName() + ", Spouse: " + 
+                (person1.getSpouse() != null ? person1.getSpouse().getName() : "None"));
+            System.out.println("  Person 2: " + person2.getName() + ", Spouse: " + 
+                (person2.getSpouse() != null ? person2.getSpouse().getName() : "None"));
+            System.out.println("\n  ✓ Circular dependency resolved using @Lazy annotation!");
+        } catch (Exception e) {
+            System.out.println("  ✗ Error: " + e.getMessage());
+        }
     }
 
     /**
      * Demonstrates bean discovery and bulk retrieval
      */
-    private static void demonstrateBeanDiscovery(AnnotationConfigApplicationContext context) {
+    private static void demonstrateBeanDiscovery(GenericApplicationContext context) {
         System.out.println("1. Getting all Vehicle beans:");
         Map<String, Vehicle> vehicles = context.getBeansOfType(Vehicle.class);
         vehicles.forEach((name, bean) -> 
@@ -238,7 +279,7 @@ public class Main {
     /**
      * Demonstrates @Qualifier and @Primary annotations
      */
-    private static void demonstrateQualifierAndPrimary(AnnotationConfigApplicationContext context) {
+    private static void demonstrateQualifierAndPrimary(GenericApplicationContext context) {
         System.out.println("1. Using @Primary annotation:");
         Vehicle primaryVehicle = context.getBean(Vehicle.class);
         System.out.println("   ✓ Primary vehicle: " + primaryVehicle.getName());
@@ -0,0 +1,49 @@
+package org.example.aot;
+
+import org.example.Main;
+import org.springframework.aot.generate.ClassNameGenerator;
+import org.springframework.aot.generate.DefaultGenerationContext;
+import org.springframework.aot.generate.FileSystemGeneratedFiles;
+import org.springframework.context.aot.ApplicationContextAotGenerator;
+import org.springframework.javapoet.ClassName;
+
+import java.nio.file.Path;
+
+/**
+ * Build-time processing of the {@link org.example.config.ProjectConfig} context (run by the aot profile).
+ *
+ * Refreshes {@link AppContexts#reflective()} for AOT processing only (bean
+ * definitions are resolved, no beans are created) and writes Java source that
+ * registers those definitions directly, plus the pre-generated CGLIB classes
+ * of ProjectConfig and the runtime hints.
+ *
+ * Args: sourcesDir resourcesDir classesDir
+ */
+public class AotGenerator {
+
+    public static void main(String[] args) {
+        if (args.length != 3) {
+            throw new IllegalArgumentException("usage: AotGenerator <sourcesDir> <resourcesDir> <classesDir>");
+        }
+        Path sources = Path.of(args[0]);
+        Path resources = Path.of(args[1]);
+        Path classes = Path.of(args[2]);
+
+        FileSystemGeneratedFiles files = new FileSystemGeneratedFiles(kind -> switch (kind) {
+            case SOURCE -> sources;
+            case RESOURCE -> resources;
+            case CLASS -> classes;
+        });
+        DefaultGenerationContext generation =
+                new DefaultGenerationContext(new ClassNameGenerator(ClassName.get(Main.class)), files);
+
+        ClassName initializer = new ApplicationContextAotGenerator()
+                .processAheadOfTime(AppContexts.reflective(), generation);
+        generation.writeGeneratedContent();
+
+        if (!initializer.canonicalName().equals(AppContexts.INITIALIZER)) {
+            throw new IllegalStateException("generated " + initializer + ", expected " + AppContexts.INITIALIZER);
+        }
+        System.out.println("[SPRING-AOT] generated " + initializer + " -> " + sources);
+    }
+}
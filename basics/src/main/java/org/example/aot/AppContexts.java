@@ -0,0 +1,56 @@
+package org.example.aot;
+
+import org.example.config.ProjectConfig;
+import org.example.context.LookupCachingBeanFactory;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Builds the (not yet refreshed) application context for {@link ProjectConfig}.
+ *
+ * By default ProjectConfig is registered and parsed reflectively at refresh,
+ * component scans included, and CGLIB-enhanced. With -Dspring.aot.enabled=true
+ * (after a build with -Paot) the initializer generated by {@link AotGenerator}
+ * registers the same bean definitions with instance suppliers instead.
+ * Either way -Dlookup.cache=true caches type lookups ({@link LookupCachingBeanFactory}).
+ */
+public final class AppContexts {
+
+    /** Initializer written by {@link AotGenerator}. */
+    static final String INITIALIZER = "org.example.Main__ApplicationContextInitializer";
+
+    private AppContexts() {
+    }
+
+    public static GenericApplicationContext projectConfig() {
+        return AotDetector.useGeneratedArtifacts() ? generated() : reflective();
+    }
+
+    static AnnotationConfigApplicationContext reflective() {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(beanFactory());
+        ctx.register(ProjectConfig.class);
+        return ctx;
+    }
+
+    private static LookupCachingBeanFactory beanFactory() {
+        LookupCachingBeanFactory beanFactory = new LookupCachingBeanFactory();
+        beanFactory.setCacheLookups(Boolean.getBoolean("lookup.cache"));
+        return beanFactory;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GenericApplicationContext generated() {
+        GenericApplicationContext ctx = new GenericApplicationContext(beanFactory());
+        ClassLoader loader = AppContexts.class.getClassLoader();
+        if (!ClassUtils.isPresent(INITIALIZER, loader)) {
+            throw new IllegalStateException(INITIALIZER + " not found: build with -Paot or drop -Dspring.aot.enabled");
+        }
+        Class<?> type = ClassUtils.resolveClassName(INITIALIZER, loader);
+        ((ApplicationContextInitializer<GenericApplicationContext>) BeanUtils.instantiateClass(type)).initialize(ctx);
+        return ctx;
+    }
+}
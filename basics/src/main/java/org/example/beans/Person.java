@@ -16,6 +16,8 @@ public class Person {
      * 
      * @Lazy: The spouse bean is created only when first accessed, breaking the circular reference at initialization.
      * This is one of the solutions; others include using ObjectProvider or setter injection.
+     * With -Dlazy.resolveOnce=true (ResolveOnceLazyResolver) the spouse is looked up on first use
+     * only, and this field then holds the spouse bean itself instead of the proxy.
      */
     @Autowired
     @Lazy
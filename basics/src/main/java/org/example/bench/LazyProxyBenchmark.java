@@ -0,0 +1,110 @@
+package org.example.bench;
+
+import org.example.beans.Vehicle;
+import org.example.lazy.ResolveOnceLazyResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Lazy;
+
+/**
+ * Per-call cost of {@code @Lazy} injection: Spring's lazy-resolution proxy
+ * versus {@link ResolveOnceLazyResolver}, against a plain reference.
+ *
+ * Each holder calls getName() on an injected singleton Vehicle. With the
+ * resolve-once mode a constructor parameter stays a proxy (cached dispatch),
+ * while a field is replaced by the bean itself after the first call. The
+ * context also has {@code beans} lazy Vehicle fillers competing with the
+ * primary one, which Spring's proxy has to sort out again on every call (it
+ * runs ops/10 iterations, being that much slower).
+ *
+ * Usage: LazyProxyBenchmark [beans=100] [ops=5000000] [rounds=5]
+ */
+public class LazyProxyBenchmark {
+
+    public static void main(String[] args) {
+        int beans = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 5_000_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        try (AnnotationConfigApplicationContext standard = context(beans, false);
+             AnnotationConfigApplicationContext resolveOnce = context(beans, true)) {
+            FieldHolder standardField = standard.getBean(FieldHolder.class);
+            FieldHolder swappedField = resolveOnce.getBean(FieldHolder.class);
+            ConstructorHolder cachedProxy = resolveOnce.getBean(ConstructorHolder.class);
+            DirectHolder direct = resolveOnce.getBean(DirectHolder.class);
+            swappedField.name();
+            System.out.println("field after first call: " + swappedField.vehicle.getClass().getSimpleName()
+                    + ", constructor parameter: " + cachedProxy.vehicle.getClass().getSimpleName());
+            for (int round = 1; round <= rounds; round++) {
+                System.out.printf("round %d: @Lazy proxy %.1f ns, resolve-once proxy %.1f ns,"
+                                + " resolve-once field %.1f ns, direct %.1f ns%n", round,
+                        run(standardField::name, ops / 10), run(cachedProxy::name, ops),
+                        run(swappedField::name, ops), run(direct::name, ops));
+            }
+        }
+    }
+
+    private static AnnotationConfigApplicationContext context(int beans, boolean resolveOnce) {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+        if (resolveOnce) ResolveOnceLazyResolver.enable(ctx);
+        ctx.registerBean("vehicle", Vehicle.class, () -> {
+            Vehicle vehicle = new Vehicle();
+            vehicle.setName("Audi 8");
+            return vehicle;
+        }, bd -> bd.setPrimary(true));
+        for (int i = 0; i < beans; i++) {
+            ctx.registerBean("filler" + i, Vehicle.class, bd -> bd.setLazyInit(true));
+        }
+        ctx.registerBean(FieldHolder.class);
+        ctx.registerBean(ConstructorHolder.class);
+        ctx.registerBean(DirectHolder.class);
+        ctx.refresh();
+        return ctx;
+    }
+
+    private static double run(Call call, int ops) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            sink += call.name().length();
+        }
+        long nanos = System.nanoTime() - start;
+        if (sink == 42) System.out.print("");
+        return (double) nanos / ops;
+    }
+
+    private interface Call {
+        String name();
+    }
+
+    static class FieldHolder {
+        @Autowired
+        @Lazy
+        Vehicle vehicle;
+
+        String name() {
+            return vehicle.getName();
+        }
+    }
+
+    static class ConstructorHolder {
+        final Vehicle vehicle;
+
+        ConstructorHolder(@Lazy Vehicle vehicle) {
+            this.vehicle = vehicle;
+        }
+
+        String name() {
+            return vehicle.getName();
+        }
+    }
+
+    static class DirectHolder {
+        @Autowired
+        Vehicle vehicle;
+
+        String name() {
+            return vehicle.getName();
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package org.example.bench;
+
+import org.example.beans.Vehicle;
+import org.example.context.LookupCachingBeanFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.support.AutowireCandidateQualifier;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Latency of type-based lookups on a large context, with and without the
+ * resolved-candidate cache of {@link LookupCachingBeanFactory}.
+ *
+ * The context has {@code beans} definitions: five Vehicle singletons (one
+ * primary, each with a qualifier), as in ProjectConfig, and lazy fillers of a
+ * few unrelated types. Measured are getBean(Vehicle.class) (primary
+ * resolution) and getQualifiedBean(Vehicle.class, "fleet3").
+ *
+ * Usage: TypeLookupBenchmark [beans=10000] [ops=1000000] [rounds=5]
+ */
+public class TypeLookupBenchmark {
+
+    private static final Class<?>[] FILLER_TYPES = {StringBuilder.class, ArrayList.class, HashMap.class,
+            ConcurrentHashMap.class, Object.class};
+
+    public static void main(String[] args) {
+        int beans = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int ops = args.length > 1 ? Integer.parseInt(args[1]) : 1_000_000;
+        int rounds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+
+        try (GenericApplicationContext plain = context(beans, false);
+             GenericApplicationContext cached = context(beans, true)) {
+            System.out.println("beans=" + plain.getBeanDefinitionCount() + " ops=" + ops);
+            for (int round = 1; round <= rounds; round++) {
+                System.out.printf("round %d: getBean(type) plain %.0f ns, cached %.0f ns | qualified plain %.0f ns, cached %.0f ns%n",
+                        round, byType(plain, ops), byType(cached, ops), qualified(plain, ops), qualified(cached, ops));
+            }
+        }
+    }
+
+    private static GenericApplicationContext context(int beans, boolean cacheLookups) {
+        LookupCachingBeanFactory beanFactory = new LookupCachingBeanFactory();
+        beanFactory.setCacheLookups(cacheLookups);
+        GenericApplicationContext ctx = new GenericApplicationContext(beanFactory);
+        for (int i = 1; i <= 5; i++) {
+            GenericBeanDefinition vehicle = new GenericBeanDefinition();
+            vehicle.setBeanClass(Vehicle.class);
+            vehicle.getPropertyValues().add("name", "Vehicle " + i);
+            vehicle.addQualifier(new AutowireCandidateQualifier(Qualifier.class, "fleet" + i));
+            vehicle.setPrimary(i == 2);
+            ctx.registerBeanDefinition("vehicle" + i, vehicle);
+        }
+        for (int i = 0; ctx.getBeanDefinitionCount() < beans; i++) {
+            GenericBeanDefinition filler = new GenericBeanDefinition();
+            filler.setBeanClass(FILLER_TYPES[i % FILLER_TYPES.length]);
+            filler.setLazyInit(true);
+            ctx.registerBeanDefinition("filler" + i, filler);
+        }
+        ctx.refresh();
+        return ctx;
+    }
+
+    private static double byType(GenericApplicationContext ctx, int ops) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            sink += ctx.getBean(Vehicle.class).hashCode();
+        }
+        return check(sink, System.nanoTime() - start, ops);
+    }
+
+    private static double qualified(GenericApplicationContext ctx, int ops) {
+        LookupCachingBeanFactory beanFactory = (LookupCachingBeanFactory) ctx.getBeanFactory();
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            sink += beanFactory.getQualifiedBean(Vehicle.class, "fleet3").hashCode();
+        }
+        return check(sink, System.nanoTime() - start, ops);
+    }
+
+    private static double check(long sink, long nanos, int ops) {
+        if (sink == 42) System.out.print("");
+        return (double) nanos / ops;
+    }
+}
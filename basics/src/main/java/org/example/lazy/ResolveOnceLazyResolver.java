@@ -0,0 +1,202 @@
+package org.example.lazy;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.cglib.core.SpringNamingPolicy;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.cglib.proxy.CallbackFilter;
+import org.springframework.cglib.proxy.Dispatcher;
+import org.springframework.cglib.proxy.Enhancer;
+import org.springframework.cglib.proxy.Factory;
+import org.springframework.cglib.proxy.NoOp;
+import org.springframework.context.annotation.ContextAnnotationAutowireCandidateResolver;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.objenesis.SpringObjenesis;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * {@code @Lazy} injection whose proxy looks the target up once.
+ *
+ * Spring's lazy-resolution proxy runs a full dependency resolution on every
+ * method call. Here the first call resolves the target and, when every bean it
+ * came from is a singleton, keeps it: later calls go through a CGLIB
+ * {@link Dispatcher} straight to the cached instance. For {@code @Lazy} fields
+ * the field itself is then set to the real bean, so code reading it afterwards
+ * no longer sees a proxy at all (a thread that read the field earlier keeps
+ * the proxy, which still works).
+ *
+ * Targets that are not singletons are resolved on every call, as with plain
+ * {@code @Lazy}. Final types, collections, maps, Optional and ObjectFactory
+ * injection points are left to Spring's proxy.
+ */
+public class ResolveOnceLazyResolver extends ContextAnnotationAutowireCandidateResolver {
+
+    private static final SpringObjenesis OBJENESIS = new SpringObjenesis();
+    /** finalize() stays Object's, or every proxy would be finalizable. */
+    private static final CallbackFilter SKIP_FINALIZE =
+            method -> method.getName().equals("finalize") && method.getParameterCount() == 0 ? 1 : 0;
+
+    /**
+     * Field proxies created while a bean is being populated, claimed by
+     * {@link FieldSwapper}. Those of a bean whose creation failed are dropped
+     * by the next bean created on the thread, and the refreshing thread's list
+     * goes once the context is refreshed.
+     */
+    private final ThreadLocal<List<LazyTarget>> unclaimed = ThreadLocal.withInitial(ArrayList::new);
+
+    /** Call before refresh. */
+    public static ResolveOnceLazyResolver enable(GenericApplicationContext ctx) {
+        ResolveOnceLazyResolver resolver = new ResolveOnceLazyResolver();
+        DefaultListableBeanFactory beanFactory = ctx.getDefaultListableBeanFactory();
+        beanFactory.setAutowireCandidateResolver(resolver);
+        beanFactory.addBeanPostProcessor(resolver.new FieldSwapper());
+        ctx.addApplicationListener(event -> {
+            if (event instanceof ContextRefreshedEvent) resolver.unclaimed.remove();
+        });
+        return resolver;
+    }
+
+    @Override
+    public Object getLazyResolutionProxyIfNecessary(DependencyDescriptor descriptor, String beanName) {
+        if (!isLazy(descriptor) || !proxyable(descriptor.getDependencyType())) {
+            return super.getLazyResolutionProxyIfNecessary(descriptor, beanName);
+        }
+        Class<?> type = descriptor.getDependencyType();
+        LazyTarget target = new LazyTarget((DefaultListableBeanFactory) getBeanFactory(), descriptor, beanName);
+        Enhancer enhancer = new Enhancer();
+        if (type.isInterface()) {
+            enhancer.setInterfaces(new Class<?>[]{type});
+        } else {
+            enhancer.setSuperclass(type);
+        }
+        enhancer.setClassLoader(type.getClassLoader());
+        enhancer.setNamingPolicy(SpringNamingPolicy.INSTANCE);
+        enhancer.setCallbackTypes(new Class<?>[]{Dispatcher.class, NoOp.class});
+        enhancer.setCallbackFilter(SKIP_FINALIZE);
+        // no constructor runs: the proxy never uses its own state
+        Factory proxy = (Factory) OBJENESIS.newInstance((Class<?>) enhancer.createClass());
+        proxy.setCallbacks(new Callback[]{target, NoOp.INSTANCE});
+        target.proxy = proxy;
+        if (descriptor.getField() != null && beanName != null && !Modifier.isFinal(descriptor.getField().getModifiers())) {
+            List<LazyTarget> pending = unclaimed.get();
+            dropAbandoned(pending);
+            pending.add(target);
+        }
+        return proxy;
+    }
+
+    /** Forgets proxies of beans no longer in creation: their population failed. */
+    private void dropAbandoned(List<LazyTarget> pending) {
+        ConfigurableBeanFactory beanFactory = (ConfigurableBeanFactory) getBeanFactory();
+        pending.removeIf(target -> !beanFactory.isCurrentlyInCreation(target.beanName));
+    }
+
+    private static boolean proxyable(Class<?> type) {
+        return !Modifier.isFinal(type.getModifiers()) && !type.isPrimitive() && !type.isArray()
+                && !Collection.class.isAssignableFrom(type) && !Map.class.isAssignableFrom(type)
+                && type != Optional.class && !ObjectFactory.class.isAssignableFrom(type);
+    }
+
+    /** Resolves the injection point on first use and keeps singleton targets. */
+    private static final class LazyTarget implements Dispatcher {
+        private final DefaultListableBeanFactory beanFactory;
+        private final DependencyDescriptor descriptor;
+        private final String beanName;
+        private volatile Object target;
+        private volatile boolean resolveEachTime;
+        /** The bean whose field holds the proxy, once known. */
+        volatile WeakReference<Object> owner;
+        Object proxy;
+
+        LazyTarget(DefaultListableBeanFactory beanFactory, DependencyDescriptor descriptor, String beanName) {
+            this.beanFactory = beanFactory;
+            this.descriptor = descriptor;
+            this.beanName = beanName;
+        }
+
+        @Override
+        public Object loadObject() {
+            Object target = this.target;
+            if (target != null) return target;
+            if (resolveEachTime) return resolve(new LinkedHashSet<>(1));
+            synchronized (this) {
+                if (this.target != null) return this.target;
+                Set<String> names = new LinkedHashSet<>(1);
+                Object resolved = resolve(names);
+                if (names.isEmpty() || !names.stream().allMatch(beanFactory::isSingleton)) {
+                    resolveEachTime = true;
+                    return resolved;
+                }
+                this.target = resolved;
+                replaceField(resolved);
+                return resolved;
+            }
+        }
+
+        private Object resolve(Set<String> names) {
+            Object resolved = beanFactory.doResolveDependency(descriptor, beanName, names, null);
+            if (resolved == null) {
+                throw new NoSuchBeanDefinitionException(descriptor.getResolvableType(),
+                        "Optional dependency not present for lazy injection point");
+            }
+            if (beanName != null) {
+                for (String name : names) {
+                    if (beanFactory.containsBean(name)) beanFactory.registerDependentBean(name, beanName);
+                }
+            }
+            return resolved;
+        }
+
+        private void replaceField(Object resolved) {
+            WeakReference<Object> owner = this.owner;
+            Object bean = owner != null ? owner.get() : null;
+            if (bean == null) return;
+            Field field = descriptor.getField();
+            ReflectionUtils.makeAccessible(field);
+            // only if nobody has set the field to something else since injection
+            if (ReflectionUtils.getField(field, bean) == proxy) {
+                ReflectionUtils.setField(field, bean, resolved);
+            }
+        }
+    }
+
+    /** Tells the field proxies of a freshly populated bean which instance they belong to. */
+    private final class FieldSwapper implements BeanPostProcessor {
+
+        @Override
+        public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+            List<LazyTarget> pending = unclaimed.get();
+            if (pending.isEmpty()) return bean;
+            dropAbandoned(pending);
+            for (Iterator<LazyTarget> it = pending.iterator(); it.hasNext(); ) {
+                LazyTarget target = it.next();
+                if (beanName.equals(target.beanName)) {
+                    if (target.descriptor.getField().getDeclaringClass().isInstance(bean)) {
+                        target.owner = new WeakReference<>(bean);
+                    }
+                    it.remove();
+                }
+            }
+            if (pending.isEmpty()) unclaimed.remove();
+            return bean;
+        }
+    }
+}
@@ -3,36 +3,86 @@ package org.example;
 import org.example.beans.Person;
 import org.example.beans.Vehicle;
 import org.example.config.AppConfig;
+import org.example.implementations.TyresRouter;
+import org.example.context.PrototypeFastPathBeanFactory;
+import org.example.lazy.AccessProfileWarmer;
+import org.example.pool.PooledRequest;
+import org.example.pool.PooledScopeConfigurer;
+import org.example.properties.ReloadablePropertiesConfigurer;
 import org.example.services.VehicleServices;
-import org.springframework.context.ApplicationContext;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.nio.file.Path;
+import java.util.Arrays;
+
 public class Main {
-    public static void main(String[] args) {
-        ApplicationContext context= new AnnotationConfigApplicationContext(AppConfig.class);
+    public static void main(String[] args) throws InterruptedException {
+        // -Dprototype.fastPath=true: prototypes are created through cached constructor handles
+        AnnotationConfigApplicationContext context= new AnnotationConfigApplicationContext(
+                Boolean.getBoolean("prototype.fastPath") ? new PrototypeFastPathBeanFactory() : new DefaultListableBeanFactory());
+        // -Dcontext.lazy=true: every singleton lazy, warmed in the background from the recorded access profile
+        if (Boolean.getBoolean("context.lazy")) {
+            AccessProfileWarmer.enable(context, Path.of(System.getProperty("warmup.profile", "target/warmup-profile.txt")));
+        }
+        // -Dscope.pooled=true: VehicleServices comes from a bounded pool instead of being rebuilt per lookup
+        if (Boolean.getBoolean("scope.pooled")) {
+            PooledScopeConfigurer.enable(context).pooled("vehicleServices");
+        }
+        // -Dproperties.files=a.properties,b.properties: placeholders compiled once, files watched and
+        // changes pushed into @Refreshable beans; -Dproperties.watchSeconds keeps the demo running to try it
+        if (System.getProperty("properties.files") != null) {
+            ReloadablePropertiesConfigurer.enable(context, Arrays.stream(System.getProperty("properties.files").split(","))
+                    .filter(name -> !name.isBlank()).map(name -> Path.of(name.trim())).toList());
+        }
+        context.register(AppConfig.class);
+        context.refresh();
 
-        /* Notice that there are three VehicleServices object is creating when using prototype scope in vehicle.
-         * one of them because of the eager initialization of autowired constructor in VehicleServices. */
-        VehicleServices vehicleServices1= context.getBean(VehicleServices.class);
-        VehicleServices vehicleServices2= context.getBean(VehicleServices.class);
+        // Pooled beans borrowed inside the request go back to the pool when it closes
+        try (PooledRequest request = PooledRequest.begin()) {
+            /* Notice that there are three VehicleServices object is creating when using prototype scope in vehicle.
+             * one of them because of the eager initialization of autowired constructor in VehicleServices. */
+            VehicleServices vehicleServices1= context.getBean(VehicleServices.class);
+            VehicleServices vehicleServices2= context.getBean(VehicleServices.class);
 
-        // See when bean is creating on Eager/Lazy initialization
-        System.out.println("Before retrieving the Person bean from the Spring Context");
-        Vehicle eagerVehicle= context.getBean(Vehicle.class);
-        Person lazyPerson = context.getBean(Person.class);
-        System.out.println("After retrieving the Person bean from the Spring Context");
+            // See when bean is creating on Eager/Lazy initialization
+            System.out.println("Before retrieving the Person bean from the Spring Context");
+            Vehicle eagerVehicle= context.getBean(Vehicle.class);
+            Person lazyPerson = context.getBean(Person.class);
+            System.out.println("After retrieving the Person bean from the Spring Context");
 
-        System.out.println("------  ----------------------------------");
+            System.out.println("------  ----------------------------------");
 
-        // Checking the scope of the bean by comparing the hashcode
-        System.out.println("Hashcode of vehicleServices1: "+vehicleServices1.hashCode());
-        System.out.println("Hashcode of vehicleServices2: "+vehicleServices2.hashCode());
+            // Checking the scope of the bean by comparing the hashcode
+            System.out.println("Hashcode of vehicleServices1: "+vehicleServices1.hashCode());
+            System.out.println("Hashcode of vehicleServices2: "+vehicleServices2.hashCode());
 
-        if (vehicleServices1==vehicleServices2){
-            System.out.println("VehicleServices bean is singleton scoped bean.");
+            if (vehicleServices1==vehicleServices2){
+                System.out.println("VehicleServices bean is singleton scoped bean.");
+            }
+            else {
+                System.out.println("VehicleServices bean is prototype scoped bean.");
+            }
+
+            // -Dtyres.routing / -Dtyres.weights: calls are spread over every Tyres implementation
+            for (int i = 0; i < 4; i++) {
+                System.out.println(vehicleServices1.moveVehicle());
+            }
+            System.out.println(context.getBean(TyresRouter.class).getRouter().report());
+
+            System.out.println("Vehicle: " + eagerVehicle.getName() + ", owner: " + lazyPerson.getName());
+            for (int i = 0; i < Integer.getInteger("properties.watchSeconds", 0); i++) {
+                Thread.sleep(1000);
+                System.out.println("Vehicle: " + eagerVehicle.getName() + ", owner: " + lazyPerson.getName());
+            }
         }
-        else {
-            System.out.println("VehicleServices bean is prototype scoped bean.");
+
+        // A second request: with -Dscope.pooled=true it gets the instances the first one returned
+        if (Boolean.getBoolean("scope.pooled")) {
+            try (PooledRequest request = PooledRequest.begin()) {
+                System.out.println("Second request, hashcode of vehicleServices: "
+                        + context.getBean(VehicleServices.class).hashCode());
+            }
         }
     }
 }
\ No newline at end of file
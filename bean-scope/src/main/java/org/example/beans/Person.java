@@ -1,15 +1,17 @@
 package org.example.beans;
 
+import org.example.properties.Refreshable;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Component;
 
 @Component("personBean")
+@Refreshable
 @Lazy
 public class Person {
-    @Value("Lucky")
-    private String name;
+    @Value("${person.name:Lucky}")
+    private volatile String name;
     private final Vehicle vehicle;
 
     @Autowired
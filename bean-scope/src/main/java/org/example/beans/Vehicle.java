@@ -1,14 +1,16 @@
 package org.example.beans;
 
+import org.example.properties.Refreshable;
 import org.example.services.VehicleServices;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component(value="vehicleBean")
+@Refreshable
 public class Vehicle {
-    @Value("Honda")
-    private String name;
+    @Value("${vehicle.name:Honda}")
+    private volatile String name;
     private final VehicleServices vehicleServices;
 
     @Autowired
@@ -0,0 +1,67 @@
+package org.example.bench;
+
+import org.example.properties.FlatPropertyResolver;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@code @Value} string resolution: Spring's default embedded value resolver
+ * ({@code environment.resolvePlaceholders}, which parses the string and walks
+ * the property sources every time) against {@link FlatPropertyResolver} over
+ * the same environment - system properties, environment variables and one
+ * map source behind them, as a properties file would be.
+ *
+ * Usage: PropertyResolutionBenchmark [ops=2000000] [rounds=5]
+ */
+public class PropertyResolutionBenchmark {
+
+    private static final String[] EXPRESSIONS = {
+            "Honda",
+            "${vehicle.name:Honda}",
+            "${tyres.routing:WEIGHTED_ROUND_ROBIN}",
+            "${vehicle.label}",
+            "${garage.host}:${garage.port:8080}/${garage.path:${vehicle.name}}",
+    };
+
+    public static void main(String[] args) {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addLast(new MapPropertySource("file", Map.of(
+                "vehicle.name", "Toyota",
+                "vehicle.label", "${vehicle.name} (${tyres.routing:WEIGHTED_ROUND_ROBIN})",
+                "garage.host", "garage.local")));
+        FlatPropertyResolver flat = new FlatPropertyResolver(environment.getPropertySources());
+        for (String expression : EXPRESSIONS) {
+            String expected = environment.resolvePlaceholders(expression);
+            if (!expected.equals(flat.resolveStringValue(expression))) {
+                throw new IllegalStateException(expression + ": " + expected + " != " + flat.resolveStringValue(expression));
+            }
+        }
+
+        for (int round = 1; round <= rounds; round++) {
+            StringBuilder line = new StringBuilder("round " + round + ":");
+            for (String expression : EXPRESSIONS) {
+                double spring = time(ops, expression, environment::resolvePlaceholders);
+                double compiled = time(ops, expression, flat::resolveStringValue);
+                line.append(String.format(" | %s %.0f -> %.0f ns", expression, spring, compiled));
+            }
+            System.out.println(line);
+        }
+    }
+
+    private static double time(int ops, String expression, UnaryOperator<String> resolver) {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            sink += resolver.apply(expression).length();
+        }
+        double nanos = (double) (System.nanoTime() - start) / ops;
+        if (sink == 42) System.out.print("");
+        return nanos;
+    }
+}
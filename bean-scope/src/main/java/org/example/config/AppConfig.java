@@ -6,7 +6,7 @@ import org.springframework.context.annotation.ComponentScan;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
-@ComponentScan(basePackages = {"org.example.services", "org.example.implementation"})
+@ComponentScan(basePackages = {"org.example.services", "org.example.implementations"})
 @ComponentScan(basePackageClasses = {Vehicle.class, Person.class})
 public class AppConfig {
 }
@@ -0,0 +1,44 @@
+package org.example.implementations;
+
+import org.example.interfaces.Tyres;
+import org.example.routing.RoutingStrategy;
+import org.example.routing.WeightedRouter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * The {@link Tyres} that gets injected: every other Tyres bean sits behind it
+ * and each {@link #rotate()} goes to one of them, picked by the configured
+ * {@link RoutingStrategy}. Weights are per bean name, e.g.
+ * {@code -Dtyres.weights=bridgeStoneTyres=3,michelinTyres=1}, and can be
+ * changed later through {@link #getRouter()}.
+ */
+@Component
+@Primary
+public class TyresRouter implements Tyres {
+    private final WeightedRouter<Tyres> router;
+
+    // Spring leaves this bean itself out of the injected map
+    public TyresRouter(Map<String, Tyres> tyres,
+                       @Value("${tyres.routing:WEIGHTED_ROUND_ROBIN}") RoutingStrategy strategy,
+                       @Value("${tyres.weights:}") String weights) {
+        this.router = new WeightedRouter<>(tyres, strategy);
+        for (String weight : weights.split(",")) {
+            if (weight.isBlank()) continue;
+            String[] nameAndWeight = weight.split("=");
+            router.setWeight(nameAndWeight[0].trim(), Integer.parseInt(nameAndWeight[1].trim()));
+        }
+    }
+
+    @Override
+    public String rotate() {
+        return router.route(Tyres::rotate);
+    }
+
+    public WeightedRouter<Tyres> getRouter() {
+        return router;
+    }
+}
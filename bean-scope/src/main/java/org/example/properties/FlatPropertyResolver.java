@@ -0,0 +1,102 @@
+package org.example.properties;
+
+import org.springframework.core.env.EnumerablePropertySource;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.env.PropertySources;
+import org.springframework.util.StringValueResolver;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Placeholder resolution against a flattened copy of the property sources.
+ *
+ * Spring's own embedded value resolver parses every {@code ${...}} string
+ * again and walks the property sources for each key on every injection point.
+ * Here a string is parsed once into a {@link PlaceholderTemplate}, and the
+ * sources are merged into one map - every key a source can enumerate, looked
+ * up through the sources in precedence order, so relaxed environment names
+ * still win where they would. Keys no source enumerates (environment
+ * variables asked for by their dotted name, say) are looked up on first use
+ * and remembered, misses included.
+ *
+ * The map is a snapshot: after a source changes, {@link #rebuild()} it. A
+ * placeholder nobody can resolve and that has no default stays as written,
+ * as with the resolver this one replaces.
+ */
+public class FlatPropertyResolver implements StringValueResolver {
+    private static final String MISSING = new String("(missing)");
+    /** Distinct strings compiled and kept; more are parsed on each use. */
+    private static final int MAX_TEMPLATES = 4096;
+
+    private final PropertySources sources;
+    private final ConcurrentHashMap<String, PlaceholderTemplate> templates = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<String, String> values;
+
+    public FlatPropertyResolver(PropertySources sources) {
+        this.sources = sources;
+        this.values = flatten();
+    }
+
+    @Override
+    public String resolveStringValue(String text) {
+        return compile(text).resolve(this);
+    }
+
+    /**
+     * Re-reads every source into a new snapshot and returns the keys whose
+     * value changed, appeared or disappeared.
+     */
+    public synchronized Set<String> rebuild() {
+        ConcurrentHashMap<String, String> previous = values;
+        ConcurrentHashMap<String, String> next = flatten();
+        Set<String> changed = new LinkedHashSet<>();
+        previous.forEach((key, value) -> {
+            // remembered lookups are not in the new map yet: compare them live
+            String now = next.computeIfAbsent(key, this::lookup);
+            if (now != value && (now == MISSING || value == MISSING || !now.equals(value))) changed.add(key);
+        });
+        for (String key : next.keySet()) {
+            if (!previous.containsKey(key)) changed.add(key);
+        }
+        values = next;
+        return changed;
+    }
+
+    /** The property's own value, placeholders not resolved; null if no source has it. */
+    public String getRaw(String key) {
+        ConcurrentHashMap<String, String> values = this.values;
+        String value = values.get(key);
+        if (value == null) value = values.computeIfAbsent(key, this::lookup);
+        return value == MISSING ? null : value;
+    }
+
+    PlaceholderTemplate compile(String text) {
+        PlaceholderTemplate template = templates.get(text);
+        if (template != null) return template;
+        template = PlaceholderTemplate.parse(text);
+        if (templates.size() < MAX_TEMPLATES) templates.putIfAbsent(text, template);
+        return template;
+    }
+
+    private ConcurrentHashMap<String, String> flatten() {
+        ConcurrentHashMap<String, String> flat = new ConcurrentHashMap<>();
+        for (PropertySource<?> source : sources) {
+            if (source instanceof EnumerablePropertySource<?> enumerable) {
+                for (String key : enumerable.getPropertyNames()) {
+                    if (!flat.containsKey(key)) flat.put(key, lookup(key));
+                }
+            }
+        }
+        return flat;
+    }
+
+    private String lookup(String key) {
+        for (PropertySource<?> source : sources) {
+            Object value = source.getProperty(key);
+            if (value != null) return value.toString();
+        }
+        return MISSING;
+    }
+}
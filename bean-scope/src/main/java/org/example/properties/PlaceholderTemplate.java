@@ -0,0 +1,120 @@
+package org.example.properties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A string with {@code ${key}} / {@code ${key:default}} placeholders, parsed
+ * once into literal and placeholder parts.
+ *
+ * The syntax is Spring's: defaults and keys may contain placeholders of their
+ * own ({@code ${a:${b:x}}}, {@code ${prefix.${env}}}), the first top-level
+ * {@code :} separates key and default, and an unclosed {@code ${} is plain text.
+ */
+final class PlaceholderTemplate {
+    private static final String PREFIX = "${";
+    private static final String SUFFIX = "}";
+    private static final char SEPARATOR = ':';
+
+    /** {@link String} literals and {@link Placeholder}s, in order. */
+    private final Object[] parts;
+
+    private PlaceholderTemplate(Object[] parts) {
+        this.parts = parts;
+    }
+
+    static PlaceholderTemplate parse(String text) {
+        List<Object> parts = new ArrayList<>(1);
+        int from = 0;
+        int start = text.indexOf(PREFIX);
+        while (start >= 0) {
+            int end = endOf(text, start + PREFIX.length());
+            if (end < 0) break;
+            if (start > from) parts.add(text.substring(from, start));
+            String content = text.substring(start + PREFIX.length(), end);
+            int separator = separatorOf(content);
+            parts.add(separator < 0
+                    ? new Placeholder(parse(content), null, content)
+                    : new Placeholder(parse(content.substring(0, separator)), parse(content.substring(separator + 1)),
+                    content));
+            from = end + SUFFIX.length();
+            start = text.indexOf(PREFIX, from);
+        }
+        if (from < text.length() || parts.isEmpty()) parts.add(text.substring(from));
+        return new PlaceholderTemplate(parts.toArray());
+    }
+
+    /** Index of the suffix closing the placeholder whose content starts at {@code from}, or -1. */
+    private static int endOf(String text, int from) {
+        int nested = 0;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '}') {
+                if (nested == 0) return i;
+                nested--;
+            } else if (c == '{') {
+                nested++;
+            }
+        }
+        return -1;
+    }
+
+    private static int separatorOf(String content) {
+        int nested = 0;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == '{') nested++;
+            else if (c == '}') nested--;
+            else if (c == SEPARATOR && nested == 0) return i;
+        }
+        return -1;
+    }
+
+    /** True when there is nothing to resolve. */
+    boolean isLiteral() {
+        return parts.length == 1 && parts[0] instanceof String;
+    }
+
+    /**
+     * Resolves against {@code lookup}. Property values are resolved in turn;
+     * a placeholder with neither value nor default stays as written.
+     */
+    String resolve(FlatPropertyResolver lookup) {
+        return resolve(lookup, null);
+    }
+
+    private String resolve(FlatPropertyResolver lookup, Chain visiting) {
+        if (parts.length == 1) {
+            return parts[0] instanceof String literal ? literal : resolve((Placeholder) parts[0], lookup, visiting);
+        }
+        StringBuilder out = new StringBuilder();
+        for (Object part : parts) {
+            out.append(part instanceof String literal ? literal : resolve((Placeholder) part, lookup, visiting));
+        }
+        return out.toString();
+    }
+
+    private static String resolve(Placeholder placeholder, FlatPropertyResolver lookup, Chain visiting) {
+        String key = placeholder.key.resolve(lookup, visiting);
+        String value = lookup.getRaw(key);
+        if (value != null) {
+            PlaceholderTemplate template = lookup.compile(value);
+            if (template.isLiteral()) return value;
+            for (Chain c = visiting; c != null; c = c.parent) {
+                if (c.key.equals(key)) {
+                    throw new IllegalArgumentException("Circular placeholder reference '" + key + "' in property definitions");
+                }
+            }
+            return template.resolve(lookup, new Chain(key, visiting));
+        }
+        if (placeholder.defaultValue != null) return placeholder.defaultValue.resolve(lookup, visiting);
+        return PREFIX + placeholder.text + SUFFIX;
+    }
+
+    private record Placeholder(PlaceholderTemplate key, PlaceholderTemplate defaultValue, String text) {
+    }
+
+    /** Keys being resolved on the way here, innermost first. */
+    private record Chain(String key, Chain parent) {
+    }
+}
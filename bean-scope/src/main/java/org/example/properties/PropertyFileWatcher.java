@@ -0,0 +1,112 @@
+package org.example.properties;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the directories of some property files and reloads a file when
+ * it is written, created or renamed into place.
+ *
+ * Editors and deploy scripts often touch a file several times per save, so
+ * events are collected until {@code debounceMs} pass without another one;
+ * then each touched file is reloaded once and, if any value changed,
+ * {@code onChange} runs - on the watcher's daemon thread.
+ *
+ * How soon an event arrives is up to the platform's WatchService: immediate
+ * on Linux (inotify), polled every few seconds where there is no native one.
+ */
+public class PropertyFileWatcher implements Closeable {
+
+    private final List<ReloadablePropertiesSource> files;
+    private final long debounceMs;
+    private final Runnable onChange;
+    private WatchService watchService;
+    private Thread thread;
+
+    public PropertyFileWatcher(List<ReloadablePropertiesSource> files, long debounceMs, Runnable onChange) {
+        this.files = List.copyOf(files);
+        this.debounceMs = debounceMs;
+        this.onChange = onChange;
+    }
+
+    public synchronized void start() throws IOException {
+        if (thread != null) return;
+        watchService = FileSystems.getDefault().newWatchService();
+        Set<Path> directories = new LinkedHashSet<>();
+        for (ReloadablePropertiesSource file : files) {
+            directories.add(file.getFile().getParent());
+        }
+        for (Path directory : directories) {
+            if (!Files.isDirectory(directory)) {
+                System.out.println("[PROPERTIES] not watching " + directory + ": no such directory");
+                continue;
+            }
+            directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        }
+        thread = new Thread(this::watch, "property-watcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch() {
+        try {
+            while (true) {
+                Set<Path> touched = new HashSet<>();
+                WatchKey key = watchService.take();
+                do {
+                    collect(key, touched);
+                } while ((key = watchService.poll(debounceMs, TimeUnit.MILLISECONDS)) != null);
+
+                boolean changed = false;
+                for (ReloadablePropertiesSource file : files) {
+                    if (touched.contains(file.getFile())) changed |= file.reload();
+                }
+                if (changed) {
+                    try {
+                        onChange.run();
+                    } catch (RuntimeException e) {
+                        System.out.println("[PROPERTIES] applying changed properties failed: " + e);
+                    }
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    private void collect(WatchKey key, Set<Path> touched) {
+        Path directory = (Path) key.watchable();
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // events were lost: assume every file there changed
+                for (ReloadablePropertiesSource file : files) {
+                    if (file.getFile().getParent().equals(directory)) touched.add(file.getFile());
+                }
+            } else {
+                touched.add(directory.resolve((Path) event.context()));
+            }
+        }
+        key.reset();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (thread == null) return;
+        watchService.close();
+        thread.interrupt();
+        thread = null;
+    }
+}
@@ -0,0 +1,21 @@
+package org.example.properties;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The bean's {@code @Value} fields and setters are injected again when a
+ * property they use changes (see {@link RefreshablePropertyBinder}).
+ *
+ * Values go in from the watcher thread: readers on other threads see them
+ * only if the field is volatile or read under the same lock. Constructor
+ * parameters are not refreshed.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Refreshable {
+}
@@ -0,0 +1,138 @@
+package org.example.properties;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.TypeConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanExpressionContext;
+import org.springframework.beans.factory.config.BeanExpressionResolver;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Remembers where {@link Refreshable} beans had {@code @Value}s injected and
+ * injects them again on {@link #refresh()}.
+ *
+ * Each field or single-argument setter keeps its compiled placeholder string
+ * and the text it last resolved to; a refresh resolves every one again and
+ * only converts and sets those whose text changed. SpEL ({@code #{...}}) is
+ * evaluated after the placeholders, as Spring does. Beans are held weakly, so
+ * refreshable prototypes can still be collected.
+ */
+public class RefreshablePropertyBinder implements BeanPostProcessor {
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final FlatPropertyResolver resolver;
+    private final CopyOnWriteArrayList<Binding> bindings = new CopyOnWriteArrayList<>();
+    /** Size at which collected beans' bindings are swept out before adding more. */
+    private int sweepAt = 64;
+
+    public RefreshablePropertyBinder(ConfigurableListableBeanFactory beanFactory, FlatPropertyResolver resolver) {
+        this.beanFactory = beanFactory;
+        this.resolver = resolver;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        Class<?> type = ClassUtils.getUserClass(bean);
+        if (!AnnotatedElementUtils.hasAnnotation(type, Refreshable.class)) return bean;
+        ReflectionUtils.doWithFields(type, field -> {
+            Value value = AnnotatedElementUtils.findMergedAnnotation(field, Value.class);
+            if (value != null && !Modifier.isStatic(field.getModifiers()) && !Modifier.isFinal(field.getModifiers())) {
+                ReflectionUtils.makeAccessible(field);
+                add(new Binding(bean, beanName, field, null, resolver.compile(value.value())));
+            }
+        });
+        ReflectionUtils.doWithMethods(type, method -> {
+            Value value = AnnotatedElementUtils.findMergedAnnotation(method, Value.class);
+            if (value != null && !Modifier.isStatic(method.getModifiers()) && method.getParameterCount() == 1) {
+                ReflectionUtils.makeAccessible(method);
+                add(new Binding(bean, beanName, null, method, resolver.compile(value.value())));
+            }
+        });
+        return bean;
+    }
+
+    private void add(Binding binding) {
+        synchronized (bindings) {
+            if (bindings.size() >= sweepAt) {
+                bindings.removeIf(b -> b.bean.get() == null);
+                sweepAt = Math.max(64, bindings.size() * 2);
+            }
+            bindings.add(binding);
+        }
+    }
+
+    /** Injects every binding whose value changed; returns how many did. */
+    public synchronized int refresh() {
+        int refreshed = 0;
+        TypeConverter converter = beanFactory.getTypeConverter();
+        for (Binding binding : bindings) {
+            Object bean = binding.bean.get();
+            if (bean == null) {
+                bindings.remove(binding);
+                continue;
+            }
+            try {
+                String text = binding.template.resolve(resolver);
+                if (text.equals(binding.lastText)) continue;
+                Object value = evaluate(text);
+                if (binding.field != null) {
+                    binding.field.set(bean, converter.convertIfNecessary(value, binding.field.getType(), binding.field));
+                } else {
+                    MethodParameter parameter = new MethodParameter(binding.method, 0);
+                    binding.method.invoke(bean, converter.convertIfNecessary(value, parameter.getParameterType(), parameter));
+                }
+                binding.lastText = text;
+                refreshed++;
+                System.out.println("[PROPERTIES] refreshed " + binding);
+            } catch (Exception e) {
+                System.out.println("[PROPERTIES] could not refresh " + binding + ", keeping the old value: " + e);
+            }
+        }
+        return refreshed;
+    }
+
+    private Object evaluate(String text) {
+        BeanExpressionResolver expressions = beanFactory.getBeanExpressionResolver();
+        if (expressions == null || !text.contains("#{")) return text;
+        return expressions.evaluate(text, new BeanExpressionContext(beanFactory, null));
+    }
+
+    public int getBindingCount() {
+        return bindings.size();
+    }
+
+    private final class Binding {
+        final WeakReference<Object> bean;
+        final String beanName;
+        final Field field;
+        final Method method;
+        final PlaceholderTemplate template;
+        /** What Spring injected at creation, as far as placeholders go. */
+        volatile String lastText;
+
+        Binding(Object bean, String beanName, Field field, Method method, PlaceholderTemplate template) {
+            this.bean = new WeakReference<>(bean);
+            this.beanName = beanName;
+            this.field = field;
+            this.method = method;
+            this.template = template;
+            this.lastText = template.resolve(resolver);
+        }
+
+        @Override
+        public String toString() {
+            return beanName + "." + (field != null ? field.getName() : method.getName() + "()");
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.example.properties;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.core.env.MutablePropertySources;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Compiled placeholder resolution plus hot-reloaded property files.
+ *
+ * {@link #enable} adds the files to the environment after the system
+ * properties and environment variables (so -D still overrides them), and
+ * makes a {@link FlatPropertyResolver} the context's embedded value resolver
+ * - every {@code @Value("${...}")} then goes through it. The flat snapshot is
+ * taken once the configuration classes are parsed, so {@code @PropertySource}s
+ * are in it.
+ *
+ * After refresh a {@link PropertyFileWatcher} follows the files; a change
+ * rebuilds the snapshot and pushes the new values into {@link Refreshable}
+ * beans. {@link #reload()} does the same on demand.
+ *
+ * Tuning: -Dproperties.debounceMs (quiet period before a reload, default 100).
+ */
+public class ReloadablePropertiesConfigurer implements BeanFactoryPostProcessor {
+
+    private final List<ReloadablePropertiesSource> files;
+    private final FlatPropertyResolver resolver;
+    private RefreshablePropertyBinder binder;
+
+    private ReloadablePropertiesConfigurer(List<ReloadablePropertiesSource> files, FlatPropertyResolver resolver) {
+        this.files = files;
+        this.resolver = resolver;
+    }
+
+    /** Call before refresh. The files need not exist yet; their directories must, to be watched. */
+    public static ReloadablePropertiesConfigurer enable(GenericApplicationContext ctx, List<Path> files) {
+        MutablePropertySources sources = ctx.getEnvironment().getPropertySources();
+        List<ReloadablePropertiesSource> loaded = new ArrayList<>();
+        for (Path file : files) {
+            ReloadablePropertiesSource source = new ReloadablePropertiesSource(file.toAbsolutePath().normalize());
+            sources.addLast(source);
+            loaded.add(source);
+        }
+        ReloadablePropertiesConfigurer configurer = new ReloadablePropertiesConfigurer(loaded,
+                new FlatPropertyResolver(sources));
+        ctx.addBeanFactoryPostProcessor(configurer);
+
+        PropertyFileWatcher watcher = new PropertyFileWatcher(loaded, Long.getLong("properties.debounceMs", 100),
+                configurer::applyChanges);
+        ctx.addApplicationListener(event -> {
+            try {
+                if (event instanceof ContextRefreshedEvent && !loaded.isEmpty()) {
+                    watcher.start();
+                } else if (event instanceof ContextClosedEvent) {
+                    watcher.close();
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        ctx.registerShutdownHook();
+        return configurer;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        resolver.rebuild();
+        beanFactory.addEmbeddedValueResolver(resolver);
+        binder = new RefreshablePropertyBinder(beanFactory, resolver);
+        beanFactory.addBeanPostProcessor(binder);
+    }
+
+    /** Reads every file again and applies what changed; returns the number of values refreshed. */
+    public int reload() {
+        boolean changed = false;
+        for (ReloadablePropertiesSource file : files) {
+            changed |= file.reload();
+        }
+        return changed ? applyChanges() : 0;
+    }
+
+    private synchronized int applyChanges() {
+        long start = System.nanoTime();
+        Set<String> changed = resolver.rebuild();
+        if (changed.isEmpty() || binder == null) return 0;
+        int refreshed = binder.refresh();
+        System.out.println("[PROPERTIES] " + changed.size() + " properties changed " + changed + ", " + refreshed
+                + " values refreshed in " + (System.nanoTime() - start) / 1_000 + " us");
+        return refreshed;
+    }
+
+    public FlatPropertyResolver getResolver() {
+        return resolver;
+    }
+
+    public RefreshablePropertyBinder getBinder() {
+        return binder;
+    }
+}
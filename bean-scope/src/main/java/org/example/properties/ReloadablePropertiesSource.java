@@ -0,0 +1,69 @@
+package org.example.properties;
+
+import org.springframework.core.env.EnumerablePropertySource;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * A {@code .properties} file (UTF-8) whose contents can be read again.
+ *
+ * A file that does not exist yet reads as empty. When a reload fails the
+ * previous values are kept, so a half-written file never empties the
+ * environment.
+ */
+public class ReloadablePropertiesSource extends EnumerablePropertySource<Path> {
+
+    private volatile Map<String, String> properties = Map.of();
+
+    public ReloadablePropertiesSource(Path file) {
+        super("file [" + file + "]", file);
+        reload();
+    }
+
+    public Path getFile() {
+        return getSource();
+    }
+
+    /** Reads the file again; true if any value differs from before. */
+    public synchronized boolean reload() {
+        Map<String, String> next = new TreeMap<>();
+        try (Reader reader = Files.newBufferedReader(getSource(), StandardCharsets.UTF_8)) {
+            Properties loaded = new Properties();
+            loaded.load(reader);
+            for (String key : loaded.stringPropertyNames()) {
+                next.put(key, loaded.getProperty(key));
+            }
+        } catch (NoSuchFileException e) {
+            // not there (yet): no properties
+        } catch (IOException | IllegalArgumentException e) {
+            System.out.println("[PROPERTIES] could not read " + getSource() + ", keeping previous values: " + e.getMessage());
+            return false;
+        }
+        if (next.equals(properties)) return false;
+        properties = Map.copyOf(next);
+        return true;
+    }
+
+    @Override
+    public Object getProperty(String name) {
+        return properties.get(name);
+    }
+
+    @Override
+    public boolean containsProperty(String name) {
+        return properties.containsKey(name);
+    }
+
+    @Override
+    public String[] getPropertyNames() {
+        return properties.keySet().toArray(new String[0]);
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.routing;
+
+/** How a {@link WeightedRouter} picks the target for a call. */
+public enum RoutingStrategy {
+    /** Smooth weighted round-robin: targets take turns, each in proportion to its weight. */
+    WEIGHTED_ROUND_ROBIN,
+    /** The target with the fewest calls in flight per unit of weight. */
+    LEAST_OUTSTANDING,
+    /** Two targets sampled by weight, the less loaded of them wins. */
+    POWER_OF_TWO_CHOICES
+}
@@ -0,0 +1,182 @@
+package org.example.routing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Spreads calls over several implementations of one interface.
+ *
+ * Picking a target takes no lock: the weights live in an immutable table that
+ * {@link #setWeight} rebuilds and publishes through a volatile field, round-robin
+ * advances a single AtomicLong over the table's precomputed schedule, and each
+ * target counts its calls in flight in an AtomicInteger. A target with weight 0
+ * gets no new calls. The strategy can be switched at any time.
+ */
+public final class WeightedRouter<T> {
+    /** Weights above this are clamped, which bounds the round-robin schedule. */
+    public static final int MAX_WEIGHT = 100;
+
+    private final Map<String, Target<T>> targets = new LinkedHashMap<>();
+    private final AtomicLong cursor = new AtomicLong();
+    private volatile Table<T> table;
+    private volatile RoutingStrategy strategy;
+
+    public WeightedRouter(Map<String, ? extends T> candidates, RoutingStrategy strategy) {
+        if (candidates.isEmpty()) throw new IllegalArgumentException("Nothing to route to");
+        candidates.forEach((name, target) -> targets.put(name, new Target<>(name, target)));
+        this.strategy = strategy;
+        this.table = new Table<>(new ArrayList<>(targets.values()));
+    }
+
+    /** Runs {@code call} against the picked target, counting it as in flight meanwhile. */
+    public <R> R route(Function<? super T, ? extends R> call) {
+        Target<T> target = pick();
+        target.inFlight.incrementAndGet();
+        try {
+            return call.apply(target.instance);
+        } finally {
+            target.inFlight.decrementAndGet();
+            target.calls.increment();
+        }
+    }
+
+    private Target<T> pick() {
+        Table<T> table = this.table;
+        Target<T>[] active = table.active;
+        if (active.length == 0) throw new IllegalStateException("No target has a positive weight: " + targets.keySet());
+        if (active.length == 1) return active[0];
+        switch (strategy) {
+            case LEAST_OUTSTANDING:
+                return leastLoaded(active, table.sample());
+            case POWER_OF_TWO_CHOICES:
+                int first = table.sample();
+                int second = table.sample();
+                if (second == first) second = (first + 1) % active.length;
+                return lessLoaded(active[first], active[second]);
+            default:
+                return active[table.schedule[(int) Math.floorMod(cursor.getAndIncrement(), (long) table.schedule.length)]];
+        }
+    }
+
+    /** Lowest in-flight per weight; the scan starts at a weighted-random index so ties split by weight. */
+    private static <T> Target<T> leastLoaded(Target<T>[] active, int start) {
+        Target<T> best = active[start];
+        for (int i = 1; i < active.length; i++) {
+            best = lessLoaded(best, active[(start + i) % active.length]);
+        }
+        return best;
+    }
+
+    private static <T> Target<T> lessLoaded(Target<T> a, Target<T> b) {
+        // a.inFlight / a.weight <= b.inFlight / b.weight, without dividing
+        return (long) a.inFlight.get() * b.weight <= (long) b.inFlight.get() * a.weight ? a : b;
+    }
+
+    public void setWeight(String name, int weight) {
+        if (weight < 0) throw new IllegalArgumentException("weight must not be negative: " + weight);
+        Target<T> target = targets.get(name);
+        if (target == null) throw new IllegalArgumentException("Unknown target " + name + ", known: " + targets.keySet());
+        synchronized (targets) {
+            target.weight = Math.min(weight, MAX_WEIGHT);
+            table = new Table<>(new ArrayList<>(targets.values()));
+        }
+    }
+
+    public int getWeight(String name) {
+        Target<T> target = targets.get(name);
+        return target != null ? target.weight : 0;
+    }
+
+    public void setStrategy(RoutingStrategy strategy) {
+        this.strategy = strategy;
+    }
+
+    public RoutingStrategy getStrategy() {
+        return strategy;
+    }
+
+    /** Weight, calls in flight and calls completed per target. */
+    public String report() {
+        StringBuilder out = new StringBuilder("[Router] ").append(strategy);
+        for (Target<T> target : targets.values()) {
+            out.append(' ').append(target.name).append("(weight=").append(target.weight).append(" inFlight=")
+                    .append(target.inFlight.get()).append(" calls=").append(target.calls.sum()).append(')');
+        }
+        return out.toString();
+    }
+
+    private static final class Target<T> {
+        final String name;
+        final T instance;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final LongAdder calls = new LongAdder();
+        volatile int weight = 1;
+
+        Target(String name, T instance) {
+            this.name = name;
+            this.instance = instance;
+        }
+    }
+
+    /** The targets with a positive weight, as of one weight change. */
+    private static final class Table<T> {
+        final Target<T>[] active;
+        /** Cumulative weights, for sampling by weight. */
+        final int[] cumulative;
+        /** Indexes into active, interleaved by smooth weighted round-robin (one cycle). */
+        final int[] schedule;
+
+        @SuppressWarnings("unchecked")
+        Table(List<Target<T>> all) {
+            List<Target<T>> positive = new ArrayList<>();
+            for (Target<T> target : all) {
+                if (target.weight > 0) positive.add(target);
+            }
+            active = positive.toArray(new Target[0]);
+            int[] weights = new int[active.length];
+            cumulative = new int[active.length];
+            int total = 0;
+            for (int i = 0; i < active.length; i++) {
+                weights[i] = active[i].weight;
+                total += weights[i];
+                cumulative[i] = total;
+            }
+            schedule = schedule(weights, total);
+        }
+
+        int sample() {
+            int point = ThreadLocalRandom.current().nextInt(cumulative[cumulative.length - 1]);
+            int low = 0;
+            int high = cumulative.length - 1;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (cumulative[mid] > point) high = mid;
+                else low = mid + 1;
+            }
+            return low;
+        }
+
+        /** Each step every target gains its weight and the richest one is picked and pays the total. */
+        private static int[] schedule(int[] weights, int total) {
+            int[] schedule = new int[total];
+            int[] current = new int[weights.length];
+            for (int step = 0; step < total; step++) {
+                int best = 0;
+                for (int i = 0; i < weights.length; i++) {
+                    current[i] += weights[i];
+                    if (current[i] > current[best]) best = i;
+                }
+                current[best] -= total;
+                schedule[step] = best;
+            }
+            return schedule;
+        }
+    }
+}
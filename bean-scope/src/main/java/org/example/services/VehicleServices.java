@@ -1,6 +1,7 @@
 package org.example.services;
 
 import org.example.interfaces.Tyres;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.context.annotation.Scope;
 import org.springframework.stereotype.Component;
@@ -14,7 +15,14 @@ public class VehicleServices {
         System.out.println("VehicleServices object is created");
     }
 
-    private void moveVehicle(){
+    // setter injection keeps the no-arg constructor for the prototype fast path
+    @Autowired
+    public void setTyres(Tyres tyres) {
+        this.tyres = tyres;
+    }
+
+    public String moveVehicle(){
         String status= tyres.rotate();
+        return status;
     }
 }
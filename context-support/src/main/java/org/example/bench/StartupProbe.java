@@ -0,0 +1,63 @@
+package org.example.bench;
+
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Startup probe for scripts/cds-bench.sh: boots a module's context, does
+ * the first getBean and prints one line with the JVM uptime at that point,
+ * resident memory (Linux) and loaded class count, then exits.
+ *
+ * Usage: StartupProbe &lt;context&gt; &lt;bean type&gt;, where context is a
+ * configuration class or {@code Class#method}, a static factory returning the
+ * context (refreshed here if the factory did not). Each module's pom names
+ * the pair as {@code cds.probe}.
+ */
+public class StartupProbe {
+
+    public static void main(String[] args) throws ReflectiveOperationException {
+        if (args.length != 2) {
+            throw new IllegalArgumentException("usage: StartupProbe <config class | Class#factoryMethod> <bean type>");
+        }
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+
+        ConfigurableApplicationContext ctx = context(args[0]);
+        ctx.getBean(Class.forName(args[1]));
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+
+        out.println("firstGetBean=" + uptime + "ms rss=" + status("VmRSS") + " peakRss=" + status("VmHWM")
+                + " classes=" + ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+        ctx.close();
+    }
+
+    private static ConfigurableApplicationContext context(String source) throws ReflectiveOperationException {
+        int hash = source.indexOf('#');
+        if (hash < 0) {
+            return new AnnotationConfigApplicationContext(Class.forName(source));
+        }
+        ConfigurableApplicationContext ctx = (ConfigurableApplicationContext)
+                Class.forName(source.substring(0, hash)).getMethod(source.substring(hash + 1)).invoke(null);
+        if (!ctx.isActive()) ctx.refresh();
+        return ctx;
+    }
+
+    private static String status(String key) {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith(key + ":")) {
+                    return line.substring(key.length() + 1).trim().replace(" kB", "kB");
+                }
+            }
+        } catch (IOException | RuntimeException ignored) {
+            // not Linux
+        }
+        return "n/a";
+    }
+}
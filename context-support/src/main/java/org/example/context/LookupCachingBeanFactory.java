@@ -0,0 +1,121 @@
+package org.example.context;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanDefinitionStoreException;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.NoUniqueBeanDefinitionException;
+import org.springframework.beans.factory.annotation.BeanFactoryAnnotationUtils;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.NamedBeanHolder;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bean factory that remembers which bean a type lookup resolved to.
+ *
+ * {@code getBean(Vehicle.class)} normally walks every Vehicle candidate and
+ * works out the primary (or highest priority) one on each call. Here the
+ * winning bean name is cached per (type, qualifier) and later lookups go
+ * straight to {@code getBean(name)}; scope and lazy creation are unaffected.
+ * Qualified lookups use {@link #getQualifiedBean}, which resolves like
+ * {@link BeanFactoryAnnotationUtils#qualifiedBeanOfType}.
+ *
+ * Entries are only cached once the configuration is frozen (after refresh),
+ * and the whole cache is dropped whenever a definition or singleton is
+ * registered or removed. Failed lookups and lookups answered by a parent
+ * factory are not cached.
+ */
+public class LookupCachingBeanFactory extends DefaultListableBeanFactory {
+
+    private final Map<LookupKey, String> resolvedNames = new ConcurrentHashMap<>();
+    private volatile boolean cacheLookups = true;
+
+    /** Switches the cache off (and clears it), leaving plain Spring resolution. */
+    public void setCacheLookups(boolean cacheLookups) {
+        this.cacheLookups = cacheLookups;
+        resolvedNames.clear();
+    }
+
+    public boolean isCacheLookups() {
+        return cacheLookups;
+    }
+
+    @Override
+    public <T> T getBean(Class<T> requiredType) throws BeansException {
+        if (!cacheLookups) return super.getBean(requiredType);
+        LookupKey key = new LookupKey(requiredType, null);
+        String name = resolvedNames.get(key);
+        if (name != null) return getBean(name, requiredType);
+
+        NamedBeanHolder<T> resolved = resolveNamedBean(requiredType);
+        remember(key, resolved.getBeanName());
+        return resolved.getBeanInstance();
+    }
+
+    /** The bean of the given type whose qualifier (or, failing that, bean name) matches. */
+    public <T> T getQualifiedBean(Class<T> requiredType, String qualifier) throws BeansException {
+        if (!cacheLookups) return BeanFactoryAnnotationUtils.qualifiedBeanOfType(this, requiredType, qualifier);
+        LookupKey key = new LookupKey(requiredType, qualifier);
+        String name = resolvedNames.get(key);
+        if (name == null) {
+            name = resolveQualified(requiredType, qualifier);
+            remember(key, name);
+        }
+        return getBean(name, requiredType);
+    }
+
+    private String resolveQualified(Class<?> requiredType, String qualifier) {
+        String match = null;
+        for (String candidate : getBeanNamesForType(requiredType)) {
+            if (BeanFactoryAnnotationUtils.isQualifierMatch(qualifier::equals, candidate, this)) {
+                if (match != null) throw new NoUniqueBeanDefinitionException(requiredType, match, candidate);
+                match = candidate;
+            }
+        }
+        if (match != null) return match;
+        if (containsBean(qualifier) && isTypeMatch(qualifier, requiredType)) return qualifier;
+        throw new NoSuchBeanDefinitionException(qualifier, "No matching " + requiredType.getSimpleName()
+                + " bean found for qualifier '" + qualifier + "' - neither qualifier match nor bean name match!");
+    }
+
+    private void remember(LookupKey key, String beanName) {
+        if (isConfigurationFrozen() && (containsBeanDefinition(beanName) || containsSingleton(beanName))) {
+            resolvedNames.put(key, beanName);
+        }
+    }
+
+    @Override
+    public void registerBeanDefinition(String beanName, BeanDefinition beanDefinition) throws BeanDefinitionStoreException {
+        super.registerBeanDefinition(beanName, beanDefinition);
+        resolvedNames.clear();
+    }
+
+    @Override
+    public void removeBeanDefinition(String beanName) throws NoSuchBeanDefinitionException {
+        super.removeBeanDefinition(beanName);
+        resolvedNames.clear();
+    }
+
+    @Override
+    public void registerSingleton(String beanName, Object singletonObject) throws IllegalStateException {
+        super.registerSingleton(beanName, singletonObject);
+        resolvedNames.clear();
+    }
+
+    @Override
+    public void destroySingleton(String beanName) {
+        super.destroySingleton(beanName);
+        resolvedNames.clear();
+    }
+
+    @Override
+    public void clearMetadataCache() {
+        super.clearMetadataCache();
+        resolvedNames.clear();
+    }
+
+    private record LookupKey(Class<?> type, String qualifier) {
+    }
+}
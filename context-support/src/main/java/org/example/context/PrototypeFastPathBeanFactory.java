@@ -0,0 +1,216 @@
+package org.example.context;
+
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.factory.support.SimpleInstantiationStrategy;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Bean factory with a cheaper creation path for non-singleton beans.
+ *
+ * Instantiation: once a prototype's constructor or factory method is known,
+ * it is cached per bean definition as a {@link MethodHandle} and later
+ * creations call it directly, skipping constructor resolution, argument
+ * resolution and the instantiation strategy. Covered are a single no-arg
+ * constructor and no-arg (static or instance) factory methods such as
+ * {@code @Bean} methods; a factory method is only cached after the regular
+ * path has resolved it once. Anything else (constructor arguments, lookup
+ * methods, instance suppliers) takes the regular path.
+ *
+ * Initialization: post-processors implementing {@link SelectiveBeanPostProcessor}
+ * that do not apply to a bean's type are left out of its init callbacks. The
+ * filtered list is cached per bean and rebuilt when post-processors are added.
+ *
+ * Dependency injection, aware callbacks and init methods run as usual. Type
+ * lookups are not cached unless {@link #setCacheLookups} switches the
+ * {@link LookupCachingBeanFactory} cache on.
+ */
+public class PrototypeFastPathBeanFactory extends LookupCachingBeanFactory {
+
+    private static final MethodType SUPPLIER = MethodType.methodType(Object.class);
+    private static final MethodType FACTORY_METHOD = MethodType.methodType(Object.class, Object.class);
+
+    private final Map<String, Instantiator> instantiators = new ConcurrentHashMap<>();
+    private final Map<String, PostProcessors> postProcessors = new ConcurrentHashMap<>();
+
+    public PrototypeFastPathBeanFactory() {
+        setCacheLookups(false);
+    }
+
+    @Override
+    protected BeanWrapper createBeanInstance(String beanName, RootBeanDefinition mbd, Object[] args) {
+        if (args == null && !mbd.isSingleton()) {
+            Instantiator instantiator = instantiator(beanName, mbd);
+            if (instantiator != null && instantiator.handle != null) {
+                Object instance = instantiator.instantiate(this, beanName, mbd);
+                if (instance != null) {
+                    BeanWrapper bw = new BeanWrapperImpl(instance);
+                    initBeanWrapper(bw);
+                    return bw;
+                }
+                // null from a factory method: the regular path wraps it (the method runs once more)
+                instantiators.put(beanName, Instantiator.unsupported(mbd));
+            }
+        }
+        return super.createBeanInstance(beanName, mbd, args);
+    }
+
+    /** Null while a factory method is not resolved yet. */
+    private Instantiator instantiator(String beanName, RootBeanDefinition mbd) {
+        Instantiator cached = instantiators.get(beanName);
+        if (cached != null && cached.definition == mbd) return cached;
+        Instantiator resolved = Instantiator.resolve(mbd);
+        if (resolved != null) instantiators.put(beanName, resolved);
+        return resolved;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public Object applyBeanPostProcessorsBeforeInitialization(Object existingBean, String beanName) throws BeansException {
+        BeanPostProcessor[] processors = applicablePostProcessors(existingBean, beanName);
+        if (processors == null) return super.applyBeanPostProcessorsBeforeInitialization(existingBean, beanName);
+        Object result = existingBean;
+        for (BeanPostProcessor processor : processors) {
+            Object current = processor.postProcessBeforeInitialization(result, beanName);
+            if (current == null) return result;
+            result = current;
+        }
+        return result;
+    }
+
+    @Override
+    @SuppressWarnings("deprecation")
+    public Object applyBeanPostProcessorsAfterInitialization(Object existingBean, String beanName) throws BeansException {
+        BeanPostProcessor[] processors = applicablePostProcessors(existingBean, beanName);
+        if (processors == null) return super.applyBeanPostProcessorsAfterInitialization(existingBean, beanName);
+        Object result = existingBean;
+        for (BeanPostProcessor processor : processors) {
+            Object current = processor.postProcessAfterInitialization(result, beanName);
+            if (current == null) return result;
+            result = current;
+        }
+        return result;
+    }
+
+    /** Post-processors that apply to this bean, or null for beans outside the fast path. */
+    private BeanPostProcessor[] applicablePostProcessors(Object bean, String beanName) {
+        if (beanName == null || !containsBeanDefinition(beanName)) return null;
+        RootBeanDefinition mbd = getMergedLocalBeanDefinition(beanName);
+        if (mbd.isSingleton()) return null;
+
+        List<BeanPostProcessor> all = getBeanPostProcessors();
+        PostProcessors cached = postProcessors.get(beanName);
+        if (cached != null && cached.definition == mbd && cached.registered == all.size()) return cached.applicable;
+
+        // the instance handed to the before-init callbacks is the raw bean
+        Class<?> beanType = ClassUtils.getUserClass(bean);
+        List<BeanPostProcessor> applicable = new ArrayList<>(all.size());
+        for (BeanPostProcessor processor : all) {
+            if (processor instanceof SelectiveBeanPostProcessor selective && !selective.appliesTo(beanType)) continue;
+            applicable.add(processor);
+        }
+        PostProcessors filtered = new PostProcessors(mbd, all.size(), applicable.toArray(new BeanPostProcessor[0]));
+        postProcessors.put(beanName, filtered);
+        return filtered.applicable;
+    }
+
+    private record PostProcessors(RootBeanDefinition definition, int registered, BeanPostProcessor[] applicable) {
+    }
+
+    /** Cached creation call for one bean definition; a null handle means "use the regular path". */
+    private static final class Instantiator {
+        final RootBeanDefinition definition;
+        final MethodHandle handle;
+        final Method factoryMethod;
+        final String factoryBeanName;
+
+        private Instantiator(RootBeanDefinition definition, MethodHandle handle,
+                             Method factoryMethod, String factoryBeanName) {
+            this.definition = definition;
+            this.handle = handle;
+            this.factoryMethod = factoryMethod;
+            this.factoryBeanName = factoryBeanName;
+        }
+
+        static Instantiator unsupported(RootBeanDefinition mbd) {
+            return new Instantiator(mbd, null, null, null);
+        }
+
+        /** Null while a factory method is not resolved yet, so it is looked at again next time. */
+        static Instantiator resolve(RootBeanDefinition mbd) {
+            if (mbd.getInstanceSupplier() != null || mbd.hasMethodOverrides() || mbd.hasConstructorArgumentValues()) {
+                return unsupported(mbd);
+            }
+            try {
+                if (mbd.getFactoryMethodName() != null) {
+                    Method method = mbd.getResolvedFactoryMethod();
+                    if (method == null) return null;
+                    if (method.getParameterCount() != 0) return unsupported(mbd);
+                    ReflectionUtils.makeAccessible(method);
+                    MethodHandle handle = MethodHandles.lookup().unreflect(method);
+                    if (Modifier.isStatic(method.getModifiers())) {
+                        return new Instantiator(mbd, handle.asType(SUPPLIER), method, null);
+                    }
+                    if (mbd.getFactoryBeanName() == null) return unsupported(mbd);
+                    return new Instantiator(mbd, handle.asType(FACTORY_METHOD), method, mbd.getFactoryBeanName());
+                }
+                if (!mbd.hasBeanClass()) return unsupported(mbd);
+                Class<?> beanClass = mbd.getBeanClass();
+                Constructor<?>[] ctors = beanClass.getDeclaredConstructors();
+                if (beanClass.isInterface() || Modifier.isAbstract(beanClass.getModifiers())
+                        || ctors.length != 1 || ctors[0].getParameterCount() != 0) {
+                    return unsupported(mbd);
+                }
+                ReflectionUtils.makeAccessible(ctors[0]);
+                return new Instantiator(mbd, MethodHandles.lookup().unreflectConstructor(ctors[0]).asType(SUPPLIER),
+                        null, null);
+            } catch (IllegalAccessException e) {
+                return unsupported(mbd);
+            }
+        }
+
+        Object instantiate(DefaultListableBeanFactory factory, String beanName, RootBeanDefinition mbd) {
+            if (factoryMethod == null) {
+                try {
+                    return handle.invokeExact();
+                } catch (Throwable ex) {
+                    throw failure(beanName, mbd, ex);
+                }
+            }
+            Object factoryBean = factoryBeanName != null ? factory.getBean(factoryBeanName) : null;
+            // what the regular path does too: lets an enhanced @Configuration class call the real @Bean method
+            Method prior = SimpleInstantiationStrategy.getCurrentlyInvokedFactoryMethod();
+            SimpleInstantiationStrategy.setCurrentlyInvokedFactoryMethod(factoryMethod);
+            try {
+                return factoryBean != null ? handle.invokeExact(factoryBean) : handle.invokeExact();
+            } catch (Throwable ex) {
+                throw failure(beanName, mbd, ex);
+            } finally {
+                SimpleInstantiationStrategy.setCurrentlyInvokedFactoryMethod(prior);
+            }
+        }
+
+        private static RuntimeException failure(String beanName, RootBeanDefinition mbd, Throwable ex) {
+            if (ex instanceof Error error) throw error;
+            if (ex instanceof BeansException beansException) return beansException;
+            return new BeanCreationException(mbd.getResourceDescription(), beanName, "Instantiation failed", ex);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package org.example.context;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+/**
+ * A post-processor that can tell up front which beans its init callbacks
+ * leave untouched. {@link PrototypeFastPathBeanFactory} skips it for those.
+ *
+ * The answer is cached per bean definition, so it may turn from true to false
+ * over the lifetime of the context but must never turn from false to true.
+ * Only postProcessBeforeInitialization / postProcessAfterInitialization are
+ * skipped; instantiation-aware and destruction callbacks always run.
+ */
+public interface SelectiveBeanPostProcessor extends BeanPostProcessor {
+
+    boolean appliesTo(Class<?> beanType);
+}
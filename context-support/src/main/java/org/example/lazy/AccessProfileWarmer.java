@@ -0,0 +1,169 @@
+package org.example.lazy;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Lazy-by-default context mode with a background warm-up.
+ *
+ * {@link #enable} makes every singleton lazy ({@link LazyByDefaultPostProcessor}),
+ * so the context is ready as soon as the post-processors exist. After readiness
+ * a daemon thread creates the beans listed in the access profile, in the order
+ * they were first needed on earlier runs. Every bean a caller still has to wait
+ * for (a cold first hit) is reported with its creation latency and added to the
+ * profile, which is written back when the context closes.
+ *
+ * The profile only ever grows (minus beans that no longer exist): a bean warmed
+ * in the background is not observed being used, so it is kept.
+ */
+public class AccessProfileWarmer implements InstantiationAwareBeanPostProcessor, ApplicationListener<ApplicationEvent> {
+
+    private final ConfigurableListableBeanFactory beanFactory;
+    private final LazyByDefaultPostProcessor lazyDefaults;
+    private final Path profileFile;
+
+    private final Set<String> profile = Collections.synchronizedSet(new LinkedHashSet<>());
+    private final ThreadLocal<Deque<Object[]>> creating = ThreadLocal.withInitial(ArrayDeque::new);
+    private final ThreadLocal<Boolean> warmupThread = ThreadLocal.withInitial(() -> false);
+    private final AtomicInteger coldHits = new AtomicInteger();
+    private final LongAdder coldNanos = new LongAdder();
+    private final AtomicInteger warmed = new AtomicInteger();
+    private volatile boolean ready;
+
+    private AccessProfileWarmer(ConfigurableListableBeanFactory beanFactory, LazyByDefaultPostProcessor lazyDefaults,
+                                Path profileFile) {
+        this.beanFactory = beanFactory;
+        this.lazyDefaults = lazyDefaults;
+        this.profileFile = profileFile;
+    }
+
+    /** Call before refresh. The profile file is read at readiness and written on close. */
+    public static AccessProfileWarmer enable(GenericApplicationContext ctx, Path profileFile) {
+        LazyByDefaultPostProcessor lazyDefaults = new LazyByDefaultPostProcessor();
+        AccessProfileWarmer warmer = new AccessProfileWarmer(ctx.getBeanFactory(), lazyDefaults, profileFile);
+        ctx.addBeanFactoryPostProcessor(lazyDefaults);
+        ctx.getBeanFactory().addBeanPostProcessor(warmer);
+        ctx.addApplicationListener(warmer);
+        ctx.registerShutdownHook();
+        return warmer;
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        if (event instanceof ContextRefreshedEvent refreshed) {
+            ready = true;
+            long readyMs = System.currentTimeMillis() - refreshed.getApplicationContext().getStartupDate();
+            System.out.println("[LAZY-STARTUP] ready in " + readyMs + " ms, "
+                    + lazyDefaults.getDeferred() + " singletons deferred");
+            startWarmup(readProfile());
+        } else if (event instanceof ContextClosedEvent) {
+            System.out.println("[LAZY-STARTUP] cold first hits=" + coldHits + " ("
+                    + String.format("%.1f", coldNanos.sum() / 1e6) + " ms total), warmed in background=" + warmed);
+            writeProfile();
+        }
+    }
+
+    private void startWarmup(List<String> names) {
+        if (names.isEmpty()) return;
+        Thread thread = new Thread(() -> {
+            warmupThread.set(true);
+            long start = System.nanoTime();
+            for (String name : names) {
+                if (!beanFactory.containsBeanDefinition(name) || beanFactory.containsSingleton(name)) continue;
+                try {
+                    beanFactory.getBean(name);
+                } catch (BeansException e) {
+                    // closed meanwhile or no longer creatable: the caller will find out on first use
+                    System.out.println("[LAZY-STARTUP] warm-up skipped " + name + ": " + e.getMessage());
+                }
+            }
+            System.out.println("[LAZY-STARTUP] warm-up done, " + warmed + " beans created for " + names.size() + " profiled in "
+                    + (System.nanoTime() - start) / 1_000_000 + " ms");
+        }, "lazy-warmup");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) {
+        if (ready) creating.get().push(new Object[] { beanName, System.nanoTime() });
+        return null;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Deque<Object[]> stack = creating.get();
+        if (!ready || stack.stream().noneMatch(f -> beanName.equals(f[0]))) return bean;
+        Object[] frame;
+        do {
+            frame = stack.pop(); // frames left above it by failed creations are dropped
+        } while (!beanName.equals(frame[0]));
+        if (!isSingleton(beanName)) return bean;
+
+        profile.add(beanName);
+        if (warmupThread.get()) {
+            warmed.incrementAndGet();
+        } else if (stack.isEmpty()) {
+            long nanos = System.nanoTime() - (long) frame[1];
+            coldHits.incrementAndGet();
+            coldNanos.add(nanos);
+            System.out.println("[LAZY-STARTUP] cold first hit " + beanName + ": "
+                    + String.format("%.2f", nanos / 1e6) + " ms");
+        }
+        return bean;
+    }
+
+    private boolean isSingleton(String beanName) {
+        if (!beanFactory.containsBeanDefinition(beanName)) return false;
+        String scope = beanFactory.getBeanDefinition(beanName).getScope();
+        return scope == null || scope.isEmpty() || BeanDefinition.SCOPE_SINGLETON.equals(scope);
+    }
+
+    private List<String> readProfile() {
+        try {
+            if (Files.exists(profileFile)) {
+                profile.addAll(Files.readAllLines(profileFile));
+            }
+        } catch (IOException e) {
+            System.out.println("[LAZY-STARTUP] could not read " + profileFile + ": " + e.getMessage());
+        }
+        synchronized (profile) {
+            return new ArrayList<>(profile);
+        }
+    }
+
+    private void writeProfile() {
+        List<String> names;
+        synchronized (profile) {
+            names = new ArrayList<>(profile);
+        }
+        names.removeIf(name -> !beanFactory.containsBeanDefinition(name));
+        try {
+            Path parent = profileFile.toAbsolutePath().getParent();
+            if (parent != null) Files.createDirectories(parent);
+            Files.write(profileFile, names);
+        } catch (IOException e) {
+            System.out.println("[LAZY-STARTUP] could not write " + profileFile + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package org.example.lazy;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.core.Ordered;
+
+/**
+ * Marks every application singleton lazy unless its definition says otherwise,
+ * so refresh only creates what something asks for.
+ *
+ * An explicit lazy flag wins: @Lazy(false) keeps a bean eager. Infrastructure
+ * beans are left alone, and post-processors are created during refresh
+ * regardless of the flag.
+ */
+public class LazyByDefaultPostProcessor implements BeanFactoryPostProcessor, Ordered {
+
+    private int deferred;
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        for (String name : beanFactory.getBeanDefinitionNames()) {
+            BeanDefinition bd = beanFactory.getBeanDefinition(name);
+            if (bd instanceof AbstractBeanDefinition abd && abd.getLazyInit() == null
+                    && !abd.isAbstract() && abd.isSingleton() && abd.getRole() == BeanDefinition.ROLE_APPLICATION) {
+                abd.setLazyInit(true);
+                deferred++;
+            }
+        }
+    }
+
+    /** Number of singletons switched to lazy at the last refresh. */
+    public int getDeferred() {
+        return deferred;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
@@ -0,0 +1,56 @@
+package org.example.pool;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-capacity pool of idle instances without locks.
+ *
+ * Each slot holds at most one instance and is claimed or filled with a single
+ * compare-and-set. Callers start probing at a random slot so concurrent
+ * borrowers rarely race for the same one.
+ */
+final class BoundedObjectPool<T> {
+
+    private final AtomicReferenceArray<T> slots;
+
+    BoundedObjectPool(int capacity) {
+        if (capacity < 1) throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    /** An idle instance, or null when the pool is empty. */
+    T poll() {
+        int n = slots.length();
+        int start = ThreadLocalRandom.current().nextInt(n);
+        for (int i = 0; i < n; i++) {
+            int idx = (start + i) % n;
+            T item = slots.get(idx);
+            if (item != null && slots.compareAndSet(idx, item, null)) return item;
+        }
+        return null;
+    }
+
+    /** Parks an instance; false when every slot is taken. */
+    boolean offer(T item) {
+        int n = slots.length();
+        int start = ThreadLocalRandom.current().nextInt(n);
+        for (int i = 0; i < n; i++) {
+            int idx = (start + i) % n;
+            if (slots.get(idx) == null && slots.compareAndSet(idx, null, item)) return true;
+        }
+        return false;
+    }
+
+    int idle() {
+        int idle = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            if (slots.get(i) != null) idle++;
+        }
+        return idle;
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+}
@@ -0,0 +1,11 @@
+package org.example.pool;
+
+/**
+ * Optional callback for beans in the pooled scope: {@link #resetForPool()} runs
+ * when an instance is returned, before anyone else can borrow it. An instance
+ * whose reset throws is discarded instead of being parked.
+ */
+public interface Poolable {
+
+    void resetForPool();
+}
@@ -0,0 +1,60 @@
+package org.example.pool;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A unit of work on the current thread. Pooled beans borrowed while a request
+ * is open are returned to their pool when it closes, so callers never release
+ * them by hand.
+ *
+ * <pre>
+ * try (PooledRequest request = PooledRequest.begin()) {
+ *     PrototypeService service = context.getBean(PrototypeService.class);
+ *     ...
+ * } // service goes back to the pool here
+ * </pre>
+ *
+ * Beginning a request while one is open joins it; only the outermost close
+ * returns the borrowed beans. Beans must not be used after the request closes.
+ */
+public final class PooledRequest implements AutoCloseable {
+
+    private static final ThreadLocal<PooledRequest> CURRENT = new ThreadLocal<>();
+
+    private final List<Runnable> returns = new ArrayList<>();
+    private int depth = 1;
+
+    private PooledRequest() {
+    }
+
+    public static PooledRequest begin() {
+        PooledRequest current = CURRENT.get();
+        if (current != null) {
+            current.depth++;
+            return current;
+        }
+        current = new PooledRequest();
+        CURRENT.set(current);
+        return current;
+    }
+
+    static PooledRequest current() {
+        return CURRENT.get();
+    }
+
+    void onClose(Runnable returnToPool) {
+        returns.add(returnToPool);
+    }
+
+    @Override
+    public void close() {
+        if (--depth > 0) return;
+        CURRENT.remove();
+        // most recently borrowed first, as with nested resources
+        for (int i = returns.size() - 1; i >= 0; i--) {
+            returns.get(i).run();
+        }
+        returns.clear();
+    }
+}
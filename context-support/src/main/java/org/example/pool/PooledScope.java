@@ -0,0 +1,233 @@
+package org.example.pool;
+
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.config.Scope;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * The "pooled" scope: prototype semantics (no two callers hold the same
+ * instance at once) without building a new instance for every lookup.
+ *
+ * A lookup borrows an idle instance from the bean's {@link BoundedObjectPool}
+ * (a hit) or creates one through the bean factory (a miss). Borrowed instances
+ * go back when the enclosing {@link PooledRequest} closes, or through
+ * {@link #release}. On the way back the reset callbacks run
+ * ({@link Poolable} and any registered with the configurer); an instance that
+ * fails to reset, or finds the pool full, is destroyed.
+ *
+ * Leak detection: a borrow outstanding for longer than the threshold is
+ * reported once, with the code that borrowed it. Beans injected into
+ * singletons are borrowed for good and show up here too.
+ */
+public class PooledScope implements Scope {
+
+    public static final String SCOPE_NAME = "pooled";
+
+    private final int capacity;
+    private final long leakThresholdNanos;
+    private final Map<String, BoundedObjectPool<Object>> pools = new ConcurrentHashMap<>();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+    private final Map<String, Consumer<Object>> resetCallbacks = new ConcurrentHashMap<>();
+    private final Map<Ref, Lease> leases = new ConcurrentHashMap<>();
+    private final Map<Ref, Runnable> destructionCallbacks = new ConcurrentHashMap<>();
+    private final ThreadLocal<Runnable> pendingDestruction = new ThreadLocal<>();
+
+    /**
+     * @param capacity           idle instances kept per bean
+     * @param leakThresholdMillis borrow age reported as a leak; 0 disables detection
+     */
+    public PooledScope(int capacity, long leakThresholdMillis) {
+        this.capacity = capacity;
+        this.leakThresholdNanos = TimeUnit.MILLISECONDS.toNanos(leakThresholdMillis);
+    }
+
+    void addResetCallback(String beanName, Consumer<Object> reset) {
+        resetCallbacks.merge(beanName, reset, Consumer::andThen);
+    }
+
+    @Override
+    public Object get(String name, ObjectFactory<?> objectFactory) {
+        Stats s = stats(name);
+        Object bean = pools.computeIfAbsent(name, n -> new BoundedObjectPool<>(capacity)).poll();
+        if (bean != null) {
+            s.hits.increment();
+        } else {
+            s.misses.increment();
+            pendingDestruction.remove();
+            bean = objectFactory.getObject();
+            Runnable destruction = pendingDestruction.get();
+            pendingDestruction.remove();
+            if (destruction != null) destructionCallbacks.put(new Ref(bean), destruction);
+            s.created.increment();
+        }
+
+        leases.put(new Ref(bean), new Lease(name, Thread.currentThread().getName(), System.nanoTime(),
+                leakThresholdNanos > 0 ? borrowSite() : null));
+        PooledRequest request = PooledRequest.current();
+        if (request != null) {
+            Object borrowed = bean;
+            request.onClose(() -> release(borrowed));
+        }
+        return bean;
+    }
+
+    /** Returns a borrowed instance to its pool; anything not currently borrowed is ignored. */
+    public void release(Object bean) {
+        Ref ref = new Ref(bean);
+        Lease lease = leases.remove(ref);
+        if (lease == null) return;
+        Stats s = stats(lease.beanName);
+        s.returned.increment();
+        if (!reset(lease.beanName, bean) || !pools.get(lease.beanName).offer(bean)) {
+            s.discarded.increment();
+            destroy(ref);
+        }
+    }
+
+    private boolean reset(String beanName, Object bean) {
+        try {
+            if (bean instanceof Poolable poolable) poolable.resetForPool();
+            Consumer<Object> reset = resetCallbacks.get(beanName);
+            if (reset != null) reset.accept(bean);
+            return true;
+        } catch (RuntimeException e) {
+            System.out.println("[POOL] reset of " + beanName + " failed, discarding instance: " + e);
+            return false;
+        }
+    }
+
+    /** Reports borrows older than the threshold that were not reported before. */
+    public int detectLeaks() {
+        if (leakThresholdNanos <= 0) return 0;
+        long now = System.nanoTime();
+        int found = 0;
+        for (Lease lease : leases.values()) {
+            if (!lease.reported && now - lease.borrowedAt > leakThresholdNanos) {
+                lease.reported = true;
+                stats(lease.beanName).leaked.increment();
+                found++;
+                System.out.println("[POOL] possible leak: " + lease.beanName + " borrowed by " + lease.thread
+                        + " " + TimeUnit.NANOSECONDS.toMillis(now - lease.borrowedAt) + " ms ago at " + lease.site);
+            }
+        }
+        return found;
+    }
+
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        stats.forEach((name, s) -> {
+            BoundedObjectPool<Object> pool = pools.get(name);
+            long borrowed = leases.values().stream().filter(l -> l.beanName.equals(name)).count();
+            out.append("[POOL] ").append(name)
+                    .append(" hits=").append(s.hits)
+                    .append(" misses=").append(s.misses)
+                    .append(" created=").append(s.created)
+                    .append(" returned=").append(s.returned)
+                    .append(" discarded=").append(s.discarded)
+                    .append(" leaked=").append(s.leaked)
+                    .append(" borrowed=").append(borrowed)
+                    .append(" idle=").append(pool == null ? 0 : pool.idle()).append('/').append(capacity)
+                    .append('\n');
+        });
+        return out.toString().stripTrailing();
+    }
+
+    /** Destroys every idle instance; borrowed ones stay with their holders. */
+    public void close() {
+        pools.keySet().forEach(this::remove);
+    }
+
+    @Override
+    public Object remove(String name) {
+        BoundedObjectPool<Object> pool = pools.get(name);
+        if (pool == null) return null;
+        Object last = null;
+        for (Object idle = pool.poll(); idle != null; idle = pool.poll()) {
+            destroy(new Ref(idle));
+            last = idle;
+        }
+        return last;
+    }
+
+    @Override
+    public void registerDestructionCallback(String name, Runnable callback) {
+        // called by the bean factory while get() is creating the instance
+        pendingDestruction.set(callback);
+    }
+
+    @Override
+    public Object resolveContextualObject(String key) {
+        return null;
+    }
+
+    @Override
+    public String getConversationId() {
+        return null;
+    }
+
+    private void destroy(Ref ref) {
+        Runnable callback = destructionCallbacks.remove(ref);
+        if (callback != null) callback.run();
+    }
+
+    private Stats stats(String name) {
+        return stats.computeIfAbsent(name, n -> new Stats());
+    }
+
+    private static String borrowSite() {
+        Optional<StackWalker.StackFrame> caller = StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> !f.getClassName().startsWith("org.springframework.")
+                        && !f.getClassName().startsWith(PooledScope.class.getPackageName() + "."))
+                .findFirst());
+        return caller.map(f -> f.getClassName() + "." + f.getMethodName() + ":" + f.getLineNumber()).orElse("?");
+    }
+
+    private static final class Stats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder created = new LongAdder();
+        final LongAdder returned = new LongAdder();
+        final LongAdder discarded = new LongAdder();
+        final LongAdder leaked = new LongAdder();
+    }
+
+    private static final class Lease {
+        final String beanName;
+        final String thread;
+        final long borrowedAt;
+        final String site;
+        volatile boolean reported;
+
+        Lease(String beanName, String thread, long borrowedAt, String site) {
+            this.beanName = beanName;
+            this.thread = thread;
+            this.borrowedAt = borrowedAt;
+            this.site = site;
+        }
+    }
+
+    /** Identity key: pooled beans may override equals/hashCode. */
+    private static final class Ref {
+        final Object bean;
+
+        Ref(Object bean) {
+            this.bean = bean;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Ref ref && ref.bean == bean;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(bean);
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package org.example.pool;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Registers {@link PooledScope} and moves the named prototype beans into it.
+ *
+ * Beans can also declare {@code @Scope("pooled")} themselves once the scope is
+ * registered. {@link #enable} wires everything into a context: a daemon thread
+ * checks for leaks at half the threshold, and on close (shutdown hook included)
+ * the metrics are printed and idle instances destroyed.
+ *
+ * Tuning: -Dpool.capacity (idle instances per bean, default 16) and
+ * -Dpool.leakThresholdMs (default 10000, 0 disables leak detection).
+ */
+public class PooledScopeConfigurer implements BeanFactoryPostProcessor {
+
+    private final PooledScope scope;
+    private final Set<String> pooledBeans = new LinkedHashSet<>();
+
+    public PooledScopeConfigurer(PooledScope scope) {
+        this.scope = scope;
+    }
+
+    /** Call before refresh, then name the beans to pool. */
+    public static PooledScopeConfigurer enable(GenericApplicationContext ctx) {
+        long leakThresholdMs = Long.getLong("pool.leakThresholdMs", 10_000);
+        PooledScope scope = new PooledScope(Integer.getInteger("pool.capacity", 16), leakThresholdMs);
+        PooledScopeConfigurer configurer = new PooledScopeConfigurer(scope);
+        ctx.addBeanFactoryPostProcessor(configurer);
+
+        ScheduledExecutorService leakDetector = null;
+        if (leakThresholdMs > 0) {
+            leakDetector = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "pool-leak-detector");
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(1, leakThresholdMs / 2);
+            leakDetector.scheduleAtFixedRate(scope::detectLeaks, period, period, TimeUnit.MILLISECONDS);
+        }
+        ScheduledExecutorService detector = leakDetector;
+        ctx.addApplicationListener(event -> {
+            if (event instanceof ContextClosedEvent) {
+                if (detector != null) detector.shutdownNow();
+                scope.detectLeaks();
+                System.out.println(scope.report());
+                scope.close();
+            }
+        });
+        ctx.registerShutdownHook();
+        return configurer;
+    }
+
+    public PooledScopeConfigurer pooled(String beanName) {
+        pooledBeans.add(beanName);
+        return this;
+    }
+
+    /** Pools the bean and runs {@code reset} on every instance returned to the pool. */
+    public PooledScopeConfigurer pooled(String beanName, Consumer<Object> reset) {
+        scope.addResetCallback(beanName, reset);
+        return pooled(beanName);
+    }
+
+    public PooledScope getScope() {
+        return scope;
+    }
+
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        beanFactory.registerScope(PooledScope.SCOPE_NAME, scope);
+        for (String name : pooledBeans) {
+            BeanDefinition bd = beanFactory.getBeanDefinition(name);
+            if (!bd.isPrototype()) {
+                throw new IllegalStateException("Only prototype beans can be pooled, '" + name + "' has scope '"
+                        + bd.getScope() + "'");
+            }
+            bd.setScope(PooledScope.SCOPE_NAME);
+        }
+    }
+}
@@ -1,13 +1,45 @@
 package org.example;
 
+import org.example.jdbc.JdbcMetrics;
+import org.example.jdbc.PooledDataSource;
+import org.example.jdbc.WriteBehindWriter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class AppConfig {
 
+    // -Ddb.url=jdbc:h2:mem:test;DB_CLOSE_DELAY=-1 -Ddb.username=sa -Ddb.password= to run without a MySQL server
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public PooledDataSource dataSource(){
+        PooledDataSource dataSource= new PooledDataSource(System.getProperty("db.url", "jdbc:mysql://localhost:3306/test"),
+                System.getProperty("db.username", "root"), System.getProperty("db.password", "password)"));
+        dataSource.setMinIdle(Integer.getInteger("db.pool.minIdle", 2));
+        dataSource.setMaxSize(Integer.getInteger("db.pool.maxSize", 10));
+        dataSource.setConnectionTimeoutMs(Long.getLong("db.pool.connectionTimeoutMs", 30_000L));
+        dataSource.setLeakDetectionThresholdMs(Long.getLong("db.pool.leakDetectionThresholdMs", 0L));
+        dataSource.setStatementCacheSize(Integer.getInteger("db.pool.statementCacheSize", 64));
+        // -Ddb.metrics=false turns statement instrumentation off
+        if (Boolean.parseBoolean(System.getProperty("db.metrics", "true"))) {
+            dataSource.setMetrics(new JdbcMetrics(Long.getLong("db.metrics.slowQueryMs", 200L),
+                    Integer.getInteger("db.metrics.slowQueryCapacity", 50), Integer.getInteger("db.metrics.maxFingerprints", 500)));
+        }
+        return dataSource;
+    }
+
+    // connects in the background; only callers of getConnection() wait, up to db.readyTimeoutMs
     @Bean
-    public DBConnection dbConnection(){
-        return new DBConnection("jdbc:mysql://localhost:3306/test", "root", "password)");
+    public DBConnection dbConnection(PooledDataSource dataSource){
+        return new DBConnection(dataSource, Long.getLong("db.readyTimeoutMs", 10_000L),
+                Integer.getInteger("db.connect.maxAttempts", 10), Long.getLong("db.connect.initialBackoffMs", 200L),
+                Long.getLong("db.connect.maxBackoffMs", 5_000L));
+    }
+
+    // closed before the pool: flushes what is still queued
+    @Bean(destroyMethod = "close")
+    public WriteBehindWriter writeBehindWriter(PooledDataSource dataSource){
+        return new WriteBehindWriter(dataSource, Integer.getInteger("db.writeBehind.partitions", 2),
+                Integer.getInteger("db.writeBehind.capacity", 10_000), Integer.getInteger("db.writeBehind.batchSize", 500),
+                Long.getLong("db.writeBehind.flushIntervalMs", 50L), Long.getLong("db.writeBehind.enqueueTimeoutMs", 1_000L));
     }
 }
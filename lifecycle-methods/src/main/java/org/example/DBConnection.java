@@ -3,46 +3,148 @@ package org.example;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 
+import javax.sql.DataSource;
 import java.sql.Connection;
-import java.sql.DriverManager;
 import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
+/**
+ * Entry point to the database for application code.
+ *
+ * init() does not wait for the database: it starts a background thread that
+ * checks a pooled connection, retrying with exponential backoff (plus jitter)
+ * up to maxAttempts, so the rest of the context refreshes meanwhile. Only
+ * callers of getConnection() wait for that check, at most readyTimeoutMs.
+ * getStatus()/health() tell how it went.
+ */
 public class DBConnection {
-    private Connection connection;
-    private String url;
-    private String username;
-    private String password;
+    public enum Status { CONNECTING, UP, DOWN }
 
-    public DBConnection(String url, String username, String password) {
-        this.url = url;
-        this.username= username;
-        this.password= password;
+    /** Snapshot for health checks: lastError is null once UP. */
+    public record Health(Status status, int attempts, String lastError) {
+    }
+
+    private final DataSource dataSource;
+    private final long readyTimeoutMs;
+    private final int maxAttempts;
+    private final long initialBackoffMs;
+    private final long maxBackoffMs;
+
+    private final CompletableFuture<Void> ready = new CompletableFuture<>();
+    private volatile Status status = Status.CONNECTING;
+    private volatile int attempts;
+    private volatile SQLException lastError;
+    private Thread connector;
+
+    public DBConnection(DataSource dataSource) {
+        this(dataSource, 10_000, 10, 200, 5_000);
+    }
+
+    public DBConnection(DataSource dataSource, long readyTimeoutMs, int maxAttempts, long initialBackoffMs,
+                        long maxBackoffMs) {
+        this.dataSource = dataSource;
+        this.readyTimeoutMs = readyTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMs = initialBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
     }
 
     @PostConstruct
     public void init(){
-        try{
-            System.out.println("Initializing db connection...");
-            connection= DriverManager.getConnection(url, username, password);
-            System.out.println("Database connection initialized successfully.");
-        } catch (SQLException e) {
-            System.err.println("Error initializing db connection: "+e.getMessage());
-            e.printStackTrace();
-//            throw new RuntimeException(e);
+        System.out.println("Initializing db connection...");
+        connector= new Thread(this::connect, "db-connect");
+        connector.setDaemon(true);
+        connector.start();
+    }
+
+    private void connect(){
+        long backoff= initialBackoffMs;
+        while(true){
+            attempts++;
+            try(Connection connection= dataSource.getConnection()){
+                String product= connection.getMetaData().getDatabaseProductName();
+                status= Status.UP;
+                lastError= null;
+                System.out.println("Database connection initialized successfully: " + product
+                        + " (attempt " + attempts + ")");
+                ready.complete(null);
+                return;
+            } catch (SQLException e) {
+                lastError= e;
+                if(attempts >= maxAttempts){
+                    status= Status.DOWN;
+                    System.err.println("Error initializing db connection, giving up after " + attempts
+                            + " attempts: " + e.getMessage());
+                    ready.completeExceptionally(e);
+                    return;
+                }
+                long sleep= backoff / 2 + ThreadLocalRandom.current().nextLong(backoff / 2 + 1);
+                System.err.println("Error initializing db connection (attempt " + attempts + "), retrying in "
+                        + sleep + " ms: " + e.getMessage());
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException interrupted) {
+                    // context closing
+                    status= Status.DOWN;
+                    ready.completeExceptionally(e);
+                    return;
+                }
+                backoff= Math.min(backoff * 2, maxBackoffMs);
+            }
         }
     }
 
+    /** A pooled connection; closing it returns it to the pool. Waits for the database to be up first. */
+    public Connection getConnection() throws SQLException {
+        awaitReady();
+        return dataSource.getConnection();
+    }
+
+    /** Blocks until the startup check passed, at most readyTimeoutMs. */
+    public void awaitReady() throws SQLException {
+        if (status == Status.UP) return;
+        try {
+            ready.get(readyTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new SQLTransientConnectionException("Database not ready after " + readyTimeoutMs + " ms ("
+                    + attempts + " attempts)", "08001", lastError);
+        } catch (ExecutionException e) {
+            throw new SQLNonTransientConnectionException("Database unavailable: " + e.getCause().getMessage(), "08001",
+                    e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Interrupted while waiting for the database", e);
+        }
+    }
+
+    public boolean isReady() {
+        return status == Status.UP;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Health health() {
+        SQLException error = lastError;
+        return new Health(status, attempts, error != null ? error.getMessage() : null);
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
     @PreDestroy
     public void destroy(){
-        try{
-            if(connection != null && !connection.isClosed()){
-                System.out.println("Closing database connection...");
-                connection.close();
-                System.out.println("Database connection closed successfully.");
-            }
-        } catch (SQLException e) {
-            System.err.println("Error closing database connection: " + e.getMessage());
-            throw new RuntimeException(e);
+        if(connector != null && connector.isAlive()){
+            System.out.println("Stopping database connection attempts...");
+            connector.interrupt();
         }
     }
 }
@@ -1,19 +1,30 @@
 package org.example;
 
+import org.example.context.ParallelRefreshApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
+import java.sql.Connection;
+import java.sql.SQLException;
+
 public class Main {
     public static void main(String[] args) {
         System.out.println("Hello world!");
 
-        // Initialize Spring context
-        var context= new AnnotationConfigApplicationContext(AppConfig.class);
+        // Initialize Spring context (-Drefresh.parallel=true creates independent singletons concurrently)
+        var context= Boolean.getBoolean("refresh.parallel")
+                ? new ParallelRefreshApplicationContext(AppConfig.class)
+                : new AnnotationConfigApplicationContext(AppConfig.class);
 
         // Get DBConnection bean
         DBConnection dbConnection= context.getBean(DBConnection.class);
 
-        // Use DBConnection
-        // ...
+        // Use DBConnection (waits here, not during refresh, until the database is up)
+        try(Connection connection= dbConnection.getConnection()){
+            System.out.println("Connected to " + connection.getMetaData().getURL());
+        } catch (SQLException e) {
+            System.err.println("Database not available: " + e.getMessage());
+        }
+        System.out.println("Database health: " + dbConnection.health());
 
         // Close Spring context
         context.close();
@@ -0,0 +1,123 @@
+package org.example.bench;
+
+import org.example.jdbc.PooledDataSource;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Borrow/return throughput of {@link PooledDataSource} under heavy thread
+ * contention, against the old model of one connection shared under a lock.
+ *
+ * Runs against an in-memory H2 database. Each operation borrows a connection,
+ * does its work and returns it; the pool is sized well below the thread
+ * count so borrowers really compete. Work is nothing (pure borrow/return),
+ * a {@code SELECT 1}, or holding the connection for {@code holdMicros} - an
+ * in-process database has no network round trip, that stands in for one.
+ *
+ * Usage: ConnectionPoolBenchmark [threads=256] [maxSize=32] [seconds=5] [rounds=3] [holdMicros=200]
+ */
+public class ConnectionPoolBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:poolbench;DB_CLOSE_DELAY=-1";
+
+    private enum Work { NONE, QUERY, HOLD }
+
+    interface Op {
+        void run(Work work) throws SQLException;
+    }
+
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : 256;
+        int maxSize = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        long holdNanos = TimeUnit.MICROSECONDS.toNanos(args.length > 4 ? Long.parseLong(args[4]) : 200);
+
+        PooledDataSource pool = new PooledDataSource(URL, "sa", "");
+        pool.setMinIdle(maxSize);
+        pool.setMaxSize(maxSize);
+        pool.start();
+        Connection single = DriverManager.getConnection(URL, "sa", "");
+        ReentrantLock lock = new ReentrantLock();
+
+        Op pooled = work -> {
+            try (Connection connection = pool.getConnection()) {
+                work(connection, work, holdNanos);
+            }
+        };
+        Op shared = work -> {
+            lock.lock();
+            try {
+                work(single, work, holdNanos);
+            } finally {
+                lock.unlock();
+            }
+        };
+
+        System.out.println("threads=" + threads + " maxSize=" + maxSize + " seconds=" + seconds
+                + " cpus=" + Runtime.getRuntime().availableProcessors());
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                for (Work work : Work.values()) {
+                    System.out.printf("round %d %-5s: single connection %,10.0f ops/s | pool %,10.0f ops/s%n",
+                            round, work, measure(shared, work, threads, seconds), measure(pooled, work, threads, seconds));
+                }
+            }
+        } finally {
+            single.close();
+            pool.close();
+            System.out.println(pool.report());
+        }
+    }
+
+    private static void work(Connection connection, Work work, long holdNanos) throws SQLException {
+        if (work == Work.QUERY) {
+            try (PreparedStatement ps = connection.prepareStatement("SELECT 1");
+                 ResultSet rs = ps.executeQuery()) {
+                rs.next();
+            }
+        } else if (work == Work.HOLD) {
+            LockSupport.parkNanos(holdNanos);
+        }
+    }
+
+    private static double measure(Op op, Work work, int threads, int seconds) throws InterruptedException {
+        LongAdder ops = new LongAdder();
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        long[] deadline = new long[1];
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    while (System.nanoTime() < deadline[0]) {
+                        op.run(work);
+                        ops.increment();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                } finally {
+                    done.countDown();
+                }
+            }, "bench-" + t);
+            thread.setDaemon(true);
+            thread.start();
+        }
+        long begin = System.nanoTime();
+        deadline[0] = begin + TimeUnit.SECONDS.toNanos(seconds);
+        start.countDown();
+        done.await();
+        return ops.sum() / ((System.nanoTime() - begin) / 1e9);
+    }
+}
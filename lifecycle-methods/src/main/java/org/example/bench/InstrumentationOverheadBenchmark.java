@@ -0,0 +1,147 @@
+package org.example.bench;
+
+import org.example.jdbc.JdbcMetrics;
+import org.example.jdbc.PooledDataSource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Cost of the {@link JdbcMetrics} statement wrappers per execution.
+ *
+ * Stub: a do-nothing PreparedStatement / ResultSet (so only wrapper cost is
+ * left), used bare and instrumented. One execution is setInt + executeUpdate,
+ * or setInt + executeQuery + next + getInt + next + close for a query; the
+ * difference per execution is the overhead.
+ * H2: the same query against an in-memory table on one borrowed connection,
+ * pool without and with metrics, both with the statement cache.
+ *
+ * Usage: InstrumentationOverheadBenchmark [ops=2000000] [rounds=5]
+ */
+public class InstrumentationOverheadBenchmark {
+
+    private static final String QUERY = "SELECT id, name FROM item WHERE id = ?";
+    private static final String UPDATE = "UPDATE item SET name = name WHERE id = ?";
+
+    public static void main(String[] args) throws SQLException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        JdbcMetrics metrics = new JdbcMetrics(1_000, 16, 100);
+        PreparedStatement bareUpdate = stub();
+        PreparedStatement bareQuery = stub();
+        PreparedStatement instrumentedUpdate = metrics.instrument(stub(), null, UPDATE);
+        PreparedStatement instrumentedQuery = metrics.instrument(stub(), null, QUERY);
+
+        try (PooledDataSource plain = pool(null); PooledDataSource measured = pool(new JdbcMetrics(1_000, 16, 100))) {
+            try (Connection connection = plain.getConnection(); Statement ddl = connection.createStatement()) {
+                ddl.execute("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(64))");
+                ddl.execute("INSERT INTO item SELECT x, 'item ' || x FROM SYSTEM_RANGE(1, 1000)");
+            }
+            for (int round = 1; round <= rounds; round++) {
+                double update = update(instrumentedUpdate, ops) - update(bareUpdate, ops);
+                double query = query(instrumentedQuery, ops) - query(bareQuery, ops);
+                double h2Plain = h2(plain, ops / 10);
+                double h2Measured = h2(measured, ops / 10);
+                System.out.printf("round %d: stub overhead update %.0f ns/exec, query %.0f ns/exec"
+                                + " | H2 query %.0f ns plain, %.0f ns instrumented (+%.0f ns)%n",
+                        round, update, query, h2Plain, h2Measured, h2Measured - h2Plain);
+            }
+            System.out.println(measured.getMetrics().report());
+        }
+    }
+
+    private static double update(PreparedStatement ps, int ops) throws SQLException {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            ps.setInt(1, i);
+            sink += ps.executeUpdate();
+        }
+        return done(sink, start, ops);
+    }
+
+    private static double query(PreparedStatement ps, int ops) throws SQLException {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            ps.setInt(1, i);
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) sink += rs.getInt(1);
+            }
+        }
+        return done(sink, start, ops);
+    }
+
+    private static double h2(PooledDataSource pool, int ops) throws SQLException {
+        long sink = 0;
+        long start;
+        try (Connection connection = pool.getConnection()) {
+            start = System.nanoTime();
+            for (int i = 0; i < ops; i++) {
+                try (PreparedStatement ps = connection.prepareStatement(QUERY)) {
+                    ps.setInt(1, 1 + i % 1000);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        while (rs.next()) sink += rs.getInt(1);
+                    }
+                }
+            }
+        }
+        return done(sink, start, ops);
+    }
+
+    private static double done(long sink, long start, int ops) {
+        double nanos = (double) (System.nanoTime() - start) / ops;
+        if (sink == 42) System.out.print("");
+        return nanos;
+    }
+
+    private static PooledDataSource pool(JdbcMetrics metrics) {
+        PooledDataSource pool = new PooledDataSource("jdbc:h2:mem:instrumentbench;DB_CLOSE_DELAY=-1", "sa", "");
+        pool.setMinIdle(1);
+        pool.setMaxSize(2);
+        pool.setStatementCacheSize(16);
+        if (metrics != null) pool.setMetrics(metrics);
+        pool.start();
+        return pool;
+    }
+
+    /** A PreparedStatement whose queries return one row and whose updates report one row. */
+    private static PreparedStatement stub() {
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class}, new Stub(null));
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, new Stub(rs));
+    }
+
+    private static final class Stub implements InvocationHandler {
+        private final ResultSet resultSet;
+        private boolean row;
+
+        Stub(ResultSet resultSet) {
+            this.resultSet = resultSet;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+            switch (method.getName()) {
+                case "executeQuery":
+                    return resultSet;
+                case "executeUpdate":
+                case "getInt":
+                    return 1;
+                case "next":
+                    row = !row;
+                    return row;
+                default:
+                    return method.getReturnType() == boolean.class ? Boolean.FALSE : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package org.example.bench;
+
+import org.example.context.ParallelRefreshApplicationContext;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.ManagedList;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Refresh and close time of a synthetic context, stock vs parallel.
+ *
+ * Every bean sleeps in its init and destroy methods (a stand-in for a connect
+ * or a warm-up call, and for closing it) and takes up to {@code maxDeps}
+ * earlier beans as constructor arguments, so the parallel refresh and
+ * shutdown have a real graph to respect; every twentieth bean also gets a
+ * depends-on. Init and destroy order are checked after each run.
+ *
+ * Usage: ParallelRefreshBenchmark [beans=2000] [initMillis=2] [maxDeps=3] [rounds=3]
+ */
+public class ParallelRefreshBenchmark {
+
+    public static void main(String[] args) {
+        int beans = args.length > 0 ? Integer.parseInt(args[0]) : 2_000;
+        long initMillis = args.length > 1 ? Long.parseLong(args[1]) : 2;
+        int maxDeps = args.length > 2 ? Integer.parseInt(args[2]) : 3;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+
+        System.out.println("beans=" + beans + " initMillis=" + initMillis + " maxDeps=" + maxDeps
+                + " parallelism=" + ParallelRefreshApplicationContext.DEFAULT_PARALLELISM);
+        for (int round = 1; round <= rounds; round++) {
+            long[] sequential = run(new AnnotationConfigApplicationContext(), beans, initMillis, maxDeps);
+            long[] parallel = run(new ParallelRefreshApplicationContext(), beans, initMillis, maxDeps);
+            System.out.printf("round %d: refresh stock %d ms, parallel %d ms, speedup %.1fx"
+                            + " | close stock %d ms, parallel %d ms, speedup %.1fx%n",
+                    round, sequential[0], parallel[0], (double) sequential[0] / Math.max(1, parallel[0]),
+                    sequential[1], parallel[1], (double) sequential[1] / Math.max(1, parallel[1]));
+        }
+    }
+
+    /** Refresh and close time in ms. */
+    private static long[] run(AnnotationConfigApplicationContext ctx, int beans, long initMillis, int maxDeps) {
+        SlowInitBean.initialized.set(0);
+        SlowInitBean.destroyed.set(0);
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < beans; i++) {
+            GenericBeanDefinition bd = new GenericBeanDefinition();
+            bd.setBeanClass(SlowInitBean.class);
+            bd.setInitMethodName("init");
+            bd.setDestroyMethodName("destroy");
+            ManagedList<RuntimeBeanReference> deps = new ManagedList<>();
+            int count = i == 0 ? 0 : random.nextInt(maxDeps + 1);
+            for (int d = 0; d < count; d++) {
+                deps.add(new RuntimeBeanReference(name(random.nextInt(i))));
+            }
+            bd.getConstructorArgumentValues().addIndexedArgumentValue(0, name(i));
+            bd.getConstructorArgumentValues().addIndexedArgumentValue(1, initMillis);
+            bd.getConstructorArgumentValues().addIndexedArgumentValue(2, deps);
+            if (i % 20 == 19) {
+                bd.setDependsOn(name(i - 19));
+            }
+            ctx.registerBeanDefinition(name(i), bd);
+        }
+
+        long start = System.nanoTime();
+        ctx.refresh();
+        long refreshMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        for (int i = 0; i < beans; i++) {
+            SlowInitBean bean = ctx.getBean(name(i), SlowInitBean.class);
+            for (SlowInitBean dep : bean.deps) {
+                if (dep.initOrder < 0 || dep.initOrder > bean.initOrder) {
+                    throw new IllegalStateException(bean.name + " initialized before its dependency " + dep.name);
+                }
+            }
+            if (i % 20 == 19) {
+                SlowInitBean dependsOn = ctx.getBean(name(i - 19), SlowInitBean.class);
+                if (dependsOn.initOrder > bean.initOrder) {
+                    throw new IllegalStateException(bean.name + " initialized before depends-on " + dependsOn.name);
+                }
+            }
+        }
+        List<SlowInitBean> all = new ArrayList<>(beans);
+        for (int i = 0; i < beans; i++) {
+            all.add(ctx.getBean(name(i), SlowInitBean.class));
+        }
+        start = System.nanoTime();
+        ctx.close();
+        long closeMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        for (int i = 0; i < beans; i++) {
+            SlowInitBean bean = all.get(i);
+            for (SlowInitBean dep : bean.deps) {
+                if (bean.destroyOrder < 0 || dep.destroyOrder < bean.destroyOrder) {
+                    throw new IllegalStateException(dep.name + " destroyed before its dependent " + bean.name);
+                }
+            }
+            if (i % 20 == 19 && all.get(i - 19).destroyOrder < bean.destroyOrder) {
+                throw new IllegalStateException(all.get(i - 19).name + " destroyed before its depends-on user " + bean.name);
+            }
+        }
+        return new long[] {refreshMs, closeMs};
+    }
+
+    private static String name(int i) {
+        return "bean" + i;
+    }
+
+    public static class SlowInitBean {
+        static final AtomicInteger initialized = new AtomicInteger();
+        static final AtomicInteger destroyed = new AtomicInteger();
+
+        final String name;
+        final long initMillis;
+        final List<SlowInitBean> deps;
+        volatile int initOrder = -1;
+        volatile int destroyOrder = -1;
+
+        public SlowInitBean(String name, long initMillis, List<SlowInitBean> deps) {
+            this.name = name;
+            this.initMillis = initMillis;
+            this.deps = deps;
+        }
+
+        public void init() throws InterruptedException {
+            Thread.sleep(initMillis);
+            initOrder = initialized.getAndIncrement();
+        }
+
+        public void destroy() throws InterruptedException {
+            Thread.sleep(initMillis);
+            destroyOrder = destroyed.getAndIncrement();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package org.example.bench;
+
+import org.example.jdbc.PooledDataSource;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Short-query latency with and without the per-connection statement cache.
+ *
+ * In-memory H2 with a 1000-row table. Each operation borrows a connection,
+ * prepares one of {@code distinct} point queries (distinct SQL text), binds
+ * the id, reads the row and closes everything - the pattern of code that
+ * prepares on every call. The H2 URL turns off H2's own per-session query
+ * cache, so a miss really parses, as a server-side database would.
+ *
+ * Usage: StatementCacheBenchmark [ops=200000] [distinct=16] [cacheSize=64] [rounds=5]
+ */
+public class StatementCacheBenchmark {
+
+    private static final String URL = "jdbc:h2:mem:stmtbench;DB_CLOSE_DELAY=-1;QUERY_CACHE_SIZE=0";
+    private static final int ROWS = 1_000;
+
+    public static void main(String[] args) throws SQLException {
+        int ops = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int distinct = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int cacheSize = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 5;
+
+        String[] queries = new String[distinct];
+        for (int i = 0; i < distinct; i++) {
+            // same plan, different text: what a repository with a few finder methods looks like
+            queries[i] = "SELECT id, name, price FROM item WHERE id = ? AND " + i + " = " + i;
+        }
+        try (PooledDataSource plain = pool(0); PooledDataSource cached = pool(cacheSize)) {
+            try (Connection connection = plain.getConnection(); Statement ddl = connection.createStatement()) {
+                ddl.execute("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(64), price DECIMAL(10, 2))");
+                ddl.execute("INSERT INTO item SELECT x, 'item ' || x, x / 10.0 FROM SYSTEM_RANGE(1, " + ROWS + ")");
+            }
+            System.out.println("ops=" + ops + " distinct=" + distinct + " cacheSize=" + cacheSize);
+            for (int round = 1; round <= rounds; round++) {
+                System.out.printf("round %d: prepare every call %.2f us/op | statement cache %.2f us/op%n",
+                        round, measure(plain, queries, ops), measure(cached, queries, ops));
+            }
+            System.out.println("cached pool: " + cached.report());
+        }
+    }
+
+    private static PooledDataSource pool(int statementCacheSize) {
+        PooledDataSource pool = new PooledDataSource(URL, "sa", "");
+        pool.setMinIdle(1);
+        pool.setMaxSize(1);
+        pool.setStatementCacheSize(statementCacheSize);
+        pool.start();
+        return pool;
+    }
+
+    private static double measure(PooledDataSource pool, String[] queries, int ops) throws SQLException {
+        long sink = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < ops; i++) {
+            try (Connection connection = pool.getConnection();
+                 PreparedStatement ps = connection.prepareStatement(queries[i % queries.length])) {
+                ps.setInt(1, 1 + i % ROWS);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next()) sink += rs.getInt(1);
+                }
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+        if (sink == 42) System.out.print("");
+        return elapsed / 1e3 / ops;
+    }
+}
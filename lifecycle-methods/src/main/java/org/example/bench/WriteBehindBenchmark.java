@@ -0,0 +1,138 @@
+package org.example.bench;
+
+import org.example.jdbc.PooledDataSource;
+import org.example.jdbc.WriteBehindWriter;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Row throughput of single-statement writes vs {@link WriteBehindWriter}.
+ *
+ * Each row is an insert followed by an update of the same row (so per-key
+ * ordering matters), written by {@code writers} threads. Single-statement
+ * mode borrows a connection and runs each statement in auto-commit; write-behind
+ * mode submits both and waits for all futures at the end. The table is
+ * recreated for every run and checked afterwards.
+ *
+ * Usage: WriteBehindBenchmark [rows=100000] [writers=8] [batchSize=500] [rounds=3] [url=in-memory H2]
+ */
+public class WriteBehindBenchmark {
+
+    private static final String INSERT = "INSERT INTO account_event (id, account, amount) VALUES (?, ?, ?)";
+    private static final String UPDATE = "UPDATE account_event SET amount = amount + ? WHERE id = ?";
+
+    public static void main(String[] args) throws Exception {
+        int rows = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int writers = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int batchSize = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+        int rounds = args.length > 3 ? Integer.parseInt(args[3]) : 3;
+        String url = args.length > 4 ? args[4] : "jdbc:h2:mem:writebench;DB_CLOSE_DELAY=-1";
+
+        PooledDataSource pool = new PooledDataSource(url, "sa", "");
+        pool.setMinIdle(writers);
+        pool.setMaxSize(writers + 4);
+        pool.setStatementCacheSize(16);
+        pool.start();
+        System.out.println("rows=" + rows + " writers=" + writers + " batchSize=" + batchSize + " url=" + url);
+        try {
+            for (int round = 1; round <= rounds; round++) {
+                double single = singleStatements(pool, rows, writers);
+                verify(pool, rows);
+                double behind = writeBehind(pool, rows, writers, batchSize);
+                verify(pool, rows);
+                System.out.printf("round %d: single statements %,.0f rows/s | write-behind %,.0f rows/s (%.1fx)%n",
+                        round, single, behind, behind / single);
+            }
+        } finally {
+            pool.close();
+        }
+    }
+
+    private static double singleStatements(PooledDataSource pool, int rows, int writers) throws Exception {
+        recreate(pool);
+        return timed(rows, writers, (id, account) -> {
+            try (Connection connection = pool.getConnection()) {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT)) {
+                    insert.setLong(1, id);
+                    insert.setInt(2, account);
+                    insert.setInt(3, 1);
+                    insert.executeUpdate();
+                }
+                try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                    update.setInt(1, 1);
+                    update.setLong(2, id);
+                    update.executeUpdate();
+                }
+            }
+            return null;
+        });
+    }
+
+    private static double writeBehind(PooledDataSource pool, int rows, int writers, int batchSize) throws Exception {
+        recreate(pool);
+        try (WriteBehindWriter writer = new WriteBehindWriter(pool, writers, 20_000, batchSize, 20, 10_000)) {
+            return timed(rows, writers, (id, account) -> {
+                writer.submit(INSERT, id, id, account, 1);
+                return writer.submit(UPDATE, id, 1, id);
+            });
+        }
+    }
+
+    interface RowWriter {
+        CompletableFuture<Integer> write(long id, int account) throws SQLException;
+    }
+
+    /** Rows per second, including waiting for every write-behind future. */
+    private static double timed(int rows, int writers, RowWriter rowWriter) throws Exception {
+        List<CompletableFuture<Integer>> pending = Collections.synchronizedList(new ArrayList<>());
+        Thread[] threads = new Thread[writers];
+        long start = System.nanoTime();
+        for (int w = 0; w < writers; w++) {
+            int writer = w;
+            threads[w] = new Thread(() -> {
+                List<CompletableFuture<Integer>> mine = new ArrayList<>();
+                try {
+                    for (long id = writer; id < rows; id += writers) {
+                        CompletableFuture<Integer> done = rowWriter.write(id, (int) (id % 100));
+                        if (done != null) mine.add(done);
+                    }
+                } catch (SQLException e) {
+                    throw new IllegalStateException(e);
+                }
+                pending.addAll(mine);
+            });
+            threads[w].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+        return rows / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /** Every row inserted and then updated once, in that order. */
+    private static void verify(PooledDataSource pool, int rows) throws SQLException {
+        try (Connection connection = pool.getConnection(); Statement query = connection.createStatement();
+             ResultSet rs = query.executeQuery("SELECT COUNT(*) FROM account_event WHERE amount = 2")) {
+            rs.next();
+            if (rs.getInt(1) != rows) {
+                throw new IllegalStateException("expected " + rows + " rows with amount 2, found " + rs.getInt(1));
+            }
+        }
+    }
+
+    private static void recreate(PooledDataSource pool) throws SQLException {
+        try (Connection connection = pool.getConnection(); Statement ddl = connection.createStatement()) {
+            ddl.execute("DROP TABLE IF EXISTS account_event");
+            ddl.execute("CREATE TABLE account_event (id BIGINT PRIMARY KEY, account INT, amount INT)");
+        }
+    }
+}
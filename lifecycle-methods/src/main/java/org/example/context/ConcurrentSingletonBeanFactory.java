@@ -0,0 +1,365 @@
+package org.example.context;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCreationException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * Bean factory that creates independent non-lazy singletons concurrently.
+ *
+ * Stock {@code getSingleton} holds one factory-wide lock for the whole creation
+ * of a bean, init methods included, so calling {@code getBean} from several
+ * threads would still run one bean at a time. While the concurrent phase runs
+ * this factory locks per bean instead: a thread that needs a bean another
+ * thread is building waits for that bean, and early (half-initialised)
+ * references are only handed out to the thread doing the creating, so
+ * circular references still resolve the usual way within one thread. A cycle
+ * across threads (A's init on one thread needs B while B's, on another, needs
+ * A) is found by following who holds and who waits for which bean, and fails
+ * at once with the cycle; the lock timeout only catches waits this cannot
+ * see, such as on a task another thread runs.
+ *
+ * Post-processors are already instantiated by then and are applied as usual.
+ * Whatever the graph leaves over (cycles) and the {@code SmartInitializingSingleton}
+ * callbacks are handled by the stock pre-instantiation afterwards, in definition
+ * order. The first failure stops scheduling; running creations are allowed to
+ * finish and the original exception is rethrown, so refresh destroys what
+ * was created and fails as it normally would.
+ *
+ * Shutdown mirrors this: {@code destroySingletons} destroys a singleton as soon
+ * as every bean depending on it is gone, independent ones in parallel, so a
+ * slow destroy method (closing a connection) only delays its own dependencies.
+ * Past the destroy timeout the remaining beans are destroyed the stock, serial
+ * way; a destroy callback that is still hanging is left to its daemon thread.
+ * Per-bean destroy times are logged, the ten slowest first.
+ */
+public class ConcurrentSingletonBeanFactory extends DefaultListableBeanFactory {
+    private static final Logger logger = Logger.getLogger(ConcurrentSingletonBeanFactory.class.getName());
+
+    private static final int SLOWEST_REPORTED = 10;
+    /** How often a waiting thread looks for a cycle again. */
+    private static final long CYCLE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final int parallelism;
+    private final long lockTimeoutMillis;
+    private final long destroyTimeoutMillis;
+
+    private final ConcurrentHashMap<String, ReentrantLock> creationLocks = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Thread> creatingThreads = new ConcurrentHashMap<>();
+    /** Bean name -> thread holding its creation lock. */
+    private final ConcurrentHashMap<String, Thread> lockHolders = new ConcurrentHashMap<>();
+    /** Thread -> bean whose creation lock it is waiting for. */
+    private final ConcurrentHashMap<Thread, String> waitingFor = new ConcurrentHashMap<>();
+    private volatile boolean concurrentPhase;
+
+    public ConcurrentSingletonBeanFactory(int parallelism, long lockTimeoutMillis) {
+        this(parallelism, lockTimeoutMillis, Long.MAX_VALUE);
+    }
+
+    public ConcurrentSingletonBeanFactory(int parallelism, long lockTimeoutMillis, long destroyTimeoutMillis) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be >= 1: " + parallelism);
+        }
+        this.parallelism = parallelism;
+        this.lockTimeoutMillis = lockTimeoutMillis;
+        this.destroyTimeoutMillis = destroyTimeoutMillis;
+    }
+
+    @Override
+    public void preInstantiateSingletons() throws BeansException {
+        SingletonDependencyGraph graph = SingletonDependencyGraph.build(this);
+        long start = System.nanoTime();
+        int created = createConcurrently(graph);
+        logger.info("[ParallelRefresh] created " + created + "/" + graph.nodes().size() + " singletons ("
+                + graph.edgeCount() + " edges) on " + parallelism + " threads in "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + " ms");
+        super.preInstantiateSingletons();
+    }
+
+    private int createConcurrently(SingletonDependencyGraph graph) {
+        Map<String, List<String>> dependents = graph.dependents();
+        Map<String, AtomicInteger> waitingOn = new HashMap<>();
+        List<String> ready = new ArrayList<>();
+        for (String name : graph.nodes()) {
+            int deps = graph.dependenciesOf(name).size();
+            waitingOn.put(name, new AtomicInteger(deps));
+            if (deps == 0) ready.add(name);
+        }
+        if (ready.isEmpty()) return 0;
+
+        Scheduler scheduler = new Scheduler("creation", "bean-init-", dependents, waitingOn, this::getBean);
+        concurrentPhase = true;
+        try {
+            ready.forEach(scheduler::submit);
+            scheduler.await(Long.MAX_VALUE);
+        } finally {
+            concurrentPhase = false;
+            scheduler.shutdown();
+            creationLocks.clear();
+        }
+        if (scheduler.failure != null) {
+            throw scheduler.failure;
+        }
+        return scheduler.completed.get();
+    }
+
+    @Override
+    public void destroySingletons() {
+        String[] names = getSingletonNames();
+        if (names.length > 1) {
+            destroyConcurrently(names);
+        }
+        super.destroySingletons();
+    }
+
+    private void destroyConcurrently(String[] names) {
+        // a singleton may go once everything depending on it is gone
+        Set<String> alive = new HashSet<>(Arrays.asList(names));
+        Map<String, List<String>> dependencies = new HashMap<>();
+        Map<String, AtomicInteger> waitingOn = new HashMap<>();
+        List<String> ready = new ArrayList<>();
+        for (String name : names) {
+            dependencies.put(name, Arrays.stream(getDependenciesForBean(name)).filter(alive::contains).toList());
+            long dependents = Arrays.stream(getDependentBeans(name)).filter(alive::contains).count();
+            waitingOn.put(name, new AtomicInteger((int) dependents));
+            if (dependents == 0) ready.add(name);
+        }
+
+        Map<String, Long> destroyNanos = new ConcurrentHashMap<>();
+        Scheduler scheduler = new Scheduler("destruction", "bean-destroy-", dependencies, waitingOn, name -> {
+            long start = System.nanoTime();
+            destroySingleton(name);
+            destroyNanos.put(name, System.nanoTime() - start);
+        });
+        long start = System.nanoTime();
+        boolean drained;
+        try {
+            ready.forEach(scheduler::submit);
+            drained = scheduler.await(destroyTimeoutMillis == Long.MAX_VALUE
+                    ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(destroyTimeoutMillis));
+        } finally {
+            scheduler.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+        long serial = destroyNanos.values().stream().mapToLong(Long::longValue).sum();
+        String slowest = destroyNanos.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(SLOWEST_REPORTED)
+                .map(e -> e.getKey() + "=" + String.format("%.2f", e.getValue() / 1e6) + "ms")
+                .collect(Collectors.joining(", "));
+        logger.info("[ParallelShutdown] destroyed " + destroyNanos.size() + "/" + names.length + " singletons on "
+                + parallelism + " threads in " + TimeUnit.NANOSECONDS.toMillis(elapsed) + " ms (serial sum "
+                + TimeUnit.NANOSECONDS.toMillis(serial) + " ms), slowest: " + slowest);
+        if (!drained) {
+            logger.warning("[ParallelShutdown] destroy timeout of " + destroyTimeoutMillis
+                    + " ms passed; destroying the rest serially");
+        }
+        if (scheduler.failure != null) {
+            logger.warning("[ParallelShutdown] " + scheduler.failure.getMessage());
+        }
+    }
+
+    /**
+     * Kahn's algorithm driven by completions: a bean is submitted once the last
+     * bean it waits for is done ({@code next} lists who waits for whom).
+     */
+    private final class Scheduler {
+        final String phase;
+        final Map<String, List<String>> next;
+        final Map<String, AtomicInteger> waitingOn;
+        final Consumer<String> action;
+        final AtomicInteger completed = new AtomicInteger();
+        final ExecutorService pool;
+        int inFlight;
+        volatile BeansException failure;
+
+        Scheduler(String phase, String threadPrefix, Map<String, List<String>> next,
+                  Map<String, AtomicInteger> waitingOn, Consumer<String> action) {
+            this.phase = phase;
+            this.next = next;
+            this.waitingOn = waitingOn;
+            this.action = action;
+            AtomicInteger threads = new AtomicInteger();
+            this.pool = new ThreadPoolExecutor(parallelism, parallelism,
+                    0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), r -> {
+                Thread t = new Thread(r, threadPrefix + threads.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+
+        synchronized void submit(String name) {
+            if (failure != null) return;
+            inFlight++;
+            pool.execute(() -> run(name));
+        }
+
+        private void run(String name) {
+            try {
+                action.accept(name);
+                completed.incrementAndGet();
+                for (String waiting : next.getOrDefault(name, List.of())) {
+                    if (waitingOn.get(waiting).decrementAndGet() == 0) submit(waiting);
+                }
+            } catch (BeansException e) {
+                synchronized (this) {
+                    if (failure == null) failure = e;
+                }
+            } catch (RuntimeException | Error e) {
+                synchronized (this) {
+                    if (failure == null) failure = new BeanCreationException(name, "Concurrent " + phase + " failed", e);
+                }
+            } finally {
+                synchronized (this) {
+                    inFlight--;
+                    notifyAll();
+                }
+            }
+        }
+
+        /** Waits until nothing is in flight or the timeout passes; true if everything finished. */
+        synchronized boolean await(long timeoutNanos) {
+            long deadline = System.nanoTime() + timeoutNanos;
+            boolean interrupted = false;
+            while (inFlight > 0) {
+                try {
+                    if (timeoutNanos == Long.MAX_VALUE) {
+                        wait();
+                    } else {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) break;
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) Thread.currentThread().interrupt();
+            return inFlight == 0;
+        }
+
+        void shutdown() {
+            pool.shutdownNow();
+        }
+    }
+
+    @Override
+    public Object getSingleton(String beanName, ObjectFactory<?> singletonFactory) {
+        if (!concurrentPhase) {
+            return super.getSingleton(beanName, singletonFactory);
+        }
+        ReentrantLock lock = creationLocks.computeIfAbsent(beanName, k -> new ReentrantLock());
+        acquire(lock, beanName);
+        try {
+            if (containsSingleton(beanName)) {
+                return super.getSingleton(beanName, false);
+            }
+            beforeSingletonCreation(beanName);
+            creatingThreads.put(beanName, Thread.currentThread());
+            Object singleton;
+            try {
+                singleton = singletonFactory.getObject();
+            } finally {
+                creatingThreads.remove(beanName);
+                afterSingletonCreation(beanName);
+            }
+            addSingleton(beanName, singleton);
+            return singleton;
+        } finally {
+            if (lock.getHoldCount() == 1) lockHolders.remove(beanName);
+            lock.unlock();
+        }
+    }
+
+    // Only the creating thread may see the early reference; anyone else waits on the bean's lock.
+    @Override
+    protected Object getSingleton(String beanName, boolean allowEarlyReference) {
+        if (concurrentPhase && allowEarlyReference) {
+            Thread owner = creatingThreads.get(beanName);
+            if (owner != null && owner != Thread.currentThread()) {
+                return null;
+            }
+        }
+        return super.getSingleton(beanName, allowEarlyReference);
+    }
+
+    private void acquire(ReentrantLock lock, String beanName) {
+        Thread current = Thread.currentThread();
+        if (lock.tryLock()) {
+            lockHolders.put(beanName, current);
+            return;
+        }
+        waitingFor.put(current, beanName);
+        try {
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lockTimeoutMillis);
+            while (true) {
+                String cycle = findCycle(current, beanName);
+                // a thread that just moved on can make a stale chain look closed: only a second look counts
+                if (cycle != null && !lock.tryLock() && (cycle = findCycle(current, beanName)) != null) {
+                    throw new BeanCurrentlyInCreationException(beanName,
+                            "Dependency cycle across creation threads: " + cycle);
+                }
+                if (lock.isHeldByCurrentThread()) break;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    Thread owner = creatingThreads.get(beanName);
+                    throw new BeanCurrentlyInCreationException(beanName, "Waited " + lockTimeoutMillis
+                            + " ms for " + (owner != null ? owner.getName() : "another thread") + " to create it");
+                }
+                if (lock.tryLock(Math.min(remaining, CYCLE_CHECK_NANOS), TimeUnit.NANOSECONDS)) break;
+            }
+            lockHolders.put(beanName, current);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BeanCreationException(beanName, "Interrupted while waiting for concurrent creation");
+        } finally {
+            waitingFor.remove(current);
+        }
+    }
+
+    /**
+     * Follows holder -> awaited bean -> holder from {@code beanName}; the
+     * chain as text if it leads back to {@code start}, else null.
+     */
+    private String findCycle(Thread start, String beanName) {
+        StringBuilder chain = new StringBuilder();
+        Set<Thread> seen = new HashSet<>();
+        Thread waiter = start;
+        String wanted = beanName;
+        while (true) {
+            Thread holder = lockHolders.get(wanted);
+            if (holder == null || !seen.add(holder)) return null;
+            if (chain.length() > 0) chain.append(", ");
+            chain.append(waiter.getName()).append(" waits for '").append(wanted).append("' held by ").append(holder.getName());
+            if (holder == start) return chain.toString();
+            wanted = waitingFor.get(holder);
+            if (wanted == null) return null;
+            waiter = holder;
+        }
+    }
+
+    RootBeanDefinition mergedDefinition(String beanName) {
+        return getMergedLocalBeanDefinition(beanName);
+    }
+}
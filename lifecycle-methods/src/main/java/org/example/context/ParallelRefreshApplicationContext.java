@@ -0,0 +1,38 @@
+package org.example.context;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+/**
+ * Annotation config context whose refresh creates independent singletons
+ * concurrently; see {@link ConcurrentSingletonBeanFactory}.
+ *
+ * Threads: -Drefresh.parallelism (default 4 per core, since init methods
+ * mostly wait on I/O). A bean blocked for longer than -Drefresh.lockTimeoutMs
+ * (default 30000) behind another thread fails the refresh instead of hanging;
+ * a creation cycle across threads fails it at once.
+ * On close, singletons are destroyed in parallel in reverse dependency order;
+ * after -Dshutdown.destroyTimeoutMs (default 30000) the rest go serially.
+ */
+public class ParallelRefreshApplicationContext extends AnnotationConfigApplicationContext {
+
+    public static final int DEFAULT_PARALLELISM =
+            Integer.getInteger("refresh.parallelism", Math.max(4, Runtime.getRuntime().availableProcessors() * 4));
+    public static final long DEFAULT_LOCK_TIMEOUT_MS = Long.getLong("refresh.lockTimeoutMs", 30_000L);
+    public static final long DEFAULT_DESTROY_TIMEOUT_MS = Long.getLong("shutdown.destroyTimeoutMs", 30_000L);
+
+    /** Not refreshed yet: register definitions, then call {@link #refresh()}. */
+    public ParallelRefreshApplicationContext() {
+        this(new ConcurrentSingletonBeanFactory(DEFAULT_PARALLELISM, DEFAULT_LOCK_TIMEOUT_MS, DEFAULT_DESTROY_TIMEOUT_MS));
+    }
+
+    /** Not refreshed yet: register definitions, then call {@link #refresh()}. */
+    public ParallelRefreshApplicationContext(ConcurrentSingletonBeanFactory beanFactory) {
+        super(beanFactory);
+    }
+
+    public ParallelRefreshApplicationContext(Class<?>... componentClasses) {
+        this();
+        register(componentClasses);
+        refresh();
+    }
+}
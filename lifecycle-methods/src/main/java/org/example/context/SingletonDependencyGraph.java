@@ -0,0 +1,238 @@
+package org.example.context;
+
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanDefinitionHolder;
+import org.springframework.beans.factory.config.ConstructorArgumentValues;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.PropertyValue;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Creation-order graph of the non-lazy singletons still to be created, read
+ * from bean definitions only (nothing is instantiated while building it).
+ *
+ * An edge A -> B means B must exist before A is created. Edges come from
+ * depends-on, the factory bean, explicit bean references in constructor
+ * arguments and properties, and the types of injection points: constructor
+ * and {@code @Bean} method parameters, {@code @Autowired} / {@code @Resource}
+ * fields and methods. Lazy injection points ({@code @Lazy}, {@code ObjectProvider})
+ * add no edge.
+ *
+ * A full {@code @Configuration} class can call its own {@code @Bean} methods, and
+ * those calls are invisible here, so the beans of one such class are chained
+ * in definition order and never created concurrently with each other.
+ */
+final class SingletonDependencyGraph {
+
+    private static final String CONFIGURATION_CLASS_ATTRIBUTE =
+            "org.springframework.context.annotation.ConfigurationClassPostProcessor.configurationClass";
+
+    private static final String RESOURCE_ANNOTATION = "jakarta.annotation.Resource";
+
+    /** Node name -> names it depends on, restricted to other nodes. */
+    private final Map<String, Set<String>> dependencies = new LinkedHashMap<>();
+
+    private SingletonDependencyGraph() {
+    }
+
+    static SingletonDependencyGraph build(ConcurrentSingletonBeanFactory factory) {
+        SingletonDependencyGraph graph = new SingletonDependencyGraph();
+        for (String name : factory.getBeanDefinitionNames()) {
+            RootBeanDefinition bd = factory.mergedDefinition(name);
+            if (bd.isAbstract() || !bd.isSingleton() || bd.isLazyInit()
+                    || factory.containsSingleton(name) || factory.isFactoryBean(name)) {
+                continue;
+            }
+            graph.dependencies.put(name, new LinkedHashSet<>());
+        }
+
+        Map<String, String> lastOfConfiguration = new HashMap<>();
+        for (Map.Entry<String, Set<String>> node : graph.dependencies.entrySet()) {
+            String name = node.getKey();
+            RootBeanDefinition bd = factory.mergedDefinition(name);
+            Set<String> raw = new LinkedHashSet<>();
+            collectDeclared(bd, raw);
+            collectInjectionPoints(factory, name, bd, raw);
+
+            String factoryBean = bd.getFactoryBeanName();
+            if (factoryBean != null && isFullConfiguration(factory, factoryBean)) {
+                String previous = lastOfConfiguration.put(factoryBean, name);
+                if (previous != null) raw.add(previous);
+            }
+
+            for (String dep : raw) {
+                String canonical = factory.canonicalName(dep);
+                if (!canonical.equals(name) && graph.dependencies.containsKey(canonical)) {
+                    node.getValue().add(canonical);
+                }
+            }
+        }
+        return graph;
+    }
+
+    Set<String> nodes() {
+        return dependencies.keySet();
+    }
+
+    Set<String> dependenciesOf(String name) {
+        return dependencies.get(name);
+    }
+
+    /** Reverse edges: name -> nodes waiting for it. */
+    Map<String, List<String>> dependents() {
+        Map<String, List<String>> out = new HashMap<>();
+        dependencies.forEach((name, deps) -> {
+            for (String dep : deps) {
+                out.computeIfAbsent(dep, k -> new ArrayList<>()).add(name);
+            }
+        });
+        return out;
+    }
+
+    int edgeCount() {
+        int edges = 0;
+        for (Set<String> deps : dependencies.values()) edges += deps.size();
+        return edges;
+    }
+
+    private static void collectDeclared(BeanDefinition bd, Set<String> out) {
+        String[] dependsOn = bd.getDependsOn();
+        if (dependsOn != null) out.addAll(List.of(dependsOn));
+        if (bd.getFactoryBeanName() != null) out.add(bd.getFactoryBeanName());
+
+        ConstructorArgumentValues args = bd.getConstructorArgumentValues();
+        for (ConstructorArgumentValues.ValueHolder holder : args.getIndexedArgumentValues().values()) {
+            collectReferences(holder.getValue(), out);
+        }
+        for (ConstructorArgumentValues.ValueHolder holder : args.getGenericArgumentValues()) {
+            collectReferences(holder.getValue(), out);
+        }
+        for (PropertyValue pv : bd.getPropertyValues().getPropertyValueList()) {
+            collectReferences(pv.getValue(), out);
+        }
+    }
+
+    private static void collectReferences(Object value, Set<String> out) {
+        if (value instanceof RuntimeBeanReference ref) {
+            out.add(ref.getBeanName());
+        } else if (value instanceof BeanDefinitionHolder holder) {
+            collectDeclared(holder.getBeanDefinition(), out);
+        } else if (value instanceof BeanDefinition inner) {
+            collectDeclared(inner, out);
+        } else if (value instanceof Collection<?> values) {
+            for (Object v : values) collectReferences(v, out);
+        } else if (value instanceof Map<?, ?> map) {
+            for (Object v : map.values()) collectReferences(v, out);
+        }
+    }
+
+    private static void collectInjectionPoints(ConcurrentSingletonBeanFactory factory, String name,
+                                               RootBeanDefinition bd, Set<String> out) {
+        Executable creator = creator(factory, bd);
+        if (creator != null) {
+            for (int i = 0; i < creator.getParameterCount(); i++) {
+                MethodParameter param = MethodParameter.forExecutable(creator, i);
+                if (param.hasParameterAnnotation(Lazy.class)) continue;
+                addCandidates(factory, ResolvableType.forMethodParameter(param), out);
+            }
+        }
+
+        Class<?> beanClass = factory.getType(name, false);
+        if (beanClass == null) return;
+        Class<?> userClass = ClassUtils.getUserClass(beanClass);
+        ReflectionUtils.doWithFields(userClass, field -> {
+            if (isInjected(field) && !Modifier.isStatic(field.getModifiers())) {
+                addCandidates(factory, ResolvableType.forField(field), out);
+            }
+        });
+        ReflectionUtils.doWithMethods(userClass, method -> {
+            if (isInjected(method) && !Modifier.isStatic(method.getModifiers())) {
+                for (int i = 0; i < method.getParameterCount(); i++) {
+                    addCandidates(factory, ResolvableType.forMethodParameter(method, i), out);
+                }
+            }
+        });
+    }
+
+    /** The constructor or {@code @Bean} method Spring will call, when it can be told without instantiating. */
+    private static Executable creator(ConcurrentSingletonBeanFactory factory, RootBeanDefinition bd) {
+        String factoryMethod = bd.getFactoryMethodName();
+        if (factoryMethod != null) {
+            Class<?> factoryClass = bd.getFactoryBeanName() != null
+                    ? factory.getType(bd.getFactoryBeanName(), false)
+                    : (bd.hasBeanClass() ? bd.getBeanClass() : null);
+            if (factoryClass == null) return null;
+            for (Method m : ReflectionUtils.getUniqueDeclaredMethods(ClassUtils.getUserClass(factoryClass))) {
+                if (m.getName().equals(factoryMethod) && AnnotatedElementUtils.hasAnnotation(m, Bean.class)) {
+                    return m;
+                }
+            }
+            return null;
+        }
+        // explicit arguments are already covered by collectDeclared
+        if (!bd.hasBeanClass() || bd.getInstanceSupplier() != null || bd.hasConstructorArgumentValues()) return null;
+        Constructor<?>[] ctors = bd.getBeanClass().getDeclaredConstructors();
+        for (Constructor<?> c : ctors) {
+            if (AnnotatedElementUtils.hasAnnotation(c, Autowired.class)) return c;
+        }
+        return ctors.length == 1 ? ctors[0] : null;
+    }
+
+    private static boolean isInjected(java.lang.reflect.AnnotatedElement element) {
+        if (element instanceof Field f && f.isAnnotationPresent(Lazy.class)) return false;
+        if (AnnotatedElementUtils.hasAnnotation(element, Autowired.class)) return true;
+        for (var annotation : element.getAnnotations()) {
+            if (annotation.annotationType().getName().equals(RESOURCE_ANNOTATION)) return true;
+        }
+        return false;
+    }
+
+    private static void addCandidates(ConcurrentSingletonBeanFactory factory, ResolvableType type, Set<String> out) {
+        Class<?> raw = type.resolve();
+        if (raw == null || raw == ObjectProvider.class || raw == FactoryBean.class
+                || raw.getName().equals("jakarta.inject.Provider")) {
+            return;
+        }
+        if (raw == Optional.class) {
+            type = type.getGeneric(0);
+        } else if (raw.isArray()) {
+            type = type.getComponentType();
+        } else if (Collection.class.isAssignableFrom(raw)) {
+            type = type.asCollection().getGeneric(0);
+        } else if (Map.class.isAssignableFrom(raw)) {
+            type = type.asMap().getGeneric(1);
+        }
+        if (type.resolve() == null || ClassUtils.isSimpleValueType(type.resolve())) return;
+        out.addAll(List.of(factory.getBeanNamesForType(type, true, false)));
+    }
+
+    private static boolean isFullConfiguration(ConcurrentSingletonBeanFactory factory, String name) {
+        return factory.containsBeanDefinition(name)
+                && "full".equals(factory.getBeanDefinition(name).getAttribute(CONFIGURATION_CLASS_ATTRIBUTE));
+    }
+}
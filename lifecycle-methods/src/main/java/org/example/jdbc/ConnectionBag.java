@@ -0,0 +1,113 @@
+package org.example.jdbc;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntConsumer;
+
+/**
+ * Where idle connections wait, with a lock-free borrow path.
+ *
+ * A borrow first tries the connections this thread returned last (no shared
+ * state touched at all), then CASes its way through the shared list. Only
+ * when both miss does it register as a waiter and park on a hand-off queue;
+ * a connection returned or added while someone is parked is handed over
+ * directly instead of going back to the lists. Parked borrowers wake every
+ * {@link #WAIT_SLICE_NANOS} to scan the shared list again, so a hand-off that
+ * found nobody polling at that instant costs a waiter at most one slice. The
+ * returning thread yields between a bounded number of hand-off tries and then
+ * keeps the connection instead of spinning until a taker shows up.
+ */
+final class ConnectionBag {
+    /** Longest a waiter stays parked before looking at the shared list again. */
+    private static final long WAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+    /** Hand-off tries by a returning thread, yielding in between. */
+    private static final int HANDOFF_ATTEMPTS = 4;
+    /** Per-thread recently returned entries kept; older ones are only in the shared list. */
+    private static final int RECENT_MAX = 8;
+
+    private final CopyOnWriteArrayList<PoolEntry> shared = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<List<PoolEntry>> recent = ThreadLocal.withInitial(() -> new ArrayList<>(RECENT_MAX));
+    private final SynchronousQueue<PoolEntry> handoff = new SynchronousQueue<>(true);
+    /** Borrowers that found nothing and are parked (or about to park) on the hand-off. */
+    private final AtomicInteger waiters = new AtomicInteger();
+
+    /**
+     * An entry reserved for the caller, or null on timeout. {@code onMiss} is
+     * told the number of waiters when the fast paths found nothing.
+     */
+    PoolEntry borrow(long timeoutNanos, IntConsumer onMiss) throws InterruptedException {
+        List<PoolEntry> mine = recent.get();
+        for (int i = mine.size() - 1; i >= 0; i--) {
+            PoolEntry entry = mine.remove(i);
+            if (entry.reserve()) return entry;
+        }
+        PoolEntry found = reserveShared();
+        if (found != null) return found;
+
+        long deadline = System.nanoTime() + timeoutNanos;
+        int waiting = waiters.incrementAndGet();
+        try {
+            onMiss.accept(waiting);
+            while (true) {
+                // also catches what was returned between the scan above and registering as a waiter
+                found = reserveShared();
+                if (found != null) return found;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 10_000) return null;
+                PoolEntry entry = handoff.poll(Math.min(remaining, WAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+                if (entry != null && entry.reserve()) return entry;
+            }
+        } finally {
+            waiters.decrementAndGet();
+        }
+    }
+
+    private PoolEntry reserveShared() {
+        for (PoolEntry entry : shared) {
+            if (entry.state() == PoolEntry.IDLE && entry.reserve()) return entry;
+        }
+        return null;
+    }
+
+    /** Back from a borrower: to a waiter if there is one, else onto this thread's list. */
+    void requite(PoolEntry entry) {
+        entry.release();
+        if (handOff(entry)) return;
+        List<PoolEntry> mine = recent.get();
+        // taken through the shared list by another thread, or retired since: no use here
+        mine.removeIf(e -> e.state() != PoolEntry.IDLE);
+        if (mine.size() >= RECENT_MAX) mine.remove(0);
+        mine.add(entry);
+    }
+
+    void add(PoolEntry entry) {
+        shared.add(entry);
+        handOff(entry);
+    }
+
+    /** True once the entry is no longer idle: handed to a parked waiter, or taken some other way. */
+    private boolean handOff(PoolEntry entry) {
+        for (int attempt = 0; waiters.get() > 0; attempt++) {
+            if (entry.state() != PoolEntry.IDLE || handoff.offer(entry)) return true;
+            if (attempt == HANDOFF_ATTEMPTS) break;
+            Thread.yield();
+        }
+        return entry.state() != PoolEntry.IDLE;
+    }
+
+    void remove(PoolEntry entry) {
+        shared.remove(entry);
+    }
+
+    List<PoolEntry> entries() {
+        return shared;
+    }
+
+    int waiters() {
+        return waiters.get();
+    }
+}
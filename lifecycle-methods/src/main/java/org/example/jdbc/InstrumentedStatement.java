@@ -0,0 +1,504 @@
+package org.example.jdbc;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+
+/**
+ * Statement that records its executions in {@link JdbcMetrics}.
+ *
+ * A plain delegating class rather than a dynamic proxy: the wrapper sits on
+ * every execute call, and a reflective hop there would cost more than the
+ * timing itself. Per execution it adds two {@code nanoTime} calls and a few
+ * LongAdder increments; result sets come back as a {@link CountingResultSet}
+ * for the row count.
+ */
+class InstrumentedStatement implements Statement {
+    private static final String BATCH = "(batch)";
+
+    final JdbcMetrics metrics;
+    private final Statement target;
+    private final Connection owner;
+    /** The prepared SQL and its stats, null for plain statements. */
+    final String sql;
+    final JdbcMetrics.SqlStats preparedStats;
+    /** Stats of the last execution, for getResultSet(). */
+    private JdbcMetrics.SqlStats last;
+
+    InstrumentedStatement(JdbcMetrics metrics, Statement target, Connection owner, String sql) {
+        this.metrics = metrics;
+        this.target = target;
+        this.owner = owner;
+        this.sql = sql;
+        this.preparedStats = sql != null ? metrics.statsFor(sql) : null;
+    }
+
+    final SQLException failed(JdbcMetrics.SqlStats stats, long start, SQLException e) {
+        stats.errors.increment();
+        stats.latency.record(System.nanoTime() - start);
+        return e;
+    }
+
+    final void executed(JdbcMetrics.SqlStats stats, long start, String sql, Object[] params) {
+        long elapsed = System.nanoTime() - start;
+        stats.latency.record(elapsed);
+        last = stats;
+        if (elapsed >= metrics.slowQueryNanos()) {
+            metrics.recordSlow(stats, sql, params, elapsed);
+        }
+    }
+
+    final ResultSet counted(ResultSet result, JdbcMetrics.SqlStats stats) {
+        return result == null ? null : new CountingResultSet(result, this, stats);
+    }
+
+    static int updated(int count, JdbcMetrics.SqlStats stats) {
+        if (count > 0) stats.rows.add(count);
+        return count;
+    }
+
+    static long updated(long count, JdbcMetrics.SqlStats stats) {
+        if (count > 0) stats.rows.add(count);
+        return count;
+    }
+
+    static int[] updated(int[] counts, JdbcMetrics.SqlStats stats) {
+        for (int count : counts) {
+            if (count > 0) stats.rows.add(count);
+        }
+        return counts;
+    }
+
+    static long[] updated(long[] counts, JdbcMetrics.SqlStats stats) {
+        for (long count : counts) {
+            if (count > 0) stats.rows.add(count);
+        }
+        return counts;
+    }
+
+    private JdbcMetrics.SqlStats batchStats() {
+        return preparedStats != null ? preparedStats : metrics.statsFor(BATCH);
+    }
+
+    private String batchSql() {
+        return sql != null ? sql : BATCH;
+    }
+
+    @Override
+    public ResultSet executeQuery(String sql) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        ResultSet result;
+        try {
+            result = target.executeQuery(sql);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return counted(result, stats);
+    }
+
+    @Override
+    public int executeUpdate(String sql) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        int result;
+        try {
+            result = target.executeUpdate(sql);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public void close() throws SQLException {
+        target.close();
+    }
+
+    @Override
+    public int getMaxFieldSize() throws SQLException {
+        return target.getMaxFieldSize();
+    }
+
+    @Override
+    public void setMaxFieldSize(int max) throws SQLException {
+        target.setMaxFieldSize(max);
+    }
+
+    @Override
+    public int getMaxRows() throws SQLException {
+        return target.getMaxRows();
+    }
+
+    @Override
+    public void setMaxRows(int max) throws SQLException {
+        target.setMaxRows(max);
+    }
+
+    @Override
+    public void setEscapeProcessing(boolean enable) throws SQLException {
+        target.setEscapeProcessing(enable);
+    }
+
+    @Override
+    public int getQueryTimeout() throws SQLException {
+        return target.getQueryTimeout();
+    }
+
+    @Override
+    public void setQueryTimeout(int seconds) throws SQLException {
+        target.setQueryTimeout(seconds);
+    }
+
+    @Override
+    public void cancel() throws SQLException {
+        target.cancel();
+    }
+
+    @Override
+    public SQLWarning getWarnings() throws SQLException {
+        return target.getWarnings();
+    }
+
+    @Override
+    public void clearWarnings() throws SQLException {
+        target.clearWarnings();
+    }
+
+    @Override
+    public void setCursorName(String name) throws SQLException {
+        target.setCursorName(name);
+    }
+
+    @Override
+    public boolean execute(String sql) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        boolean result;
+        try {
+            result = target.execute(sql);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return result;
+    }
+
+    @Override
+    public ResultSet getResultSet() throws SQLException {
+        ResultSet result = target.getResultSet();
+        return last != null ? counted(result, last) : result;
+    }
+
+    @Override
+    public int getUpdateCount() throws SQLException {
+        return target.getUpdateCount();
+    }
+
+    @Override
+    public boolean getMoreResults() throws SQLException {
+        return target.getMoreResults();
+    }
+
+    @Override
+    public void setFetchDirection(int direction) throws SQLException {
+        target.setFetchDirection(direction);
+    }
+
+    @Override
+    public int getFetchDirection() throws SQLException {
+        return target.getFetchDirection();
+    }
+
+    @Override
+    public void setFetchSize(int rows) throws SQLException {
+        target.setFetchSize(rows);
+    }
+
+    @Override
+    public int getFetchSize() throws SQLException {
+        return target.getFetchSize();
+    }
+
+    @Override
+    public int getResultSetConcurrency() throws SQLException {
+        return target.getResultSetConcurrency();
+    }
+
+    @Override
+    public int getResultSetType() throws SQLException {
+        return target.getResultSetType();
+    }
+
+    @Override
+    public void addBatch(String sql) throws SQLException {
+        target.addBatch(sql);
+    }
+
+    @Override
+    public void clearBatch() throws SQLException {
+        target.clearBatch();
+    }
+
+    @Override
+    public int[] executeBatch() throws SQLException {
+        JdbcMetrics.SqlStats stats = batchStats();
+        long start = System.nanoTime();
+        int[] result;
+        try {
+            result = target.executeBatch();
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, batchSql(), null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return owner;
+    }
+
+    @Override
+    public boolean getMoreResults(int current) throws SQLException {
+        return target.getMoreResults(current);
+    }
+
+    @Override
+    public ResultSet getGeneratedKeys() throws SQLException {
+        return target.getGeneratedKeys();
+    }
+
+    @Override
+    public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        int result;
+        try {
+            result = target.executeUpdate(sql, autoGeneratedKeys);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        int result;
+        try {
+            result = target.executeUpdate(sql, columnIndexes);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        int result;
+        try {
+            result = target.executeUpdate(sql, columnNames);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        boolean result;
+        try {
+            result = target.execute(sql, autoGeneratedKeys);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        boolean result;
+        try {
+            result = target.execute(sql, columnIndexes);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return result;
+    }
+
+    @Override
+    public boolean execute(String sql, String[] columnNames) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        boolean result;
+        try {
+            result = target.execute(sql, columnNames);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return result;
+    }
+
+    @Override
+    public int getResultSetHoldability() throws SQLException {
+        return target.getResultSetHoldability();
+    }
+
+    @Override
+    public boolean isClosed() throws SQLException {
+        return target.isClosed();
+    }
+
+    @Override
+    public void setPoolable(boolean poolable) throws SQLException {
+        target.setPoolable(poolable);
+    }
+
+    @Override
+    public boolean isPoolable() throws SQLException {
+        return target.isPoolable();
+    }
+
+    @Override
+    public void closeOnCompletion() throws SQLException {
+        target.closeOnCompletion();
+    }
+
+    @Override
+    public boolean isCloseOnCompletion() throws SQLException {
+        return target.isCloseOnCompletion();
+    }
+
+    @Override
+    public long getLargeUpdateCount() throws SQLException {
+        return target.getLargeUpdateCount();
+    }
+
+    @Override
+    public void setLargeMaxRows(long max) throws SQLException {
+        target.setLargeMaxRows(max);
+    }
+
+    @Override
+    public long getLargeMaxRows() throws SQLException {
+        return target.getLargeMaxRows();
+    }
+
+    @Override
+    public long[] executeLargeBatch() throws SQLException {
+        JdbcMetrics.SqlStats stats = batchStats();
+        long start = System.nanoTime();
+        long[] result;
+        try {
+            result = target.executeLargeBatch();
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, batchSql(), null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        long result;
+        try {
+            result = target.executeLargeUpdate(sql);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        long result;
+        try {
+            result = target.executeLargeUpdate(sql, autoGeneratedKeys);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, int[] columnIndexes) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        long result;
+        try {
+            result = target.executeLargeUpdate(sql, columnIndexes);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public long executeLargeUpdate(String sql, String[] columnNames) throws SQLException {
+        JdbcMetrics.SqlStats stats = metrics.statsFor(sql);
+        long start = System.nanoTime();
+        long result;
+        try {
+            result = target.executeLargeUpdate(sql, columnNames);
+        } catch (SQLException e) {
+            throw failed(stats, start, e);
+        }
+        executed(stats, start, sql, null);
+        return updated(result, stats);
+    }
+
+    @Override
+    public String enquoteLiteral(String val) throws SQLException {
+        return target.enquoteLiteral(val);
+    }
+
+    @Override
+    public String enquoteIdentifier(String identifier, boolean alwaysQuote) throws SQLException {
+        return target.enquoteIdentifier(identifier, alwaysQuote);
+    }
+
+    @Override
+    public boolean isSimpleIdentifier(String identifier) throws SQLException {
+        return target.isSimpleIdentifier(identifier);
+    }
+
+    @Override
+    public String enquoteNCharLiteral(String val) throws SQLException {
+        return target.enquoteNCharLiteral(val);
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        return iface.isInstance(target) ? iface.cast(target) : target.unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(target) || target.isWrapperFor(iface);
+    }
+}
@@ -0,0 +1,186 @@
+package org.example.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * What the pool and its statements have been doing, for whoever asks.
+ *
+ * Attached with {@link PooledDataSource#setMetrics}, it records how long
+ * borrowers waited for a connection, and per SQL fingerprint (see
+ * {@link SqlFingerprint}) the execution latency histogram, executions,
+ * errors and rows - rows read from result sets, or the update counts. An
+ * execution slower than {@code slowQueryThresholdMs} is kept in a ring of the
+ * last {@code slowQueryCapacity} with its SQL and bind parameters; parameter
+ * values are redacted to their type (and length for text) unless
+ * {@link #setRevealParameters} is on.
+ *
+ * Nothing is pushed anywhere: read {@link #snapshot()} or {@link #report()}.
+ * Fingerprints beyond {@code maxFingerprints} are counted under "(other)".
+ */
+public class JdbcMetrics {
+    static final String OTHER = "(other)";
+
+    private final long slowQueryNanos;
+    private final int maxFingerprints;
+    private final AtomicReferenceArray<SlowQuery> slowQueries;
+    private final AtomicLong slowQuerySeq = new AtomicLong();
+
+    private final Log2Histogram borrowWait = new Log2Histogram();
+    private final ConcurrentHashMap<String, SqlStats> byFingerprint = new ConcurrentHashMap<>();
+    /** Raw SQL text to its stats, so fingerprinting runs once per distinct text. */
+    private final ConcurrentHashMap<String, SqlStats> bySql = new ConcurrentHashMap<>();
+    private volatile boolean revealParameters;
+    private volatile PooledDataSource pool;
+
+    public JdbcMetrics(long slowQueryThresholdMs, int slowQueryCapacity, int maxFingerprints) {
+        this.slowQueryNanos = slowQueryThresholdMs * 1_000_000;
+        this.maxFingerprints = maxFingerprints;
+        this.slowQueries = new AtomicReferenceArray<>(Math.max(1, slowQueryCapacity));
+    }
+
+    /** Debugging only: slow queries then show actual parameter values. */
+    public void setRevealParameters(boolean revealParameters) {
+        this.revealParameters = revealParameters;
+    }
+
+    void bind(PooledDataSource pool) {
+        this.pool = pool;
+    }
+
+    void recordBorrow(long waitNanos) {
+        borrowWait.record(waitNanos);
+    }
+
+    /**
+     * Wraps a prepared statement so its executions are recorded under
+     * {@code sql}. {@code owner} is what the statement reports as its connection.
+     */
+    public PreparedStatement instrument(PreparedStatement statement, Connection owner, String sql) {
+        return new InstrumentedPreparedStatement(this, statement, owner, sql);
+    }
+
+    /** Wraps a plain statement; the SQL comes with each execute call. */
+    public Statement instrument(Statement statement, Connection owner) {
+        return new InstrumentedStatement(this, statement, owner, null);
+    }
+
+    SqlStats statsFor(String sql) {
+        SqlStats stats = bySql.get(sql);
+        if (stats != null) return stats;
+        String fingerprint = SqlFingerprint.of(sql);
+        if (byFingerprint.size() >= maxFingerprints && !byFingerprint.containsKey(fingerprint)) {
+            fingerprint = OTHER;
+        }
+        stats = byFingerprint.computeIfAbsent(fingerprint, SqlStats::new);
+        if (bySql.size() < maxFingerprints * 4) {
+            bySql.putIfAbsent(sql, stats);
+        }
+        return stats;
+    }
+
+    void recordSlow(SqlStats stats, String sql, Object[] params, long nanos) {
+        if (nanos < slowQueryNanos) return;
+        stats.slow.increment();
+        List<String> rendered = new ArrayList<>();
+        if (params != null) {
+            for (int i = 1; i < params.length; i++) {
+                rendered.add(revealParameters ? String.valueOf(params[i]) : redact(params[i]));
+            }
+        }
+        // plain statements carry their values in the text
+        String shown = params == null && !revealParameters ? SqlFingerprint.of(sql) : sql;
+        SlowQuery query = new SlowQuery(Instant.now(), stats.fingerprint, shown, List.copyOf(rendered), nanos / 1_000,
+                Thread.currentThread().getName());
+        slowQueries.set((int) (slowQuerySeq.getAndIncrement() % slowQueries.length()), query);
+    }
+
+    long slowQueryNanos() {
+        return slowQueryNanos;
+    }
+
+    static String redact(Object value) {
+        if (value == null) return "NULL";
+        if (value instanceof CharSequence text) return "String(" + text.length() + ")";
+        if (value instanceof byte[] bytes) return "byte[" + bytes.length + "]";
+        return value.getClass().getSimpleName();
+    }
+
+    public Snapshot snapshot() {
+        PooledDataSource pool = this.pool;
+        List<SqlStats.Snapshot> statements = new ArrayList<>();
+        for (SqlStats stats : byFingerprint.values()) {
+            statements.add(stats.snapshot());
+        }
+        statements.sort(Comparator.comparingLong((SqlStats.Snapshot s) -> s.latency().totalNanos()).reversed());
+        List<SlowQuery> slow = new ArrayList<>();
+        for (int i = 0; i < slowQueries.length(); i++) {
+            SlowQuery query = slowQueries.get(i);
+            if (query != null) slow.add(query);
+        }
+        slow.sort(Comparator.comparing(SlowQuery::at).reversed());
+        return new Snapshot(pool != null ? pool.getActive() : 0, pool != null ? pool.getIdle() : 0,
+                pool != null ? pool.getWaiting() : 0, borrowWait.snapshot(), statements, slow);
+    }
+
+    /** Pool gauges, borrow wait, the ten most expensive fingerprints and the slow queries. */
+    public String report() {
+        Snapshot snapshot = snapshot();
+        StringBuilder out = new StringBuilder();
+        out.append("[JdbcMetrics] active=").append(snapshot.active()).append(" idle=").append(snapshot.idle())
+                .append(" waiting=").append(snapshot.waiting()).append(" borrowWait: ").append(snapshot.borrowWait());
+        for (SqlStats.Snapshot stats : snapshot.statements().subList(0, Math.min(10, snapshot.statements().size()))) {
+            out.append("\n  ").append(stats);
+        }
+        for (SlowQuery query : snapshot.slowQueries()) {
+            out.append("\n  slow: ").append(query);
+        }
+        return out.toString();
+    }
+
+    public record Snapshot(int active, int idle, int waiting, Log2Histogram.Snapshot borrowWait,
+                           List<SqlStats.Snapshot> statements, List<SlowQuery> slowQueries) {
+    }
+
+    public record SlowQuery(Instant at, String fingerprint, String sql, List<String> parameters, long micros,
+                            String thread) {
+        @Override
+        public String toString() {
+            return micros + "us " + sql + " " + parameters + " on " + thread + " at " + at;
+        }
+    }
+
+    /** Counters for one fingerprint. */
+    public static final class SqlStats {
+        final String fingerprint;
+        final Log2Histogram latency = new Log2Histogram();
+        final LongAdder rows = new LongAdder();
+        final LongAdder errors = new LongAdder();
+        final LongAdder slow = new LongAdder();
+
+        SqlStats(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        Snapshot snapshot() {
+            return new Snapshot(fingerprint, latency.snapshot(), rows.sum(), errors.sum(), slow.sum());
+        }
+
+        public record Snapshot(String fingerprint, Log2Histogram.Snapshot latency, long rows, long errors,
+                               long slow) {
+            @Override
+            public String toString() {
+                return fingerprint + ": " + latency + " rows=" + rows + " errors=" + errors + " slow=" + slow;
+            }
+        }
+    }
+}
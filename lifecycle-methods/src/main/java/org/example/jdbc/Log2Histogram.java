@@ -0,0 +1,72 @@
+package org.example.jdbc;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cumulative, lock-free latency histogram with power-of-two buckets.
+ *
+ * Bucket i counts values in [2^(i-1), 2^i) nanoseconds, so a percentile is
+ * accurate to within a factor of two - enough to tell 50 us from 5 ms, at a
+ * few nanoseconds per record. LongAdders keep concurrent recording cheap.
+ */
+public final class Log2Histogram {
+    private static final int BUCKETS = 64;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    public Log2Histogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets[BUCKETS - Long.numberOfLeadingZeros(nanos)].increment();
+        count.increment();
+        sum.add(nanos);
+        max.accumulate(nanos);
+    }
+
+    public Snapshot snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return new Snapshot(counts, count.sum(), sum.sum(), max.get());
+    }
+
+    /** Point-in-time copy; all values in nanoseconds. */
+    public record Snapshot(long[] buckets, long count, long totalNanos, long maxNanos) {
+
+        public double meanNanos() {
+            return count == 0 ? 0 : (double) totalNanos / count;
+        }
+
+        /** Upper bound of the bucket holding the given percentile (0-100). */
+        public long percentileNanos(double percentile) {
+            long total = 0;
+            for (long c : buckets) total += c;
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(total * percentile / 100.0);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= Math.max(1, rank)) {
+                    return i == 0 ? 0 : i >= 63 ? maxNanos : Math.min(maxNanos, (1L << i) - 1);
+                }
+            }
+            return maxNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("count=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus", count, meanNanos() / 1e3,
+                    percentileNanos(50) / 1e3, percentileNanos(99) / 1e3, maxNanos / 1e3);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.example.jdbc;
+
+import java.sql.Connection;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One physical connection of a {@link PooledDataSource} and its bookkeeping.
+ *
+ * The state moves IDLE -> IN_USE by CAS on borrow and back on return; REMOVED
+ * is final. Whoever wins the CAS owns the entry, so stale references (in a
+ * thread's recently-used list, say) are harmless.
+ */
+final class PoolEntry {
+    static final int IDLE = 0;
+    static final int IN_USE = 1;
+    static final int REMOVED = 2;
+
+    final Connection connection;
+    /** Null when statement caching is off. */
+    final StatementCache statements;
+    final long createdNanos;
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+
+    volatile long lastReturnedNanos;
+    volatile long borrowedNanos;
+    /** Where the current borrower got the connection, only kept with leak detection on. */
+    volatile Throwable borrowSite;
+    volatile boolean leakReported;
+    /** Set while in use: retire on return instead of going back to the pool. */
+    volatile boolean evict;
+
+    PoolEntry(Connection connection, StatementCache statements, long createdNanos) {
+        this.connection = connection;
+        this.statements = statements;
+        this.createdNanos = createdNanos;
+        this.lastReturnedNanos = createdNanos;
+    }
+
+    boolean reserve() {
+        return state.compareAndSet(IDLE, IN_USE);
+    }
+
+    void release() {
+        state.set(IDLE);
+    }
+
+    /** True for the one caller that takes the entry out of service. */
+    boolean remove(int expected) {
+        return state.compareAndSet(expected, REMOVED);
+    }
+
+    int state() {
+        return state.get();
+    }
+}
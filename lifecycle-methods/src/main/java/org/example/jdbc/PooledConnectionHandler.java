@@ -0,0 +1,234 @@
+package org.example.jdbc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * The {@link Connection} a borrower gets: passes everything through to the
+ * physical connection, except that {@code close()} hands it back to the pool.
+ *
+ * One handler per borrow, so a borrower that keeps its reference after close
+ * gets "Connection is closed" instead of someone else's connection. Auto-commit,
+ * read-only, transaction isolation and catalog are put back to what they were
+ * at borrow on return, rolling back an unfinished transaction first. With a
+ * statement cache, {@code prepareStatement} goes through the connection's
+ * {@link StatementCache}; with metrics, prepared and plain statements come
+ * back instrumented. Statements and metadata answer {@code getConnection()}
+ * with this wrapper, never the physical connection.
+ */
+final class PooledConnectionHandler implements InvocationHandler {
+
+    private static final MethodHandle PROXY = proxyConstructor(Connection.class);
+    private static final MethodHandle STATEMENT = proxyConstructor(Statement.class);
+    private static final MethodHandle PREPARED_STATEMENT = proxyConstructor(PreparedStatement.class);
+    private static final MethodHandle CALLABLE_STATEMENT = proxyConstructor(CallableStatement.class);
+    private static final MethodHandle METADATA = proxyConstructor(DatabaseMetaData.class);
+    private static final MethodHandle RESULT_SET = proxyConstructor(ResultSet.class);
+
+    private final PooledDataSource pool;
+    private final PoolEntry entry;
+    private boolean closed;
+    private boolean autoCommitChanged;
+    private boolean readOnlyChanged;
+    /** Isolation level and catalog at borrow, recorded when the borrower first changes them. */
+    private Integer isolation;
+    private boolean catalogChanged;
+    private String catalog;
+
+    private PooledConnectionHandler(PooledDataSource pool, PoolEntry entry) {
+        this.pool = pool;
+        this.entry = entry;
+    }
+
+    static Connection wrap(PooledDataSource pool, PoolEntry entry) {
+        return (Connection) newProxy(PROXY, new PooledConnectionHandler(pool, entry));
+    }
+
+    /** {@code target} behind a proxy of {@code type} whose getConnection() (and getStatement()) return the wrappers. */
+    private static Object owned(MethodHandle type, Object target, Connection owner, Object statement) {
+        return newProxy(type, new OwnedHandler(target, owner, statement));
+    }
+
+    /** A result set whose getStatement() is {@code statement} and whose statement leads back to {@code owner}. */
+    static ResultSet ownedResultSet(ResultSet target, Connection owner, Object statement) {
+        return (ResultSet) owned(RESULT_SET, target, owner, statement);
+    }
+
+    /**
+     * Constructor of the proxy class for {@code type}. Proxy.newProxyInstance
+     * looks the proxy class up on every call; borrow is hot enough to skip that.
+     */
+    static MethodHandle proxyConstructor(Class<?> type) {
+        Class<?> proxyClass = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                (proxy, method, args) -> null).getClass();
+        try {
+            return MethodHandles.publicLookup()
+                    .findConstructor(proxyClass, MethodType.methodType(void.class, InvocationHandler.class))
+                    .asType(MethodType.methodType(Object.class, InvocationHandler.class));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    static Object newProxy(MethodHandle constructor, InvocationHandler handler) {
+        try {
+            return (Object) constructor.invokeExact(handler);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            // proxy constructors declare nothing checked
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close":
+                if (!closed) {
+                    closed = true;
+                    pool.giveBack(entry, reset());
+                }
+                return null;
+            case "isClosed":
+                return closed;
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            case "toString":
+                return "Pooled" + (closed ? "(closed)" : "") + "[" + entry.connection + "]";
+            case "setAutoCommit":
+                autoCommitChanged = true;
+                break;
+            case "setReadOnly":
+                readOnlyChanged = true;
+                break;
+            case "setTransactionIsolation":
+                if (!closed && isolation == null) isolation = entry.connection.getTransactionIsolation();
+                break;
+            case "setCatalog":
+                if (!closed && !catalogChanged) {
+                    catalog = entry.connection.getCatalog();
+                    catalogChanged = true;
+                }
+                break;
+            default:
+        }
+        if (closed) {
+            throw new SQLException("Connection is closed", "08003");
+        }
+        String name = method.getName();
+        boolean prepare = name.equals("prepareStatement");
+        Object result;
+        if (entry.statements != null && prepare) {
+            result = entry.statements.prepare(entry.connection, (Connection) proxy, method, args);
+        } else {
+            try {
+                result = method.invoke(entry.connection, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        }
+        JdbcMetrics metrics = pool.getMetrics();
+        if (metrics != null) {
+            // callable statements pass through uninstrumented
+            if (prepare) {
+                return metrics.instrument((PreparedStatement) result, (Connection) proxy, (String) args[0]);
+            } else if (name.equals("createStatement")) {
+                return metrics.instrument((Statement) result, (Connection) proxy);
+            }
+        }
+        if (result == null || (prepare && entry.statements != null)) {
+            // the statement cache already wraps everything it hands out
+            return result;
+        }
+        Class<?> type = method.getReturnType();
+        if (type == Statement.class) return owned(STATEMENT, result, (Connection) proxy, null);
+        if (type == PreparedStatement.class) return owned(PREPARED_STATEMENT, result, (Connection) proxy, null);
+        if (type == CallableStatement.class) return owned(CALLABLE_STATEMENT, result, (Connection) proxy, null);
+        if (type == DatabaseMetaData.class) return owned(METADATA, result, (Connection) proxy, null);
+        return result;
+    }
+
+    /** False if the connection could not be put back into a clean state. */
+    private boolean reset() {
+        Connection connection = entry.connection;
+        try {
+            if (autoCommitChanged && !connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+            if (isolation != null) {
+                connection.setTransactionIsolation(isolation);
+            }
+            if (catalogChanged) {
+                connection.setCatalog(catalog);
+            }
+            if (readOnlyChanged) {
+                connection.setReadOnly(false);
+            }
+            connection.clearWarnings();
+            return true;
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Passes through to a statement or metadata object of the physical
+     * connection, except for the calls that would lead back to it.
+     */
+    private static final class OwnedHandler implements InvocationHandler {
+        private final Object target;
+        private final Connection owner;
+        /** For a result set: the statement wrapper it came from. */
+        private final Object statement;
+
+        OwnedHandler(Object target, Connection owner, Object statement) {
+            this.target = target;
+            this.owner = owner;
+            this.statement = statement;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "getConnection":
+                    return owner;
+                case "getStatement":
+                    if (statement != null) return statement;
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Owned[" + target + "]";
+                default:
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (target instanceof Statement && result instanceof ResultSet) {
+                return owned(RESULT_SET, result, owner, proxy);
+            }
+            return result;
+        }
+    }
+}
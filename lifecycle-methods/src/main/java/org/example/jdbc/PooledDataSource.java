@@ -0,0 +1,465 @@
+package org.example.jdbc;
+
+import javax.sql.DataSource;
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Connection pool behind a plain {@link DataSource}.
+ *
+ * Borrowing goes through {@link ConnectionBag}: the thread's own recently
+ * returned connections first, then the shared ones, both by CAS; only an
+ * empty pool makes a caller wait, at most {@code connectionTimeoutMs}. New
+ * connections are opened on a background thread, never while holding
+ * anything, up to {@code maxSize}. A failed open is logged; while the pool
+ * has no connection and none is being opened, waiting callers fail with that
+ * error within about 100 ms instead of waiting out their timeout.
+ *
+ * On borrow a connection past {@code maxLifetimeMs} is retired, and one that
+ * sat idle longer than {@code validationBypassMs} is checked with
+ * {@code isValid} first. A housekeeping thread closes connections idle for
+ * {@code idleTimeoutMs} (never going below {@code minIdle}), retires old ones,
+ * tops the pool up to {@code minIdle} and, with {@code leakDetectionThresholdMs}
+ * above zero, logs connections held longer than that together with the stack
+ * that borrowed them. Capturing that stack costs a few microseconds per
+ * borrow, so leak detection is off by default.
+ *
+ * With {@code statementCacheSize} above zero every connection keeps that many
+ * prepared statements in a {@link StatementCache}; hit rates are in
+ * {@link #report()}.
+ *
+ * {@link #setMetrics} attaches {@link JdbcMetrics}: borrow waits are recorded
+ * and statements handed out are instrumented.
+ *
+ * Call {@link #start()} once configured and {@link #close()} at the end;
+ * connections still borrowed at close are closed when they are returned.
+ */
+public class PooledDataSource implements DataSource, AutoCloseable {
+    private static final Logger logger = Logger.getLogger(PooledDataSource.class.getName());
+
+    /** How often a waiting borrower checks whether the database is reachable at all. */
+    private static final long FAIL_FAST_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    private final String url;
+    private final String username;
+    private final String password;
+
+    private int minIdle = 2;
+    private int maxSize = 10;
+    private long connectionTimeoutMs = 30_000;
+    private long validationBypassMs = 500;
+    private int validationTimeoutSeconds = 5;
+    private long idleTimeoutMs = 600_000;
+    private long maxLifetimeMs = 1_800_000;
+    private long leakDetectionThresholdMs;
+    private long housekeepingPeriodMs = 30_000;
+    private int statementCacheSize;
+
+    private final ConnectionBag bag = new ConnectionBag();
+    /** Open connections plus the ones being opened. */
+    private final AtomicInteger total = new AtomicInteger();
+    private final AtomicInteger pendingAdds = new AtomicInteger();
+    private final LongAdder borrows = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+    private final LongAdder created = new LongAdder();
+    private final LongAdder retired = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+    private final StatementCache.Stats statementStats = new StatementCache.Stats();
+    private volatile SQLException lastOpenFailure;
+    private JdbcMetrics metrics;
+    private volatile boolean closed;
+
+    private ExecutorService opener;
+    private ScheduledExecutorService housekeeper;
+    private PrintWriter logWriter;
+    private int loginTimeout;
+
+    public PooledDataSource(String url, String username, String password) {
+        this.url = url;
+        this.username = username;
+        this.password = password;
+    }
+
+    public synchronized void start() {
+        if (opener != null) return;
+        if (minIdle < 0 || maxSize < 1 || minIdle > maxSize) {
+            throw new IllegalStateException("Need 0 <= minIdle <= maxSize and maxSize >= 1, got minIdle="
+                    + minIdle + " maxSize=" + maxSize);
+        }
+        opener = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(),
+                daemon("jdbc-pool-opener"));
+        housekeeper = Executors.newSingleThreadScheduledExecutor(daemon("jdbc-pool-housekeeper"));
+        long period = housekeepingPeriodMs;
+        if (leakDetectionThresholdMs > 0) {
+            period = Math.min(period, Math.max(1, leakDetectionThresholdMs / 2));
+        }
+        housekeeper.scheduleWithFixedDelay(this::housekeep, period, period, TimeUnit.MILLISECONDS);
+        fill();
+        logger.info("[JdbcPool] started for " + url + " (minIdle=" + minIdle + ", maxSize=" + maxSize + ")");
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (opener == null) throw new SQLException("Pool for " + url + " is not started");
+        long start = System.nanoTime();
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(connectionTimeoutMs);
+        long remaining = timeoutNanos;
+        try {
+            do {
+                if (closed) throw new SQLException("Pool for " + url + " is closed");
+                PoolEntry entry = bag.borrow(Math.min(remaining, FAIL_FAST_CHECK_NANOS), this::addIfNeeded);
+                if (entry == null) {
+                    if (unreachable()) {
+                        throw new SQLTransientConnectionException("[JdbcPool] cannot open a connection to " + url,
+                                "08001", lastOpenFailure);
+                    }
+                    remaining = timeoutNanos - (System.nanoTime() - start);
+                    continue;
+                }
+
+                long now = System.nanoTime();
+                if (entry.evict || expired(entry, now) || !alive(entry, now)) {
+                    retire(entry, PoolEntry.IN_USE);
+                    remaining = timeoutNanos - (System.nanoTime() - start);
+                    continue;
+                }
+                entry.borrowedNanos = now;
+                entry.leakReported = false;
+                if (leakDetectionThresholdMs > 0) {
+                    entry.borrowSite = new Throwable("Connection borrowed here");
+                }
+                borrows.increment();
+                if (metrics != null) {
+                    metrics.recordBorrow(now - start);
+                }
+                return PooledConnectionHandler.wrap(this, entry);
+            } while (remaining > 0);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+        timeouts.increment();
+        throw new SQLTransientConnectionException("[JdbcPool] no connection within " + connectionTimeoutMs
+                + " ms (active=" + getActive() + ", idle=" + getIdle() + ", waiting=" + getWaiting() + ")",
+                "08001", lastOpenFailure);
+    }
+
+    /** The last open failed and there is nothing to wait for: no connection, none being opened. */
+    private boolean unreachable() {
+        return lastOpenFailure != null && total.get() == 0;
+    }
+
+    /** Called by the connection wrapper on close. */
+    void giveBack(PoolEntry entry, boolean clean) {
+        entry.borrowSite = null;
+        entry.lastReturnedNanos = System.nanoTime();
+        if (!clean || closed || entry.evict || expired(entry, entry.lastReturnedNanos)) {
+            retire(entry, PoolEntry.IN_USE);
+            fill();
+            return;
+        }
+        if (entry.statements != null) {
+            entry.statements.reclaim();
+        }
+        bag.requite(entry);
+    }
+
+    private boolean expired(PoolEntry entry, long now) {
+        return now - entry.createdNanos > TimeUnit.MILLISECONDS.toNanos(maxLifetimeMs);
+    }
+
+    private boolean alive(PoolEntry entry, long now) {
+        if (now - entry.lastReturnedNanos < TimeUnit.MILLISECONDS.toNanos(validationBypassMs)) return true;
+        try {
+            return entry.connection.isValid(validationTimeoutSeconds);
+        } catch (SQLException e) {
+            return false;
+        }
+    }
+
+    /** A borrower found nothing: open one more connection per waiter, within maxSize. */
+    private void addIfNeeded(int waiting) {
+        while (pendingAdds.get() < waiting && reserveSlot()) {
+            pendingAdds.incrementAndGet();
+            openAsync();
+        }
+    }
+
+    /** Top up to minIdle. */
+    private void fill() {
+        while (!closed && getIdle() + pendingAdds.get() < minIdle && reserveSlot()) {
+            pendingAdds.incrementAndGet();
+            openAsync();
+        }
+    }
+
+    private boolean reserveSlot() {
+        for (int current = total.get(); current < maxSize; current = total.get()) {
+            if (total.compareAndSet(current, current + 1)) return true;
+        }
+        return false;
+    }
+
+    private void openAsync() {
+        try {
+            opener.execute(this::open);
+        } catch (RuntimeException e) {
+            // rejected: the pool is closing
+            pendingAdds.decrementAndGet();
+            total.decrementAndGet();
+        }
+    }
+
+    private void open() {
+        Connection connection = null;
+        boolean added = false;
+        try {
+            if (closed) return;
+            connection = DriverManager.getConnection(url, username, password);
+            lastOpenFailure = null;
+            created.increment();
+            StatementCache statements = statementCacheSize > 0
+                    ? new StatementCache(statementCacheSize, statementStats) : null;
+            bag.add(new PoolEntry(connection, statements, System.nanoTime()));
+            added = true;
+        } catch (SQLException e) {
+            if (lastOpenFailure == null) {
+                logger.warning("[JdbcPool] cannot open a connection to " + url + ": " + e.getMessage());
+            }
+            lastOpenFailure = e;
+        } catch (RuntimeException e) {
+            // a misbehaving driver: counts as a failed open instead of killing the opener thread
+            logger.warning("[JdbcPool] cannot open a connection to " + url + ": " + e);
+            lastOpenFailure = new SQLException("cannot open a connection: " + e, "08001", e);
+        } finally {
+            if (!added) {
+                // the slot reserved for this connection is free again
+                total.decrementAndGet();
+                if (connection != null) {
+                    try {
+                        connection.close();
+                    } catch (SQLException | RuntimeException ignored) {
+                        // never handed out
+                    }
+                }
+            }
+            pendingAdds.decrementAndGet();
+        }
+    }
+
+    private void retire(PoolEntry entry, int expectedState) {
+        if (!entry.remove(expectedState)) return;
+        bag.remove(entry);
+        total.decrementAndGet();
+        retired.increment();
+        if (entry.statements != null) {
+            entry.statements.closeAll();
+        }
+        try {
+            entry.connection.close();
+        } catch (SQLException e) {
+            logger.fine("[JdbcPool] error closing a retired connection: " + e.getMessage());
+        }
+    }
+
+    private void housekeep() {
+        long now = System.nanoTime();
+        long idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMs);
+        long leakNanos = TimeUnit.MILLISECONDS.toNanos(leakDetectionThresholdMs);
+        int idle = getIdle();
+        for (PoolEntry entry : bag.entries()) {
+            int state = entry.state();
+            if (state == PoolEntry.IDLE) {
+                boolean tooOld = expired(entry, now);
+                boolean unused = idle > minIdle && now - entry.lastReturnedNanos > idleTimeoutNanos;
+                if ((tooOld || unused) && entry.reserve()) {
+                    retire(entry, PoolEntry.IN_USE);
+                    idle--;
+                }
+            } else if (state == PoolEntry.IN_USE) {
+                if (expired(entry, now)) {
+                    entry.evict = true;
+                }
+                Throwable site = entry.borrowSite;
+                if (leakNanos > 0 && site != null && !entry.leakReported && now - entry.borrowedNanos > leakNanos) {
+                    entry.leakReported = true;
+                    leaks.increment();
+                    logger.log(Level.WARNING, "[JdbcPool] possible connection leak: held for "
+                            + TimeUnit.NANOSECONDS.toMillis(now - entry.borrowedNanos) + " ms", site);
+                }
+            }
+        }
+        fill();
+    }
+
+    /** Closes idle connections now and borrowed ones as they come back. */
+    @Override
+    public synchronized void close() {
+        if (closed) return;
+        closed = true;
+        if (housekeeper != null) housekeeper.shutdownNow();
+        if (opener != null) opener.shutdown();
+        for (PoolEntry entry : bag.entries()) {
+            if (entry.reserve()) retire(entry, PoolEntry.IN_USE);
+        }
+        logger.info("[JdbcPool] closed " + url + ": " + report());
+        if (metrics != null) {
+            logger.info(metrics.report());
+        }
+    }
+
+    public String report() {
+        return "borrows=" + borrows.sum() + " timeouts=" + timeouts.sum() + " created=" + created.sum()
+                + " retired=" + retired.sum() + " leaks=" + leaks.sum() + " active=" + getActive()
+                + " idle=" + getIdle() + " waiting=" + getWaiting()
+                + (statementCacheSize > 0 ? " statements: " + statementStats : "");
+    }
+
+    /** Share of prepareStatement calls answered from a statement cache. */
+    public double getStatementCacheHitRate() {
+        return statementStats.hitRate();
+    }
+
+    public int getTotal() {
+        return total.get() - pendingAdds.get();
+    }
+
+    public int getActive() {
+        return count(PoolEntry.IN_USE);
+    }
+
+    public int getIdle() {
+        return count(PoolEntry.IDLE);
+    }
+
+    public int getWaiting() {
+        return bag.waiters();
+    }
+
+    private int count(int state) {
+        int n = 0;
+        for (PoolEntry entry : bag.entries()) {
+            if (entry.state() == state) n++;
+        }
+        return n;
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return r -> {
+            Thread t = new Thread(r, name);
+            t.setDaemon(true);
+            return t;
+        };
+    }
+
+    public void setMinIdle(int minIdle) {
+        this.minIdle = minIdle;
+    }
+
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public void setConnectionTimeoutMs(long connectionTimeoutMs) {
+        this.connectionTimeoutMs = connectionTimeoutMs;
+    }
+
+    public void setValidationBypassMs(long validationBypassMs) {
+        this.validationBypassMs = validationBypassMs;
+    }
+
+    public void setValidationTimeoutSeconds(int validationTimeoutSeconds) {
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+    }
+
+    public void setIdleTimeoutMs(long idleTimeoutMs) {
+        this.idleTimeoutMs = idleTimeoutMs;
+    }
+
+    public void setMaxLifetimeMs(long maxLifetimeMs) {
+        this.maxLifetimeMs = maxLifetimeMs;
+    }
+
+    public void setLeakDetectionThresholdMs(long leakDetectionThresholdMs) {
+        this.leakDetectionThresholdMs = leakDetectionThresholdMs;
+    }
+
+    public void setHousekeepingPeriodMs(long housekeepingPeriodMs) {
+        this.housekeepingPeriodMs = housekeepingPeriodMs;
+    }
+
+    /** Set before {@link #start()}. */
+    public void setMetrics(JdbcMetrics metrics) {
+        this.metrics = metrics;
+        metrics.bind(this);
+    }
+
+    public JdbcMetrics getMetrics() {
+        return metrics;
+    }
+
+    /** Prepared statements kept per connection, 0 (the default) for none. */
+    public void setStatementCacheSize(int statementCacheSize) {
+        this.statementCacheSize = statementCacheSize;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Pooled connections all use the pool's credentials");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() {
+        return logWriter;
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        this.logWriter = out;
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        this.loginTimeout = seconds;
+    }
+
+    @Override
+    public int getLoginTimeout() {
+        return loginTimeout;
+    }
+
+    @Override
+    public Logger getParentLogger() {
+        return logger;
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Not a wrapper for " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) {
+        return iface.isInstance(this);
+    }
+}
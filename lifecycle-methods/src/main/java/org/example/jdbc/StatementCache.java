@@ -0,0 +1,255 @@
+package org.example.jdbc;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LRU cache of prepared statements for one pooled connection.
+ *
+ * Keyed by the arguments of the {@code prepareStatement} call: SQL text plus
+ * result-set type, concurrency and holdability, or the generated-keys option.
+ * A hit hands out the cached statement behind a wrapper whose {@code close()}
+ * clears parameters and batch and puts it back instead of closing it; settings
+ * such as fetch size or max rows stay as the last user left them. If the
+ * statement for a key is already handed out (the same SQL prepared twice
+ * before closing), the second caller gets an uncached statement of its own,
+ * behind the same kind of wrapper but closed for real on {@code close()}.
+ * Either way the statement and its result sets report the pooled connection,
+ * never the physical one.
+ *
+ * The least recently used statement is closed when the cache is full, or on
+ * its return if it was in use at that moment. Statements stay with their
+ * connection while it sits in the pool; the ones a borrower forgot to close
+ * are taken back when the connection is returned, and all are closed when the
+ * connection is retired.
+ */
+final class StatementCache {
+
+    private static final MethodHandle PROXY = PooledConnectionHandler.proxyConstructor(PreparedStatement.class);
+
+    /** Pool-wide counters, shared by the caches of all connections. */
+    static final class Stats {
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+
+        double hitRate() {
+            long hits = this.hits.sum();
+            long total = hits + misses.sum();
+            return total == 0 ? 0 : (double) hits / total;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("hits=%d misses=%d evictions=%d hitRate=%.1f%%",
+                    hits.sum(), misses.sum(), evictions.sum(), hitRate() * 100);
+        }
+    }
+
+    private final int capacity;
+    private final Stats stats;
+    private final LinkedHashMap<Key, Slot> slots;
+
+    StatementCache(int capacity, Stats stats) {
+        this.capacity = capacity;
+        this.stats = stats;
+        this.slots = new LinkedHashMap<>(capacity * 2, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Slot> eldest) {
+                if (size() <= StatementCache.this.capacity) return false;
+                evict(eldest.getValue());
+                return true;
+            }
+        };
+    }
+
+    /**
+     * A statement for {@code connection.prepareStatement(args)}; {@code owner}
+     * is what the statement reports as its connection.
+     */
+    synchronized PreparedStatement prepare(Connection connection, Connection owner, Method method, Object[] args)
+            throws SQLException {
+        Key key = new Key(args);
+        Slot slot = slots.get(key);
+        if (slot != null) {
+            if (slot.borrower != null) {
+                // in use: a statement of its own, outside the cache and really closed on close()
+                stats.misses.increment();
+                slot = new Slot(invoke(connection, method, args));
+                slot.evicted = true;
+            } else {
+                stats.hits.increment();
+            }
+        } else {
+            stats.misses.increment();
+            slot = new Slot(invoke(connection, method, args));
+            slots.put(key, slot);
+        }
+        slot.borrower = new Handler(this, slot, owner);
+        return (PreparedStatement) PooledConnectionHandler.newProxy(PROXY, slot.borrower);
+    }
+
+    private synchronized void checkIn(Slot slot) {
+        slot.borrower = null;
+        if (slot.evicted) {
+            closeQuietly(slot.statement);
+            return;
+        }
+        try {
+            slot.statement.clearParameters();
+            slot.statement.clearBatch();
+            slot.statement.clearWarnings();
+        } catch (SQLException e) {
+            slots.values().remove(slot);
+            closeQuietly(slot.statement);
+        }
+    }
+
+    private void evict(Slot slot) {
+        stats.evictions.increment();
+        slot.evicted = true;
+        if (slot.borrower == null) {
+            closeQuietly(slot.statement);
+        }
+    }
+
+    /** The connection goes back to the pool: take back what its borrower left open. */
+    synchronized void reclaim() {
+        List<Handler> open = new ArrayList<>();
+        for (Slot slot : slots.values()) {
+            if (slot.borrower != null) open.add(slot.borrower);
+        }
+        for (Handler handler : open) {
+            handler.closed = true;
+            checkIn(handler.slot);
+        }
+    }
+
+    /** The connection is retired. */
+    synchronized void closeAll() {
+        for (Iterator<Slot> it = slots.values().iterator(); it.hasNext(); ) {
+            Slot slot = it.next();
+            if (slot.borrower != null) slot.borrower.closed = true;
+            closeQuietly(slot.statement);
+            it.remove();
+        }
+    }
+
+    synchronized int size() {
+        return slots.size();
+    }
+
+    private static PreparedStatement invoke(Connection connection, Method method, Object[] args) throws SQLException {
+        try {
+            return (PreparedStatement) method.invoke(connection, args);
+        } catch (InvocationTargetException e) {
+            if (e.getCause() instanceof SQLException sqlException) throw sqlException;
+            throw new SQLException(e.getCause());
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void closeQuietly(PreparedStatement statement) {
+        try {
+            statement.close();
+        } catch (SQLException ignored) {
+            // the connection is going away or the statement is already broken
+        }
+    }
+
+    private static final class Slot {
+        final PreparedStatement statement;
+        /** Wrapper of the current user, null while the statement sits in the cache. */
+        Handler borrower;
+        boolean evicted;
+
+        Slot(PreparedStatement statement) {
+            this.statement = statement;
+        }
+    }
+
+    /** One per checkout, so a closed wrapper stays closed. */
+    private static final class Handler implements InvocationHandler {
+        final StatementCache cache;
+        final Slot slot;
+        final Connection owner;
+        volatile boolean closed;
+
+        Handler(StatementCache cache, Slot slot, Connection owner) {
+            this.cache = cache;
+            this.slot = slot;
+            this.owner = owner;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        cache.checkIn(slot);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed || slot.statement.isClosed();
+                case "getConnection":
+                    return owner;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Cached" + (closed ? "(closed)" : "") + "[" + slot.statement + "]";
+                default:
+            }
+            if (closed) {
+                throw new SQLException("Statement is closed");
+            }
+            Object result;
+            try {
+                result = method.invoke(slot.statement, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof ResultSet rows) {
+                return PooledConnectionHandler.ownedResultSet(rows, owner, proxy);
+            }
+            return result;
+        }
+    }
+
+    /** The prepareStatement arguments; array options (column indexes or names) compared by content. */
+    private static final class Key {
+        private final Object[] args;
+        private final int hash;
+
+        Key(Object[] args) {
+            this.args = args.clone();
+            this.hash = Arrays.deepHashCode(this.args);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && hash == other.hash && Arrays.deepEquals(args, other.args);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package org.example.jdbc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind for inserts and updates: callers queue a write and get a
+ * future, background threads send the writes as JDBC batches.
+ *
+ * Writes are spread over {@code partitions} queues by key, each drained by its
+ * own thread, so writes with the same key are applied in submission order;
+ * across keys there is no ordering. A flush starts with the first write taken
+ * and goes when {@code batchSize} writes are collected or {@code flushIntervalMs}
+ * has passed. Writes of a flush are grouped into one batch per SQL text, as far
+ * as that keeps each key's writes in order, and committed in one transaction.
+ * If the transaction fails it is rolled back and its writes are retried one
+ * at a time, so only the bad rows' futures fail. That includes driver or
+ * binding errors that are not SQLExceptions; if one still escapes a flush,
+ * the rest of that flush fails with it and the flusher carries on.
+ *
+ * Backpressure: a full queue blocks {@link #submit} for at most
+ * {@code enqueueTimeoutMs}, then the write is rejected with
+ * {@link RejectedExecutionException}. {@link #close()} stops accepting writes
+ * and flushes everything already queued; an idle flusher notices within
+ * {@link #IDLE_POLL_MS}.
+ */
+public class WriteBehindWriter implements AutoCloseable {
+    private static final Logger logger = Logger.getLogger(WriteBehindWriter.class.getName());
+    /** How long an idle flusher waits for a write before checking for close(). */
+    private static final long IDLE_POLL_MS = 10;
+
+    private final DataSource dataSource;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final long enqueueTimeoutMs;
+    private final List<BlockingQueue<Write>> queues = new ArrayList<>();
+    private final List<Thread> flushers = new ArrayList<>();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+    private volatile boolean closed;
+
+    public WriteBehindWriter(DataSource dataSource, int partitions, int capacity, int batchSize,
+                             long flushIntervalMs, long enqueueTimeoutMs) {
+        if (partitions < 1 || batchSize < 1 || capacity < partitions) {
+            throw new IllegalArgumentException("Need partitions >= 1, batchSize >= 1 and capacity >= partitions");
+        }
+        this.dataSource = dataSource;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        for (int i = 0; i < partitions; i++) {
+            BlockingQueue<Write> queue = new ArrayBlockingQueue<>(capacity / partitions);
+            queues.add(queue);
+            Thread flusher = new Thread(() -> drain(queue), "write-behind-" + i);
+            flusher.setDaemon(true);
+            flushers.add(flusher);
+            flusher.start();
+        }
+    }
+
+    /**
+     * Queues {@code sql} with its parameters. The future completes with the
+     * update count once the write is committed, or exceptionally with the
+     * exception of that write. The key picks the partition and must not be null.
+     */
+    public CompletableFuture<Integer> submit(String sql, Object key, Object... params) {
+        if (key == null) throw new IllegalArgumentException("A write needs a key to pick its partition");
+        if (closed) throw new RejectedExecutionException("Write-behind writer is closed");
+        Write write = new Write(sql, key, params, new CompletableFuture<>());
+        BlockingQueue<Write> queue = queues.get(Math.floorMod(key.hashCode(), queues.size()));
+        try {
+            if (!queue.offer(write, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new RejectedExecutionException("Write-behind queue full for " + enqueueTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while queueing a write", e);
+        }
+        return write.done;
+    }
+
+    private void drain(BlockingQueue<Write> queue) {
+        List<Write> pending = new ArrayList<>(batchSize);
+        while (!closed || !queue.isEmpty()) {
+            try {
+                Write first = queue.poll(IDLE_POLL_MS, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                pending.add(first);
+                long deadline = System.nanoTime() + flushIntervalNanos;
+                while (pending.size() < batchSize) {
+                    if (queue.drainTo(pending, batchSize - pending.size()) > 0) continue;
+                    long left = deadline - System.nanoTime();
+                    Write next = left > 0 && !closed ? queue.poll(left, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) break;
+                    pending.add(next);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                queue.drainTo(pending);
+            }
+            if (!pending.isEmpty()) {
+                try {
+                    flush(pending);
+                } catch (RuntimeException e) {
+                    logger.warning("[WriteBehind] flush of " + pending.size() + " writes failed: " + e);
+                    for (Write write : pending) {
+                        if (!write.done.isDone()) fail(write, e);
+                    }
+                }
+                pending.clear();
+            }
+            if (Thread.currentThread().isInterrupted()) return;
+        }
+    }
+
+    private void flush(List<Write> writes) {
+        flushes.increment();
+        try (Connection connection = dataSource.getConnection()) {
+            List<int[]> counts = new ArrayList<>();
+            List<List<Write>> groups = null;
+            try {
+                connection.setAutoCommit(false);
+                groups = group(writes);
+                for (List<Write> group : groups) {
+                    counts.add(executeBatch(connection, group));
+                }
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                groups = null;
+                connection.rollback();
+                logger.fine("[WriteBehind] batch of " + writes.size() + " failed, retrying one by one: " + e.getMessage());
+            } finally {
+                connection.setAutoCommit(true);
+            }
+            if (groups != null) {
+                for (int g = 0; g < groups.size(); g++) {
+                    List<Write> group = groups.get(g);
+                    for (int i = 0; i < group.size(); i++) {
+                        complete(group.get(i), counts.get(g)[i]);
+                    }
+                }
+                return;
+            }
+            for (Write write : writes) {
+                try (PreparedStatement ps = connection.prepareStatement(write.sql)) {
+                    bind(ps, write.params);
+                    complete(write, ps.executeUpdate());
+                } catch (SQLException | RuntimeException e) {
+                    fail(write, e);
+                }
+            }
+        } catch (SQLException e) {
+            // no connection at all
+            for (Write write : writes) {
+                if (!write.done.isDone()) fail(write, e);
+            }
+        }
+    }
+
+    /**
+     * One group per SQL text, in first-seen order; a write only joins an
+     * earlier group if no later group already holds a write with its key.
+     */
+    private static List<List<Write>> group(List<Write> writes) {
+        List<List<Write>> groups = new ArrayList<>();
+        Map<String, Integer> groupOfSql = new HashMap<>();
+        Map<Object, Integer> lastGroupOfKey = new HashMap<>();
+        for (Write write : writes) {
+            Integer index = groupOfSql.get(write.sql);
+            Integer keyGroup = lastGroupOfKey.get(write.key);
+            if (index == null || (keyGroup != null && keyGroup > index)) {
+                index = groups.size();
+                groups.add(new ArrayList<>());
+                groupOfSql.put(write.sql, index);
+            }
+            groups.get(index).add(write);
+            lastGroupOfKey.put(write.key, index);
+        }
+        return groups;
+    }
+
+    private int[] executeBatch(Connection connection, List<Write> group) throws SQLException {
+        try (PreparedStatement ps = connection.prepareStatement(group.get(0).sql)) {
+            for (Write write : group) {
+                bind(ps, write.params);
+                ps.addBatch();
+            }
+            batches.increment();
+            return ps.executeBatch();
+        }
+    }
+
+    private static void bind(PreparedStatement ps, Object[] params) throws SQLException {
+        for (int i = 0; i < params.length; i++) {
+            ps.setObject(i + 1, params[i]);
+        }
+    }
+
+    private void complete(Write write, int count) {
+        written.increment();
+        write.done.complete(count);
+    }
+
+    private void fail(Write write, Exception e) {
+        failed.increment();
+        write.done.completeExceptionally(e);
+    }
+
+    public int getQueued() {
+        int queued = 0;
+        for (BlockingQueue<Write> queue : queues) {
+            queued += queue.size();
+        }
+        return queued;
+    }
+
+    public String report() {
+        long flushes = this.flushes.sum();
+        return "written=" + written.sum() + " failed=" + failed.sum() + " flushes=" + flushes + " batches="
+                + batches.sum() + " queued=" + getQueued()
+                + String.format(" avgFlush=%.1f", flushes == 0 ? 0.0 : (double) (written.sum() + failed.sum()) / flushes);
+    }
+
+    /** Stops taking writes and waits until everything queued is flushed. */
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        // no interrupts: a flush in progress must not be cut off mid-statement
+        for (Thread flusher : flushers) {
+            try {
+                flusher.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        // raced past the closed check in submit() after its flusher finished
+        List<Write> stranded = new ArrayList<>();
+        for (BlockingQueue<Write> queue : queues) {
+            queue.drainTo(stranded);
+        }
+        for (Write write : stranded) {
+            write.done.completeExceptionally(new RejectedExecutionException("Write-behind writer is closed"));
+        }
+        logger.info("[WriteBehind] closed: " + report());
+    }
+
+    private record Write(String sql, Object key, Object[] params, CompletableFuture<Integer> done) {
+    }
+}
@@ -0,0 +1,174 @@
+package org.example.context;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanCurrentlyInCreationException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.config.RuntimeBeanReference;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.beans.factory.support.ManagedList;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Parallel refresh: dependency order, concurrency and cross-thread cycles.
+ */
+public class ConcurrentSingletonBeanFactoryTest
+    extends TestCase
+{
+    public ConcurrentSingletonBeanFactoryTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( ConcurrentSingletonBeanFactoryTest.class );
+    }
+
+    public void testDependenciesAreCreatedFirstAndIndependentBeansInParallel()
+    {
+        Node.reset();
+        ParallelRefreshApplicationContext ctx =
+                new ParallelRefreshApplicationContext(new ConcurrentSingletonBeanFactory(4, 10_000));
+        ctx.registerBeanDefinition("a", node());
+        ctx.registerBeanDefinition("b", node("a"));
+        GenericBeanDefinition c = node();
+        c.setDependsOn("b");
+        ctx.registerBeanDefinition("c", c);
+        ctx.registerBeanDefinition("d", node());
+        ctx.registerBeanDefinition("e", node());
+        ctx.refresh();
+        try {
+            assertEquals(5, Node.finished.size());
+            assertTrue("a before b", Node.finished.get("a") <= Node.started.get("b"));
+            assertTrue("b before c", Node.finished.get("b") <= Node.started.get("c"));
+            assertTrue("independent beans overlapped", Node.maxRunning.get() > 1);
+            assertTrue("worker threads used", Node.threads.size() > 1);
+            assertSame(ctx.getBean("a"), ctx.getBean("b", Node.class).deps.get(0));
+        } finally {
+            ctx.close();
+        }
+    }
+
+    public void testCycleAcrossThreadsFailsFast()
+    {
+        Node.reset();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Node.meetBeforeLookup = bothStarted;
+        ParallelRefreshApplicationContext ctx =
+                new ParallelRefreshApplicationContext(new ConcurrentSingletonBeanFactory(4, 30_000));
+        // the graph sees two independent beans; only their init methods know better
+        GenericBeanDefinition x = node();
+        x.getPropertyValues().add("lookup", "y");
+        ctx.registerBeanDefinition("x", x);
+        GenericBeanDefinition y = node();
+        y.getPropertyValues().add("lookup", "x");
+        ctx.registerBeanDefinition("y", y);
+
+        long start = System.nanoTime();
+        try {
+            ctx.refresh();
+            fail("refresh should fail on the x <-> y cycle");
+        } catch (BeansException e) {
+            long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertTrue("failed after " + millis + " ms", millis < 5_000);
+            BeanCurrentlyInCreationException cycle = findCause(e, BeanCurrentlyInCreationException.class);
+            assertNotNull("no cycle reported: " + e, cycle);
+            assertTrue(cycle.getMessage(), cycle.getMessage().contains("cycle across creation threads"));
+            assertTrue(cycle.getMessage(), cycle.getMessage().contains("'x'") && cycle.getMessage().contains("'y'"));
+        } finally {
+            Node.meetBeforeLookup = null;
+        }
+    }
+
+    private static <T extends Throwable> T findCause(Throwable e, Class<T> type) {
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (type.isInstance(t)) return type.cast(t);
+        }
+        return null;
+    }
+
+    private static GenericBeanDefinition node(String... deps) {
+        GenericBeanDefinition bd = new GenericBeanDefinition();
+        bd.setBeanClass(Node.class);
+        bd.setInitMethodName("init");
+        ManagedList<RuntimeBeanReference> refs = new ManagedList<>();
+        for (String dep : deps) {
+            refs.add(new RuntimeBeanReference(dep));
+        }
+        bd.getConstructorArgumentValues().addGenericArgumentValue(refs);
+        return bd;
+    }
+
+    public static class Node implements BeanNameAware, BeanFactoryAware {
+        static final Map<String, Long> started = new ConcurrentHashMap<>();
+        static final Map<String, Long> finished = new ConcurrentHashMap<>();
+        static final Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        static final AtomicInteger running = new AtomicInteger();
+        static final AtomicInteger maxRunning = new AtomicInteger();
+        static volatile CountDownLatch meetBeforeLookup;
+
+        final List<Node> deps;
+        private String name;
+        private BeanFactory beanFactory;
+        private String lookup;
+
+        public Node(List<Node> deps) {
+            this.deps = deps;
+        }
+
+        static void reset() {
+            started.clear();
+            finished.clear();
+            threads.clear();
+            running.set(0);
+            maxRunning.set(0);
+        }
+
+        @Override
+        public void setBeanName(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public void setBeanFactory(BeanFactory beanFactory) {
+            this.beanFactory = beanFactory;
+        }
+
+        public void setLookup(String lookup) {
+            this.lookup = lookup;
+        }
+
+        public void init() throws InterruptedException {
+            started.putIfAbsent(name, System.nanoTime());
+            threads.add(Thread.currentThread());
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                if (lookup != null) {
+                    CountDownLatch meet = meetBeforeLookup;
+                    if (meet != null) {
+                        meet.countDown();
+                        meet.await(5, TimeUnit.SECONDS);
+                    }
+                    beanFactory.getBean(lookup);
+                } else {
+                    Thread.sleep(100);
+                }
+            } finally {
+                running.decrementAndGet();
+                finished.putIfAbsent(name, System.nanoTime());
+            }
+        }
+    }
+}
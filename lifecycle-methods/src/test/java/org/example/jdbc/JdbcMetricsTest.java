@@ -0,0 +1,186 @@
+package org.example.jdbc;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+/**
+ * Statement metrics recorded through the pool, including the row counting
+ * result sets, against an in-memory H2 database.
+ */
+public class JdbcMetricsTest
+    extends TestCase
+{
+    private PooledDataSource pool;
+    private JdbcMetrics metrics;
+
+    public JdbcMetricsTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( JdbcMetricsTest.class );
+    }
+
+    private void start(long slowQueryMs, int maxFingerprints) throws SQLException {
+        metrics = new JdbcMetrics(slowQueryMs, 10, maxFingerprints);
+        pool = new PooledDataSource("jdbc:h2:mem:" + getName() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        pool.setMinIdle(0);
+        pool.setMaxSize(1);
+        pool.setMetrics(metrics);
+        pool.start();
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE book (id INT PRIMARY KEY, title VARCHAR(100))");
+        }
+    }
+
+    @Override
+    protected void tearDown() {
+        if (pool != null) pool.close();
+    }
+
+    private JdbcMetrics.SqlStats.Snapshot stats(String fingerprint) {
+        for (JdbcMetrics.SqlStats.Snapshot stats : metrics.snapshot().statements()) {
+            if (stats.fingerprint().equals(fingerprint)) return stats;
+        }
+        fail("no stats for " + fingerprint + " in " + metrics.snapshot().statements());
+        return null;
+    }
+
+    private void insertBooks(int count) throws SQLException {
+        try (Connection connection = pool.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO book VALUES (?, ?)")) {
+            for (int i = 1; i <= count; i++) {
+                insert.setInt(1, i);
+                insert.setString(2, "Book " + i);
+                assertEquals(1, insert.executeUpdate());
+            }
+        }
+    }
+
+    public void testUpdatesCountExecutionsAndRows() throws SQLException
+    {
+        start(60_000, 100);
+        insertBooks(3);
+
+        JdbcMetrics.SqlStats.Snapshot insert = stats("INSERT INTO book VALUES (?+)");
+        assertEquals(3, insert.latency().count());
+        assertEquals(3, insert.rows());
+        assertEquals(0, insert.errors());
+        assertEquals(0, insert.slow());
+        // start() and insertBooks() borrowed once each
+        assertEquals(2, metrics.snapshot().borrowWait().count());
+    }
+
+    public void testRowsReadAreCountedOnceWhenExhaustedAndClosed() throws SQLException
+    {
+        start(60_000, 100);
+        insertBooks(3);
+        try (Connection connection = pool.getConnection();
+             PreparedStatement query = connection.prepareStatement("SELECT title FROM book ORDER BY id")) {
+            try (ResultSet rows = query.executeQuery()) {
+                while (rows.next()) {
+                    assertTrue(rows.getString(1).startsWith("Book "));
+                }
+                assertFalse(rows.next());
+            }
+            assertEquals(3, stats("SELECT title FROM book ORDER BY id").rows());
+        }
+    }
+
+    public void testPartlyReadResultSetCountsWhatWasReadOnClose() throws SQLException
+    {
+        start(60_000, 100);
+        insertBooks(3);
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            ResultSet rows = statement.executeQuery("SELECT id FROM book");
+            assertTrue(rows.next());
+            assertEquals(0, stats("SELECT id FROM book").rows());
+            rows.close();
+            rows.close();
+            assertEquals(1, stats("SELECT id FROM book").rows());
+            assertSame(statement, rows.getStatement());
+        }
+    }
+
+    public void testStatementsDifferingInLiteralsShareAFingerprint() throws SQLException
+    {
+        start(60_000, 100);
+        insertBooks(2);
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT title FROM book WHERE id = 1").close();
+            statement.executeQuery("SELECT title FROM book WHERE id = 2").close();
+        }
+        assertEquals(2, stats("SELECT title FROM book WHERE id = ?").latency().count());
+    }
+
+    public void testFailedExecutionsCountAsErrors() throws SQLException
+    {
+        start(60_000, 100);
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("INSERT INTO book VALUES (1, 'first')");
+            try {
+                statement.executeUpdate("INSERT INTO book VALUES (1, 'duplicate')");
+                fail("duplicate primary key");
+            } catch (SQLException expected) {
+                // counted below
+            }
+        }
+        JdbcMetrics.SqlStats.Snapshot insert = stats("INSERT INTO book VALUES (?+)");
+        assertEquals(2, insert.latency().count());
+        assertEquals(1, insert.errors());
+        assertEquals(1, insert.rows());
+    }
+
+    public void testFingerprintsBeyondTheLimitAreCountedAsOther() throws SQLException
+    {
+        // the CREATE TABLE in start() takes the first of the two
+        start(60_000, 2);
+        try (Connection connection = pool.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.executeQuery("SELECT COUNT(*) FROM book").close();
+            statement.executeQuery("SELECT MAX(id) FROM book").close();
+            statement.executeQuery("SELECT MIN(id) FROM book").close();
+        }
+        assertEquals(1, stats("SELECT COUNT(*) FROM book").latency().count());
+        assertEquals(2, stats(JdbcMetrics.OTHER).latency().count());
+        assertEquals(3, metrics.snapshot().statements().size());
+    }
+
+    public void testSlowQueriesRedactParametersUnlessRevealed() throws SQLException
+    {
+        start(0, 100);
+        try (Connection connection = pool.getConnection();
+             PreparedStatement insert = connection.prepareStatement("INSERT INTO book VALUES (?, ?)")) {
+            insert.setInt(1, 1);
+            insert.setString(2, "secret");
+            insert.executeUpdate();
+            metrics.setRevealParameters(true);
+            insert.setInt(1, 2);
+            insert.setString(2, "shown");
+            insert.executeUpdate();
+        }
+        boolean sawRedacted = false;
+        boolean sawRevealed = false;
+        for (JdbcMetrics.SlowQuery query : metrics.snapshot().slowQueries()) {
+            if (query.parameters().equals(List.of("Integer", "String(6)"))) sawRedacted = true;
+            if (query.parameters().equals(List.of("2", "shown"))) sawRevealed = true;
+        }
+        assertTrue(sawRedacted);
+        assertTrue(sawRevealed);
+        assertEquals(2, stats("INSERT INTO book VALUES (?+)").slow());
+    }
+}
@@ -0,0 +1,202 @@
+package org.example.jdbc;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.sql.Connection;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+/**
+ * Connection pool against an in-memory H2 database.
+ */
+public class PooledDataSourceTest
+    extends TestCase
+{
+    private PooledDataSource pool;
+
+    public PooledDataSourceTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( PooledDataSourceTest.class );
+    }
+
+    private PooledDataSource start(int maxSize) {
+        pool = new PooledDataSource("jdbc:h2:mem:" + getName() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        pool.setMinIdle(0);
+        pool.setMaxSize(maxSize);
+        pool.setConnectionTimeoutMs(5_000);
+        pool.start();
+        return pool;
+    }
+
+    @Override
+    protected void tearDown() {
+        if (pool != null) pool.close();
+    }
+
+    public void testIsolationLevelIsRestoredOnReturn() throws SQLException
+    {
+        start(1);
+        int initial;
+        try (Connection connection = pool.getConnection()) {
+            initial = connection.getTransactionIsolation();
+            connection.setAutoCommit(false);
+            connection.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+        }
+        try (Connection connection = pool.getConnection()) {
+            assertEquals(initial, connection.getTransactionIsolation());
+            assertTrue(connection.getAutoCommit());
+        }
+        assertEquals(1, pool.getIdle());
+    }
+
+    public void testStatementsDoNotExposeThePhysicalConnection() throws SQLException
+    {
+        start(1);
+        try (Connection connection = pool.getConnection()) {
+            try (Statement statement = connection.createStatement();
+                 ResultSet rows = statement.executeQuery("SELECT 1")) {
+                assertSame(connection, statement.getConnection());
+                assertSame(statement, rows.getStatement());
+            }
+            try (PreparedStatement statement = connection.prepareStatement("SELECT ?")) {
+                assertSame(connection, statement.getConnection());
+            }
+            assertSame(connection, connection.prepareCall("SELECT 1").getConnection());
+            assertSame(connection, connection.getMetaData().getConnection());
+        }
+    }
+
+    public void testBorrowersWaitingForAFullPoolAllGetServed() throws Exception
+    {
+        start(2);
+        int threads = 8;
+        int borrowsEach = 200;
+        AtomicInteger queries = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                done.add(workers.submit(() -> {
+                    for (int i = 0; i < borrowsEach; i++) {
+                        try (Connection connection = pool.getConnection();
+                             Statement statement = connection.createStatement();
+                             ResultSet rows = statement.executeQuery("SELECT 1")) {
+                            rows.next();
+                            queries.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : done) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            workers.shutdownNow();
+        }
+        assertEquals(threads * borrowsEach, queries.get());
+        assertTrue("pool grew past maxSize: " + pool.getTotal(), pool.getTotal() <= 2);
+        assertEquals(0, pool.getWaiting());
+        assertEquals(0, pool.getActive());
+    }
+
+    public void testDriverRuntimeExceptionDoesNotLeakASlot() throws SQLException
+    {
+        BrokenDriver driver = new BrokenDriver("jdbc:h2:mem:" + getName() + ";DB_CLOSE_DELAY=-1");
+        DriverManager.registerDriver(driver);
+        try {
+            pool = new PooledDataSource(BrokenDriver.PREFIX + getName(), "sa", "");
+            pool.setMinIdle(0);
+            pool.setMaxSize(1);
+            pool.setConnectionTimeoutMs(5_000);
+            pool.start();
+            try {
+                pool.getConnection().close();
+                fail("the driver threw on connect");
+            } catch (SQLException expected) {
+                assertTrue(expected.getCause() instanceof SQLException);
+                assertTrue(expected.getCause().getCause() instanceof IllegalStateException);
+            }
+
+            // with the only slot leaked this would time out
+            driver.broken = false;
+            try (Connection connection = pool.getConnection()) {
+                assertTrue(connection.isValid(1));
+            }
+            assertEquals(1, pool.getIdle());
+        } finally {
+            DriverManager.deregisterDriver(driver);
+        }
+    }
+
+    /** Throws an unchecked exception from connect() until repaired, then opens an H2 connection. */
+    static final class BrokenDriver implements Driver {
+        static final String PREFIX = "jdbc:broken:";
+
+        private final String target;
+        volatile boolean broken = true;
+
+        BrokenDriver(String target) {
+            this.target = target;
+        }
+
+        @Override
+        public Connection connect(String url, Properties info) throws SQLException {
+            if (!acceptsURL(url)) return null;
+            if (broken) throw new IllegalStateException("driver bug");
+            return DriverManager.getConnection(target, info);
+        }
+
+        @Override
+        public boolean acceptsURL(String url) {
+            return url.startsWith(PREFIX);
+        }
+
+        @Override
+        public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+            return new DriverPropertyInfo[0];
+        }
+
+        @Override
+        public int getMajorVersion() {
+            return 1;
+        }
+
+        @Override
+        public int getMinorVersion() {
+            return 0;
+        }
+
+        @Override
+        public boolean jdbcCompliant() {
+            return false;
+        }
+
+        @Override
+        public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+            throw new SQLFeatureNotSupportedException();
+        }
+    }
+}
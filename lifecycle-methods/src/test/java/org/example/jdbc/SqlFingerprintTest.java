@@ -0,0 +1,58 @@
+package org.example.jdbc;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+/**
+ * SQL normalisation used to group statement metrics.
+ */
+public class SqlFingerprintTest
+    extends TestCase
+{
+    public SqlFingerprintTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( SqlFingerprintTest.class );
+    }
+
+    public void testLiteralsBecomePlaceholders()
+    {
+        assertEquals("SELECT * FROM book WHERE id = ? AND title = ? AND price > ?",
+                SqlFingerprint.of("SELECT * FROM book WHERE id = 42 AND title = 'Emma' AND price > 9.99"));
+    }
+
+    public void testEscapedQuoteStaysInsideTheLiteral()
+    {
+        assertEquals("SELECT id FROM author WHERE name = ? AND id > ?",
+                SqlFingerprint.of("SELECT id FROM author WHERE name = 'O''Brien' AND id > 7"));
+    }
+
+    public void testDigitsInIdentifiersAreKept()
+    {
+        assertEquals("SELECT col_2 FROM t1 WHERE x$3 = ?", SqlFingerprint.of("SELECT col_2 FROM t1 WHERE x$3 = 3"));
+    }
+
+    public void testWhitespaceIsCollapsed()
+    {
+        assertEquals("SELECT a FROM t WHERE b = ?", SqlFingerprint.of("  SELECT a\n\tFROM   t\r\n WHERE b = ?  "));
+    }
+
+    public void testInListsShrink()
+    {
+        assertEquals("SELECT a FROM t WHERE b IN (?+)", SqlFingerprint.of("SELECT a FROM t WHERE b IN (1, 2, 3)"));
+        assertEquals("SELECT a FROM t WHERE b IN (?+)", SqlFingerprint.of("SELECT a FROM t WHERE b IN ('x','y')"));
+        assertEquals("SELECT a FROM t WHERE b IN (?+)", SqlFingerprint.of("SELECT a FROM t WHERE b IN (?, ?)"));
+        assertEquals("SELECT a FROM t WHERE b IN (?)", SqlFingerprint.of("SELECT a FROM t WHERE b IN (5)"));
+    }
+
+    public void testStatementsDifferingOnlyInLiteralsShareAFingerprint()
+    {
+        assertEquals(SqlFingerprint.of("UPDATE book SET stock = 1 WHERE isbn = '978-0'"),
+                SqlFingerprint.of("UPDATE book  SET stock = 250 WHERE isbn = '978-1-4028-9462-6'"));
+    }
+}
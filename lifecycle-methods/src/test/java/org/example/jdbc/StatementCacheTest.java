@@ -0,0 +1,98 @@
+package org.example.jdbc;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Prepared statement cache of the pool, with and without statement metrics.
+ */
+public class StatementCacheTest
+    extends TestCase
+{
+    private PooledDataSource pool;
+
+    public StatementCacheTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( StatementCacheTest.class );
+    }
+
+    private PooledDataSource start(boolean metrics) {
+        pool = new PooledDataSource("jdbc:h2:mem:" + getName() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        pool.setMinIdle(0);
+        pool.setMaxSize(1);
+        pool.setStatementCacheSize(4);
+        if (metrics) {
+            pool.setMetrics(new JdbcMetrics(200, 50, 500));
+        }
+        pool.start();
+        return pool;
+    }
+
+    @Override
+    protected void tearDown() {
+        if (pool != null) pool.close();
+    }
+
+    public void testSameSqlPreparedTwiceWithoutMetrics() throws SQLException
+    {
+        start(false);
+        assertSameSqlPreparedTwiceReportsThePooledConnection();
+    }
+
+    public void testSameSqlPreparedTwiceWithMetrics() throws SQLException
+    {
+        start(true);
+        assertSameSqlPreparedTwiceReportsThePooledConnection();
+    }
+
+    public void testClosedStatementIsReused() throws SQLException
+    {
+        start(false);
+        try (Connection connection = pool.getConnection()) {
+            connection.prepareStatement("SELECT 1").close();
+            PreparedStatement again = connection.prepareStatement("SELECT 1");
+            assertEquals(0.5, pool.getStatementCacheHitRate(), 1e-9);
+            again.close();
+            assertTrue(again.isClosed());
+        }
+    }
+
+    private void assertSameSqlPreparedTwiceReportsThePooledConnection() throws SQLException
+    {
+        try (Connection connection = pool.getConnection()) {
+            PreparedStatement cached = connection.prepareStatement("SELECT ?");
+            PreparedStatement busy = connection.prepareStatement("SELECT ?");
+            assertNotSame(cached, busy);
+            for (PreparedStatement statement : new PreparedStatement[] {cached, busy}) {
+                assertSame(connection, statement.getConnection());
+                statement.setInt(1, 42);
+                try (ResultSet rows = statement.executeQuery()) {
+                    assertTrue(rows.next());
+                    assertEquals(42, rows.getInt(1));
+                    assertSame(connection, rows.getStatement().getConnection());
+                }
+            }
+            busy.close();
+            cached.close();
+            assertTrue(busy.isClosed());
+            assertTrue(cached.isClosed());
+
+            // the cached statement went back; the one prepared while it was busy did not replace it
+            try (PreparedStatement reused = connection.prepareStatement("SELECT ?")) {
+                assertSame(connection, reused.getConnection());
+            }
+            assertEquals(1.0 / 3, pool.getStatementCacheHitRate(), 1e-9);
+        }
+    }
+}
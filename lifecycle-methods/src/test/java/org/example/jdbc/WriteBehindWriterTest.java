@@ -0,0 +1,87 @@
+package org.example.jdbc;
+
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Write-behind against an in-memory H2 database behind the pool.
+ */
+public class WriteBehindWriterTest
+    extends TestCase
+{
+    private PooledDataSource pool;
+
+    public WriteBehindWriterTest( String testName )
+    {
+        super( testName );
+    }
+
+    public static Test suite()
+    {
+        return new TestSuite( WriteBehindWriterTest.class );
+    }
+
+    @Override
+    protected void setUp() throws Exception {
+        pool = new PooledDataSource("jdbc:h2:mem:" + getName() + ";DB_CLOSE_DELAY=-1", "sa", "");
+        pool.setMinIdle(0);
+        pool.setMaxSize(2);
+        pool.start();
+        try (Connection connection = pool.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE item (id INT PRIMARY KEY, name VARCHAR(20))");
+        }
+    }
+
+    @Override
+    protected void tearDown() {
+        pool.close();
+    }
+
+    public void testNullKeyIsRejected()
+    {
+        try (WriteBehindWriter writer = new WriteBehindWriter(pool, 1, 16, 8, 5, 1_000)) {
+            writer.submit("INSERT INTO item VALUES (?, ?)", null, 1, "a");
+            fail("null key accepted");
+        } catch (IllegalArgumentException expected) {
+            // partition cannot be picked
+        }
+    }
+
+    public void testRuntimeExceptionFailsTheFlushAndTheFlusherCarriesOn() throws Exception
+    {
+        AtomicBoolean broken = new AtomicBoolean(true);
+        DataSource flaky = (DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("getConnection") && broken.getAndSet(false)) {
+                        throw new IllegalStateException("driver bug");
+                    }
+                    try {
+                        return method.invoke(pool, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        try (WriteBehindWriter writer = new WriteBehindWriter(flaky, 1, 16, 8, 5, 1_000)) {
+            CompletableFuture<Integer> first = writer.submit("INSERT INTO item VALUES (?, ?)", 1, 1, "a");
+            try {
+                first.get(5, TimeUnit.SECONDS);
+                fail("write through a failing data source succeeded");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof IllegalStateException);
+            }
+            CompletableFuture<Integer> second = writer.submit("INSERT INTO item VALUES (?, ?)", 2, 2, "b");
+            assertEquals(Integer.valueOf(1), second.get(5, TimeUnit.SECONDS));
+        }
+    }
+}
@@ -0,0 +1,17 @@
+#!/usr/bin/env bash
+# Startup with and without a module's AppCDS archive, fresh JVM per run:
+# time from JVM start to the first getBean, RSS at that point and peak RSS.
+# Usage: scripts/cds-bench.sh <module> [runs=5]
+set -euo pipefail
+. "$(dirname "$0")/cds-env.sh"
+RUNS="${2:-5}"
+cd "$MODULE_DIR"
+
+probe() {
+    # shellcheck disable=SC2086 # cds.probe is two words: context and bean type
+    "$JAVA" "$@" -cp "$CP" org.example.bench.StartupProbe $PROBE 2>/dev/null | tail -n 1
+}
+
+for i in $(seq "$RUNS"); do
+    echo "[CDS] $MODULE run $i  without: $(probe -Xshare:auto)  |  with: $(probe -XX:SharedArchiveFile="$ARCHIVE")"
+done
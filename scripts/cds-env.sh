@@ -0,0 +1,24 @@
+# Shared by run-cds.sh and cds-bench.sh; the first argument names the module (aop, basics, spring-di).
+# Needs a `mvn -Pcds package -DskipTests -pl <module> -am` build from the root.
+# The archive only works with the JDK and classpath it was dumped with.
+MODULE="${1:?usage: $(basename "$0") <module> [args...]}"
+MODULE_DIR="$(cd "$(dirname "${BASH_SOURCE[0]}")/.." && pwd)/$MODULE"
+JAVA="${JAVA_HOME:+$JAVA_HOME/bin/}java"
+ARCHIVE="$MODULE_DIR/target/app-cds.jsa"
+
+# entry point and probe arguments come from the module's pom
+pom_property() {
+    sed -n "s:.*<$1>\(.*\)</$1>.*:\1:p" "$MODULE_DIR/pom.xml" | head -n 1
+}
+MAIN_CLASS="$(pom_property cds.mainClass)"
+PROBE="$(pom_property cds.probe)"
+
+if [ -z "$MAIN_CLASS" ]; then
+    echo "$MODULE has no AppCDS entry point (cds.mainClass in $MODULE/pom.xml)" >&2
+    exit 1
+fi
+if [ ! -f "$ARCHIVE" ]; then
+    echo "no $ARCHIVE: build it with mvn -Pcds package -DskipTests -pl $MODULE -am" >&2
+    exit 1
+fi
+CP="$(ls "$MODULE_DIR"/target/"$MODULE"-*.jar | head -n 1):$(cat "$MODULE_DIR/target/cds-classpath.txt")"
@@ -0,0 +1,8 @@
+#!/usr/bin/env bash
+# Runs a module's AppCDS entry point with the archive from the cds profile.
+# Usage: scripts/run-cds.sh <module> [app args...]
+set -euo pipefail
+. "$(dirname "$0")/cds-env.sh"
+shift
+cd "$MODULE_DIR"
+exec "$JAVA" -XX:SharedArchiveFile="$ARCHIVE" -cp "$CP" "$MAIN_CLASS" "$@"
@@ -0,0 +1,80 @@
+package org.example.bench;
+
+import org.example.SpringConfig;
+import org.example.config.DemoConfig;
+import org.example.context.PrototypeFastPathBeanFactory;
+import org.example.demo.PrototypeThing;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.GenericBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * drill: prototype getBean throughput, stock factory vs
+ * {@link PrototypeFastPathBeanFactory}. Run with the GC profiler (the jmh
+ * profile does) for allocation: gc.alloc.rate.norm is bytes per getBean.
+ *
+ * Both contexts are the java-config context (scan + SpringConfig + DemoConfig,
+ * so the logging post-processors are active) plus a class-based prototype next
+ * to the @Bean-method one. The drills' output is muted in the forked JVM.
+ *
+ * mvn -Pjmh compile exec:exec@jmh (see spring-di/pom.xml)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrototypeGetBeanBenchmark {
+
+    @Param({"stock", "fastPath"})
+    public String factory;
+
+    @Param({"prototypeThing", "prototypeThingByClass"})
+    public String bean;
+
+    private AnnotationConfigApplicationContext ctx;
+    private PrintStream out;
+
+    @Setup
+    public void setUp() {
+        out = System.out;
+        System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+        ctx = new AnnotationConfigApplicationContext(
+                "fastPath".equals(factory) ? new PrototypeFastPathBeanFactory() : new DefaultListableBeanFactory());
+        ctx.scan("org.example");
+        ctx.register(SpringConfig.class, DemoConfig.class);
+        GenericBeanDefinition byClass = new GenericBeanDefinition();
+        byClass.setBeanClass(PrototypeThing.class);
+        byClass.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+        ctx.registerBeanDefinition("prototypeThingByClass", byClass);
+        ctx.refresh();
+    }
+
+    @TearDown
+    public void tearDown() {
+        ctx.close();
+        System.setOut(out);
+    }
+
+    @Benchmark
+    public Object getBean() {
+        return ctx.getBean(bean);
+    }
+}
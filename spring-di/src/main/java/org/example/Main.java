@@ -3,7 +3,10 @@ package org.example;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 import org.springframework.context.support.ClassPathXmlApplicationContext;
-import org.example.config.DemoConfig;
+import org.springframework.context.support.GenericApplicationContext;
+import org.example.aot.AppContexts;
+import org.example.pool.PooledRequest;
+import org.example.pool.PooledScopeConfigurer;
 import org.example.demo.SelfInvokeService;
 import org.springframework.aop.support.AopUtils;
 
@@ -14,11 +17,14 @@ public class Main {
 
         //---------------- Dependency Injection using java configurations ----------------
 
-        AnnotationConfigApplicationContext javaConfigCtx = new AnnotationConfigApplicationContext();
-
         // Scan components/aspects and add drill config to see lifecycle/AOP output
-        javaConfigCtx.scan("org.example");
-        javaConfigCtx.register(SpringConfig.class, DemoConfig.class);
+        // (-Dspring.aot.enabled=true uses the bean definitions generated by the aot profile instead)
+        GenericApplicationContext javaConfigCtx = AppContexts.javaConfig();
+        // -Dscope.pooled=true: prototypeThing comes from a bounded pool instead of being rebuilt per lookup
+        boolean pooled = Boolean.getBoolean("scope.pooled");
+        if (pooled) {
+            PooledScopeConfigurer.enable(javaConfigCtx).pooled("prototypeThing");
+        }
 
         System.out.println("=== REFRESH CONTEXT (JAVA CONFIG + DRILLS) ===");
         javaConfigCtx.refresh();
@@ -40,9 +46,15 @@ public class Main {
         svc.outer();
 
         System.out.println("\n=== PROTOTYPE DRILL ===");
-        Object p1 = javaConfigCtx.getBean("prototypeThing");
-        Object p2 = javaConfigCtx.getBean("prototypeThing");
-        System.out.println("prototypeThing same instance? " + (p1 == p2));
+        // One request per round: pooled instances go back when it closes, so round 2 reuses them
+        for (int round = 1; round <= (pooled ? 2 : 1); round++) {
+            try (PooledRequest request = PooledRequest.begin()) {
+                Object p1 = javaConfigCtx.getBean("prototypeThing");
+                Object p2 = javaConfigCtx.getBean("prototypeThing");
+                System.out.println("prototypeThing same instance? " + (p1 == p2)
+                        + (pooled ? " (round " + round + ": " + System.identityHashCode(p1) + ", " + System.identityHashCode(p2) + ")" : ""));
+            }
+        }
 
         System.out.println("\n=== LAZY INIT DRILL ===");
         System.out.println("Requesting lazyThing now...");
@@ -0,0 +1,77 @@
+package org.example.aot;
+
+import org.example.SpringConfig;
+import org.example.config.DemoConfig;
+import org.example.context.LookupCachingBeanFactory;
+import org.example.context.PrototypeFastPathBeanFactory;
+import org.example.infra.ProxyClassCache;
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.BeanUtils;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.util.ClassUtils;
+
+import java.nio.file.Path;
+
+/**
+ * drill: one place that builds the (not yet refreshed) application context.
+ *
+ * Reflective path: scan org.example and register the Java configs, so refresh
+ * parses @Configuration classes and CGLIB-enhances them.
+ * AOT path (-Dspring.aot.enabled=true, after a build with -Paot): apply the
+ * initializer generated by {@link AotGenerator}, which registers the same bean
+ * definitions with instance suppliers; no config parsing, no enhancement at
+ * startup.
+ * -Dproxy.cache.dir=... (reflective path only) loads the CGLIB config-class
+ * proxies from {@link ProxyClassCache} instead of regenerating them.
+ * -Dprototype.fastPath=true (either path) creates prototypes through
+ * {@link PrototypeFastPathBeanFactory}; -Dlookup.cache=true caches type lookups
+ * ({@link LookupCachingBeanFactory}).
+ */
+public final class AppContexts {
+
+    /** Initializer written by {@link AotGenerator} for the java-config context. */
+    static final String INITIALIZER = "org.example.Main__ApplicationContextInitializer";
+
+    private AppContexts() {
+    }
+
+    public static GenericApplicationContext javaConfig() {
+        return AotDetector.useGeneratedArtifacts() ? generated() : reflective();
+    }
+
+    static AnnotationConfigApplicationContext reflective() {
+        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext(beanFactory());
+        String proxyCacheDir = System.getProperty("proxy.cache.dir");
+        if (proxyCacheDir != null) {
+            ProxyClassCache cache = ProxyClassCache.install(Path.of(proxyCacheDir), ctx.getClassLoader());
+            ctx.addApplicationListener(event -> {
+                if (event instanceof ContextRefreshedEvent) System.out.println(cache.report());
+            });
+        }
+        ctx.scan("org.example");
+        ctx.register(SpringConfig.class, DemoConfig.class);
+        return ctx;
+    }
+
+    private static LookupCachingBeanFactory beanFactory() {
+        LookupCachingBeanFactory beanFactory = Boolean.getBoolean("prototype.fastPath")
+                ? new PrototypeFastPathBeanFactory() : new LookupCachingBeanFactory();
+        beanFactory.setCacheLookups(Boolean.getBoolean("lookup.cache"));
+        return beanFactory;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static GenericApplicationContext generated() {
+        GenericApplicationContext ctx = new GenericApplicationContext(beanFactory());
+        ClassLoader loader = AppContexts.class.getClassLoader();
+        if (!ClassUtils.isPresent(INITIALIZER, loader)) {
+            throw new IllegalStateException(INITIALIZER + " not found: build with -Paot or drop -Dspring.aot.enabled");
+        }
+        Class<?> type = ClassUtils.resolveClassName(INITIALIZER, loader);
+        ((ApplicationContextInitializer<GenericApplicationContext>) BeanUtils.instantiateClass(type)).initialize(ctx);
+        return ctx;
+    }
+}
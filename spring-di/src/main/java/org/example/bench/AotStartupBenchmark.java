@@ -0,0 +1,66 @@
+package org.example.bench;
+
+import org.example.Student;
+import org.example.aot.AppContexts;
+import org.springframework.context.support.GenericApplicationContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * drill: startup of the java-config context, reflective vs AOT-generated definitions.
+ *
+ * Each run is a fresh JVM (class loading is most of the cost), alternating
+ * the reflective path and -Dspring.aot.enabled=true. Needs the aot profile
+ * build (mvn -Paot process-classes) for the generated initializer.
+ *
+ * Run with the module classpath: AotStartupBenchmark [runs=5]
+ */
+public class AotStartupBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        for (int run = 1; run <= runs; run++) {
+            String reflective = probe(false);
+            String aot = probe(true);
+            System.out.println("[SPRING-AOT] run " + run + " reflective: " + reflective + " | aot: " + aot);
+        }
+    }
+
+    /** Child JVM entry point: refresh plus first getBean, with the drills' own output muted. */
+    public static class Probe {
+        public static void main(String[] args) {
+            PrintStream out = System.out;
+            System.setOut(new PrintStream(PrintStream.nullOutputStream()));
+            long start = System.nanoTime();
+            try (GenericApplicationContext ctx = AppContexts.javaConfig()) {
+                ctx.refresh();
+                ctx.getBean(Student.class);
+                long readyMs = (System.nanoTime() - start) / 1_000_000;
+                out.println("ready=" + readyMs + "ms uptime=" + ManagementFactory.getRuntimeMXBean().getUptime()
+                        + "ms classes=" + ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+            }
+        }
+    }
+
+    private static String probe(boolean aot) throws IOException, InterruptedException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        cmd.add("-Dspring.aot.enabled=" + aot);
+        cmd.add("-cp");
+        cmd.add(System.getProperty("java.class.path"));
+        cmd.add(Probe.class.getName());
+
+        Process process = new ProcessBuilder(cmd).redirectError(ProcessBuilder.Redirect.DISCARD).start();
+        String out = new String(process.getInputStream().readAllBytes()).trim();
+        if (process.waitFor() != 0 || out.isEmpty()) {
+            throw new IllegalStateException("probe failed (aot=" + aot + "); built with -Paot?");
+        }
+        return out.substring(out.lastIndexOf('\n') + 1);
+    }
+}
@@ -0,0 +1,143 @@
+package org.example.bench;
+
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+import java.util.stream.Stream;
+
+/**
+ * drill: cold start with the compile-time component index vs classpath scanning.
+ *
+ * Generates a synthetic module of N classes (every tenth one a @Component),
+ * compiles it with spring-context-indexer on the processor path so the jar
+ * carries META-INF/spring.components, then starts fresh JVMs that scan the
+ * synthetic package, once reading the index and once with
+ * -Dspring.index.ignore=true (the scanning fallback).
+ *
+ * Run with the module classpath: ComponentIndexBenchmark [classes=5000] [runs=5]
+ */
+public class ComponentIndexBenchmark {
+
+    private static final String PACKAGE = "synthetic";
+
+    public static void main(String[] args) throws Exception {
+        int classes = args.length > 0 ? Integer.parseInt(args[0]) : 5_000;
+        int runs = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path work = Files.createTempDirectory("component-index");
+        Path jar = buildModule(work, classes);
+        System.out.println("[SPRING-INDEX] synthetic module: " + classes + " classes, " + classes / 10
+                + " components -> " + jar);
+
+        for (int run = 1; run <= runs; run++) {
+            String indexed = probe(jar, false);
+            String scanned = probe(jar, true);
+            System.out.println("[SPRING-INDEX] run " + run + " index: " + indexed + " | scan: " + scanned);
+        }
+    }
+
+    /** Child JVM entry point: time to a refreshed context over the synthetic package. */
+    public static class Probe {
+        public static void main(String[] args) {
+            long start = System.nanoTime();
+            try (AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext()) {
+                ctx.scan(PACKAGE);
+                ctx.refresh();
+                long refreshMs = (System.nanoTime() - start) / 1_000_000;
+                System.out.println("refresh=" + refreshMs + "ms uptime=" + ManagementFactory.getRuntimeMXBean().getUptime()
+                        + "ms beans=" + ctx.getBeanDefinitionCount()
+                        + " classes=" + ManagementFactory.getClassLoadingMXBean().getLoadedClassCount());
+            }
+        }
+    }
+
+    private static String probe(Path jar, boolean ignoreIndex) throws IOException, InterruptedException {
+        List<String> cmd = new ArrayList<>();
+        cmd.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        if (ignoreIndex) cmd.add("-Dspring.index.ignore=true");
+        cmd.add("-cp");
+        cmd.add(jar + File.pathSeparator + System.getProperty("java.class.path"));
+        cmd.add(Probe.class.getName());
+
+        long start = System.nanoTime();
+        Process process = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+        String out = new String(process.getInputStream().readAllBytes()).trim();
+        int exit = process.waitFor();
+        long wallMs = (System.nanoTime() - start) / 1_000_000;
+        if (exit != 0) {
+            throw new IllegalStateException("probe failed (" + exit + "):\n" + out);
+        }
+        String last = out.substring(out.lastIndexOf('\n') + 1);
+        return last + " wall=" + wallMs + "ms";
+    }
+
+    private static Path buildModule(Path work, int classes) throws IOException {
+        Path src = Files.createDirectories(work.resolve("src"));
+        Path out = Files.createDirectories(work.resolve("classes"));
+        List<String> files = new ArrayList<>(classes);
+        for (int i = 0; i < classes; i++) {
+            String pkg = PACKAGE + ".p" + (i / 250);
+            Path dir = Files.createDirectories(src.resolve(pkg.replace('.', File.separatorChar)));
+            Path file = dir.resolve("C" + i + ".java");
+            Files.writeString(file, source(pkg, i));
+            files.add(file.toString());
+        }
+
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        if (javac == null) {
+            throw new IllegalStateException("needs a JDK, not a JRE");
+        }
+        List<String> options = new ArrayList<>(List.of(
+                "-d", out.toString(), "-cp", System.getProperty("java.class.path")));
+        if (Runtime.version().feature() >= 21) {
+            options.add("-proc:full"); // newer javac no longer runs classpath processors by default
+        }
+        options.addAll(files);
+        Path argFile = work.resolve("javac.args");
+        Files.write(argFile, options);
+        if (javac.run(null, null, null, "@" + argFile) != 0) {
+            throw new IllegalStateException("synthetic module did not compile");
+        }
+        if (!Files.exists(out.resolve("META-INF/spring.components"))) {
+            throw new IllegalStateException("no component index written; is spring-context-indexer on the classpath?");
+        }
+        return jar(out, work.resolve("synthetic.jar"));
+    }
+
+    private static String source(String pkg, int i) {
+        String annotation = i % 10 == 0 ? "@org.springframework.stereotype.Component\n" : "";
+        return "package " + pkg + ";\n\n" + annotation
+                + "public class C" + i + " {\n"
+                + "    private final StringBuilder state = new StringBuilder(\"C" + i + "\");\n"
+                + "    public String describe() { return state.append(':').append(hashCode()).toString(); }\n"
+                + "    public int weight(int x) { return x * " + (i % 97 + 1) + " + state.length(); }\n"
+                + "}\n";
+    }
+
+    private static Path jar(Path classes, Path target) throws IOException {
+        try (OutputStream os = Files.newOutputStream(target);
+             JarOutputStream jar = new JarOutputStream(os);
+             Stream<Path> walk = Files.walk(classes)) {
+            // directory entries too, as real jars have them: classpath*: lookups of a package root need them
+            for (Path p : (Iterable<Path>) walk.filter(p -> !p.equals(classes))::iterator) {
+                String name = classes.relativize(p).toString().replace(File.separatorChar, '/');
+                boolean dir = Files.isDirectory(p);
+                jar.putNextEntry(new JarEntry(dir ? name + "/" : name));
+                if (!dir) Files.copy(p, jar);
+                jar.closeEntry();
+            }
+        }
+        return target;
+    }
+}
@@ -5,6 +5,8 @@ import org.example.demo.PrototypeThing;
 import org.example.infra.BeanDefinitionPhaseLogger;
 import org.example.infra.DestructionLoggingPostProcessor;
 import org.example.infra.LifecycleLoggingBeanPostProcessor;
+import org.example.infra.StartupTimelineRecorder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
@@ -34,6 +36,17 @@ public class DemoConfig {
         return new DestructionLoggingPostProcessor();
     }
 
+    @Bean
+    public StartupTimelineRecorder startupTimelineRecorder() {
+        return new StartupTimelineRecorder();
+    }
+
+    // Unordered, so it runs after the auto-proxy creator and closes the proxy phase
+    @Bean
+    public BeanPostProcessor startupTimelineProxyPhaseEnd() {
+        return startupTimelineRecorder().proxyPhaseEnd();
+    }
+
     @Bean
     @Scope("prototype")
     public PrototypeThing prototypeThing() {
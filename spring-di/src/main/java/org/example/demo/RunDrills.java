@@ -1,17 +1,22 @@
 package org.example.demo;
 
-import org.example.config.DemoConfig;
+import org.example.aot.AppContexts;
+import org.example.pool.PooledRequest;
+import org.example.pool.PooledScopeConfigurer;
 import org.springframework.aop.support.AopUtils;
-import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.support.GenericApplicationContext;
 
 public class RunDrills {
 
     public static void main(String[] args) {
-        AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
-
         // Scan your project (aspects/components) and register this drill config
-        ctx.scan("org.example");
-        ctx.register(DemoConfig.class);
+        // (-Dspring.aot.enabled=true uses the bean definitions generated by the aot profile instead)
+        GenericApplicationContext ctx = AppContexts.javaConfig();
+        // -Dscope.pooled=true: prototypeThing comes from a bounded pool instead of being rebuilt per lookup
+        boolean pooled = Boolean.getBoolean("scope.pooled");
+        if (pooled) {
+            PooledScopeConfigurer.enable(ctx).pooled("prototypeThing");
+        }
 
         System.out.println("=== REFRESH CONTEXT ===");
         ctx.refresh();
@@ -29,9 +34,15 @@ public class RunDrills {
         s.outer();
 
         System.out.println("\n=== PROTOTYPE DRILL ===");
-        Object p1 = ctx.getBean("prototypeThing");
-        Object p2 = ctx.getBean("prototypeThing");
-        System.out.println("prototypeThing same instance? " + (p1 == p2));
+        // One request per round: pooled instances go back when it closes, so round 2 reuses them
+        for (int round = 1; round <= (pooled ? 2 : 1); round++) {
+            try (PooledRequest request = PooledRequest.begin()) {
+                Object p1 = ctx.getBean("prototypeThing");
+                Object p2 = ctx.getBean("prototypeThing");
+                System.out.println("prototypeThing same instance? " + (p1 == p2)
+                        + (pooled ? " (round " + round + ": " + System.identityHashCode(p1) + ", " + System.identityHashCode(p2) + ")" : ""));
+            }
+        }
 
         System.out.println("\n=== LAZY INIT DRILL ===");
         System.out.println("Requesting lazyThing now...");
@@ -30,6 +30,8 @@ public class DestructionLoggingPostProcessor implements DestructionAwareBeanPost
 
     @Override
     public boolean requiresDestruction(Object bean) {
-        return true;
+        // only our own beans: a destroy callback per framework bean just slows down close()
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        return targetClass.getName().startsWith("org.example.");
     }
 }
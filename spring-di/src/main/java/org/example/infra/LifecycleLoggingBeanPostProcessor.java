@@ -6,9 +6,9 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.example.context.SelectiveBeanPostProcessor;
 import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.BeansException;
-import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.core.Ordered;
 import org.springframework.core.PriorityOrdered;
 
@@ -19,7 +19,7 @@ import org.springframework.core.PriorityOrdered;
  * Key improvement: filters using TARGET CLASS package so JDK proxies (jdk.proxy2.*)
  * still get logged when their target is org.example.*.
  */
-public class LifecycleLoggingBeanPostProcessor implements BeanPostProcessor, PriorityOrdered {
+public class LifecycleLoggingBeanPostProcessor implements SelectiveBeanPostProcessor, PriorityOrdered {
 
     private final Set<String> allowedTargetPackagePrefixes = Set.of("org.example");
 
@@ -34,6 +34,12 @@ public class LifecycleLoggingBeanPostProcessor implements BeanPostProcessor, Pri
         return Ordered.HIGHEST_PRECEDENCE;
     }
 
+    // lets the fast-path factory skip beans outside the logged packages without calling in
+    @Override
+    public boolean appliesTo(Class<?> beanType) {
+        return onlyProxies || isAllowedPackage(beanType.getPackageName());
+    }
+
     @Override
     public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
         if (!shouldLog(bean)) return bean;
@@ -60,14 +66,17 @@ public class LifecycleLoggingBeanPostProcessor implements BeanPostProcessor, Pri
                 ? targetClass.getPackage().getName()
                 : "";
 
-        boolean allowed = allowedTargetPackagePrefixes.stream().anyMatch(pkg::startsWith);
-        if (!allowed) return false;
+        if (!isAllowedPackage(pkg)) return false;
 
         if (onlyProxies && !AopUtils.isAopProxy(bean)) return false;
 
         return true;
     }
 
+    private boolean isAllowedPackage(String pkg) {
+        return allowedTargetPackagePrefixes.stream().anyMatch(pkg::startsWith);
+    }
+
     private void log(String phase, String beanName, Object bean) {
         Class<?> runtimeClass = bean.getClass();
         boolean isProxy = AopUtils.isAopProxy(bean);
@@ -0,0 +1,229 @@
+package org.example.infra;
+
+import org.springframework.cglib.core.ReflectUtils;
+import org.springframework.cglib.proxy.Callback;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.SpringVersion;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * drill: opt-in on-disk cache of the CGLIB classes generated for @Configuration classes.
+ *
+ * Spring's enhancer first tries to load the class name it is about to generate
+ * (that is how AOT-generated classes are picked up). {@link #install} defines
+ * the cached classes under those names before refresh, so the enhancer finds
+ * them instead of generating bytecode; anything it still has to generate is
+ * captured and written back.
+ *
+ * Entries live under {@code <dir>/<spring version>/} and record a hash over the
+ * target class and every non-JDK superclass and interface it inherits from
+ * (the enhanced class overrides their methods too), plus the enhancer's
+ * callback (interceptor) types. An entry whose target hierarchy or
+ * interceptor set changed is deleted at install, and the class is
+ * regenerated and re-cached during refresh. Class-based AOP proxies are not
+ * cached: their bytecode depends on the advisor chain, which is only known
+ * once the proxy is being created.
+ *
+ * Enable with -Dproxy.cache.dir=target/proxy-cache (see AppContexts).
+ */
+public final class ProxyClassCache {
+
+    private static final String MARKER = "$$SpringCGLIB$$";
+
+    private static volatile ProxyClassCache installed;
+
+    private final Path dir;
+    private final String interceptors;
+    private final AtomicInteger preloaded = new AtomicInteger();
+    private final AtomicInteger stale = new AtomicInteger();
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger generated = new AtomicInteger();
+
+    private ProxyClassCache(Path dir) {
+        this.dir = dir.resolve(String.valueOf(SpringVersion.getVersion()));
+        this.interceptors = configurationInterceptors();
+    }
+
+    /** Installs the cache once per JVM; later calls return the installed instance. */
+    public static synchronized ProxyClassCache install(Path dir, ClassLoader loader) {
+        if (installed != null) return installed;
+        ProxyClassCache cache = new ProxyClassCache(dir);
+        cache.preload(loader);
+        ReflectUtils.setGeneratedClassHandler((name, bytes) -> cache.store(name, bytes, loader));
+        ReflectUtils.setLoadedClassHandler(type -> {
+            if (type.getName().contains(MARKER)) cache.hits.incrementAndGet();
+        });
+        installed = cache;
+        return cache;
+    }
+
+    public String report() {
+        return "[SPRING-PROXY-CACHE] dir=" + dir + " preloaded=" + preloaded + " hits=" + hits
+                + " generated=" + generated + " staleRemoved=" + stale;
+    }
+
+    private void preload(ClassLoader loader) {
+        if (!Files.isDirectory(dir)) return;
+        List<Path> metas;
+        try (Stream<Path> files = Files.list(dir)) {
+            // the enhanced class before its FastClasses, so they can resolve it
+            metas = files.filter(p -> p.toString().endsWith(".properties")).sorted().collect(Collectors.toList());
+        } catch (IOException e) {
+            return;
+        }
+        for (Path meta : metas) {
+            String className = meta.getFileName().toString().replaceFirst("\\.properties$", "");
+            Path classFile = dir.resolve(className + ".class");
+            try {
+                Properties p = read(meta);
+                Class<?> target = ClassUtils.forName(p.getProperty("target"), loader);
+                if (!isCurrent(p, target) || !Files.exists(classFile)) {
+                    evict(meta, classFile);
+                    continue;
+                }
+                MethodHandles.privateLookupIn(target, MethodHandles.lookup()).defineClass(Files.readAllBytes(classFile));
+                preloaded.incrementAndGet();
+            } catch (ClassNotFoundException | IOException | IllegalAccessException | LinkageError e) {
+                // target gone, unreadable entry, or already defined in this loader: let Spring regenerate
+                evict(meta, classFile);
+            }
+        }
+    }
+
+    private boolean isCurrent(Properties p, Class<?> target) throws IOException {
+        return interceptors.equals(p.getProperty("interceptors"))
+                && hierarchySha256(target).equals(p.getProperty("targetSha256"));
+    }
+
+    private void store(String className, byte[] bytes, ClassLoader loader) {
+        generated.incrementAndGet();
+        int cut = className.indexOf(MARKER);
+        if (cut < 0) return;
+        String targetName = className.substring(0, cut);
+        try {
+            Class<?> target = ClassUtils.forName(targetName, loader);
+            if (!AnnotatedElementUtils.hasAnnotation(target, Configuration.class)) return;
+
+            Properties p = new Properties();
+            p.setProperty("target", targetName);
+            p.setProperty("targetSha256", hierarchySha256(target));
+            p.setProperty("interceptors", interceptors);
+            Files.createDirectories(dir);
+            writeAtomically(dir.resolve(className + ".class"), bytes);
+            Path meta = dir.resolve(className + ".properties");
+            Path tmp = Files.createTempFile(dir, "meta", ".tmp");
+            try (Writer w = Files.newBufferedWriter(tmp)) {
+                p.store(w, "CGLIB class for " + targetName);
+            }
+            Files.move(tmp, meta, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (ClassNotFoundException | IOException | LinkageError ignored) {
+            // caching is best effort; the generated class is in use either way
+        }
+    }
+
+    private void evict(Path meta, Path classFile) {
+        stale.incrementAndGet();
+        try {
+            Files.deleteIfExists(meta);
+            Files.deleteIfExists(classFile);
+        } catch (IOException ignored) {
+            // rewritten when the class is regenerated
+        }
+    }
+
+    /** Callback types ConfigurationClassEnhancer installs into every enhanced class. */
+    private static String configurationInterceptors() {
+        try {
+            Class<?> enhancer = ClassUtils.forName("org.springframework.context.annotation.ConfigurationClassEnhancer",
+                    ProxyClassCache.class.getClassLoader());
+            Field field = enhancer.getDeclaredField("CALLBACKS");
+            ReflectionUtils.makeAccessible(field);
+            Callback[] callbacks = (Callback[]) field.get(null);
+            return Arrays.stream(callbacks).map(c -> c.getClass().getName()).collect(Collectors.joining(","));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // unknown interceptor set: no entry will ever match, so nothing stale gets loaded
+            return "unknown-" + System.nanoTime();
+        }
+    }
+
+    private static byte[] classBytes(String className, ClassLoader loader) throws IOException {
+        try (InputStream in = loader.getResourceAsStream(ClassUtils.convertClassNameToResourcePath(className) + ".class")) {
+            if (in == null) throw new IOException("no class file for " + className);
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * Hash over the class files of the target, its superclasses and all the
+     * interfaces they implement, in a fixed order. JDK types are left out: the
+     * class files may not be readable as resources and they only change with
+     * the runtime.
+     */
+    private static String hierarchySha256(Class<?> target) throws IOException {
+        Set<Class<?>> types = new LinkedHashSet<>();
+        for (Class<?> c = target; c != null && c != Object.class; c = c.getSuperclass()) {
+            collect(c, types);
+        }
+        MessageDigest digest = sha256();
+        for (Class<?> type : types) {
+            ClassLoader owner = type.getClassLoader();
+            if (owner == null || owner == ClassLoader.getPlatformClassLoader()) continue;
+            digest.update(type.getName().getBytes(StandardCharsets.UTF_8));
+            digest.update(classBytes(type.getName(), owner));
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static void collect(Class<?> type, Set<Class<?>> types) {
+        if (!types.add(type)) return;
+        for (Class<?> iface : type.getInterfaces()) {
+            collect(iface, types);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static Properties read(Path meta) throws IOException {
+        Properties p = new Properties();
+        try (Reader r = Files.newBufferedReader(meta)) {
+            p.load(r);
+        }
+        return p;
+    }
+
+    private static void writeAtomically(Path target, byte[] bytes) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), "class", ".tmp");
+        Files.write(tmp, bytes);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
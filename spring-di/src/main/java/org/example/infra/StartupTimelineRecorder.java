@@ -0,0 +1,316 @@
+package org.example.infra;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.example.context.SelectiveBeanPostProcessor;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.InstantiationAwareBeanPostProcessor;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.PriorityOrdered;
+
+/**
+ * Startup-profiling drill:
+ * Times every bean created during refresh(), phase by phase.
+ *
+ * Phase boundaries (all System.nanoTime()):
+ * - instantiate: postProcessBeforeInstantiation -> postProcessAfterInstantiation
+ * - inject:      postProcessAfterInstantiation -> postProcessBeforeInitialization
+ * - init:        postProcessBeforeInitialization -> postProcessAfterInitialization (this, HIGHEST)
+ * - proxy:       postProcessAfterInitialization (this) -> {@link #proxyPhaseEnd()} (registered last)
+ *
+ * A bean created while another is still being built is its child (creation edge);
+ * declared dependencies come from the bean factory. On ContextRefreshedEvent it
+ * prints a report with the critical path: the chain of dependencies whose
+ * summed self time is longest, i.e. what gates refresh() even if independent
+ * beans were built in parallel.
+ *
+ * Set -Dstartup.timeline.out=target/startup.json to also write a Chrome trace.
+ */
+public class StartupTimelineRecorder
+        implements InstantiationAwareBeanPostProcessor, SelectiveBeanPostProcessor, PriorityOrdered, BeanFactoryAware,
+        ApplicationListener<ContextRefreshedEvent> {
+
+    /** Timings for one bean; fields are written by the creating thread only. */
+    public static final class BeanTiming {
+        final String name;
+        final String parent;
+        final long threadId;
+        final long instantiateStart;
+        long instantiateEnd;
+        long initStart;
+        long initEnd;
+        long proxyEnd;
+        long childNanos;
+
+        BeanTiming(String name, String parent, long threadId, long start) {
+            this.name = name;
+            this.parent = parent;
+            this.threadId = threadId;
+            this.instantiateStart = start;
+        }
+
+        public String name() { return name; }
+        public String parent() { return parent; }
+        public long instantiateNanos() { return nonNeg(instantiateEnd - instantiateStart); }
+        public long injectNanos() { return nonNeg(initStart - instantiateEnd); }
+        public long initNanos() { return nonNeg(initEnd - initStart); }
+        public long proxyNanos() { return proxyEnd == 0 ? 0 : nonNeg(proxyEnd - initEnd); }
+        public long totalNanos() { return nonNeg(Math.max(initEnd, proxyEnd) - instantiateStart); }
+        /** Total minus the time spent building beans it triggered. */
+        public long selfNanos() { return nonNeg(totalNanos() - childNanos); }
+
+        private static long nonNeg(long v) { return Math.max(0L, v); }
+    }
+
+    private final Map<String, BeanTiming> timings = new ConcurrentHashMap<>();
+    private final ThreadLocal<Deque<BeanTiming>> building = ThreadLocal.withInitial(ArrayDeque::new);
+    private volatile boolean recording = true;
+    private volatile long firstStart;
+    private volatile long refreshedAt;
+    private ConfigurableListableBeanFactory beanFactory;
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+
+    @Override
+    public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+        if (beanFactory instanceof ConfigurableListableBeanFactory clbf) {
+            this.beanFactory = clbf;
+        }
+    }
+
+    /** Nothing is recorded after refresh, so beans created later can skip the init callbacks. */
+    @Override
+    public boolean appliesTo(Class<?> beanType) {
+        return recording;
+    }
+
+    @Override
+    public Object postProcessBeforeInstantiation(Class<?> beanClass, String beanName) throws BeansException {
+        if (!recording) return null;
+        long now = System.nanoTime();
+        if (firstStart == 0) firstStart = now;
+        Deque<BeanTiming> stack = building.get();
+        BeanTiming parent = stack.peek();
+        BeanTiming t = new BeanTiming(beanName, parent != null ? parent.name : null, Thread.currentThread().getId(), now);
+        stack.push(t);
+        timings.put(beanName, t);
+        return null;
+    }
+
+    @Override
+    public boolean postProcessAfterInstantiation(Object bean, String beanName) throws BeansException {
+        BeanTiming t = current(beanName);
+        if (t != null) t.instantiateEnd = System.nanoTime();
+        return true;
+    }
+
+    @Override
+    public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+        BeanTiming t = current(beanName);
+        if (t != null) {
+            t.initStart = System.nanoTime();
+            if (t.instantiateEnd == 0) t.instantiateEnd = t.initStart;
+        }
+        return bean;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+        BeanTiming t = current(beanName);
+        if (t == null) return bean;
+        t.initEnd = System.nanoTime();
+
+        // Pop this bean (and anything left above it by a failed creation)
+        Deque<BeanTiming> stack = building.get();
+        while (!stack.isEmpty()) {
+            if (stack.pop() == t) break;
+        }
+        BeanTiming parent = stack.peek();
+        if (parent != null) parent.childNanos += t.initEnd - t.instantiateStart;
+        return bean;
+    }
+
+    private BeanTiming current(String beanName) {
+        if (!recording) return null;
+        for (BeanTiming t : building.get()) {
+            if (t.name.equals(beanName)) return t;
+        }
+        return null;
+    }
+
+    /**
+     * Marks the end of the proxy phase. Register it as a plain (unordered)
+     * BeanPostProcessor so it runs after the auto-proxy creator.
+     */
+    public BeanPostProcessor proxyPhaseEnd() {
+        return new SelectiveBeanPostProcessor() {
+            @Override
+            public boolean appliesTo(Class<?> beanType) {
+                return recording;
+            }
+
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                BeanTiming t = recording ? timings.get(beanName) : null;
+                if (t != null && t.initEnd != 0 && t.proxyEnd == 0) t.proxyEnd = System.nanoTime();
+                return bean;
+            }
+        };
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event) {
+        if (!recording) return;
+        recording = false;
+        refreshedAt = System.nanoTime();
+        System.out.print(report());
+
+        String out = System.getProperty("startup.timeline.out");
+        if (out != null) {
+            try {
+                Path file = Path.of(out);
+                if (file.toAbsolutePath().getParent() != null) Files.createDirectories(file.toAbsolutePath().getParent());
+                Files.writeString(file, toChromeTraceJson(), StandardCharsets.UTF_8);
+                System.out.println("[SPRING-STARTUP] Chrome trace written to " + file.toAbsolutePath());
+            } catch (IOException e) {
+                System.err.println("[SPRING-STARTUP] could not write timeline: " + e.getMessage());
+            }
+        }
+    }
+
+    public Map<String, BeanTiming> getTimings() {
+        return Map.copyOf(timings);
+    }
+
+    /** Declared dependencies (bean -> beans it needs), restricted to recorded beans. */
+    public Map<String, Set<String>> dependencyEdges() {
+        Map<String, Set<String>> edges = new LinkedHashMap<>();
+        for (BeanTiming t : timings.values()) {
+            Set<String> deps = new LinkedHashSet<>();
+            if (beanFactory != null) {
+                for (String d : beanFactory.getDependenciesForBean(t.name)) {
+                    if (timings.containsKey(d)) deps.add(d);
+                }
+            }
+            edges.put(t.name, deps);
+        }
+        return edges;
+    }
+
+    /** Longest chain through the dependency graph, weighted by self time; first element is the root. */
+    public List<String> criticalPath() {
+        Map<String, Set<String>> edges = dependencyEdges();
+        Map<String, Long> best = new HashMap<>();
+        Map<String, String> next = new HashMap<>();
+        String head = null;
+        long headCost = -1;
+        for (String bean : edges.keySet()) {
+            long cost = longest(bean, edges, best, next, new LinkedHashSet<>());
+            if (cost > headCost) {
+                headCost = cost;
+                head = bean;
+            }
+        }
+        List<String> path = new ArrayList<>();
+        for (String b = head; b != null; b = next.get(b)) path.add(b);
+        return path;
+    }
+
+    private long longest(String bean, Map<String, Set<String>> edges, Map<String, Long> best,
+                         Map<String, String> next, Set<String> visiting) {
+        Long known = best.get(bean);
+        if (known != null) return known;
+        if (!visiting.add(bean)) return 0; // cycle (e.g. @Lazy proxies): cut it
+        long bestChild = 0;
+        for (String dep : edges.getOrDefault(bean, Set.of())) {
+            long c = longest(dep, edges, best, next, visiting);
+            if (c > bestChild) {
+                bestChild = c;
+                next.put(bean, dep);
+            }
+        }
+        visiting.remove(bean);
+        long cost = timings.get(bean).selfNanos() + bestChild;
+        best.put(bean, cost);
+        return cost;
+    }
+
+    public String report() {
+        List<BeanTiming> all = new ArrayList<>(timings.values());
+        all.sort(Comparator.comparingLong(BeanTiming::totalNanos).reversed());
+        long window = (refreshedAt != 0 ? refreshedAt : System.nanoTime()) - firstStart;
+
+        StringBuilder sb = new StringBuilder(1024);
+        sb.append("[SPRING-STARTUP] ---- STARTUP TIMELINE ----\n");
+        sb.append(String.format(Locale.ROOT, "[SPRING-STARTUP] beans=%d firstBean->refreshed=%.2fms%n", all.size(), window / 1e6));
+        sb.append(String.format(Locale.ROOT, "[SPRING-STARTUP] %-40s %9s %9s %9s %9s %9s %9s%n",
+                "bean", "total", "self", "instant.", "inject", "init", "proxy"));
+        int shown = 0;
+        for (BeanTiming t : all) {
+            if (shown++ == 15) break;
+            sb.append(String.format(Locale.ROOT, "[SPRING-STARTUP] %-40s %9.3f %9.3f %9.3f %9.3f %9.3f %9.3f%n",
+                    t.name, t.totalNanos() / 1e6, t.selfNanos() / 1e6, t.instantiateNanos() / 1e6,
+                    t.injectNanos() / 1e6, t.initNanos() / 1e6, t.proxyNanos() / 1e6));
+        }
+        List<String> path = criticalPath();
+        long pathNanos = 0;
+        for (String b : path) pathNanos += timings.get(b).selfNanos();
+        sb.append(String.format(Locale.ROOT, "[SPRING-STARTUP] critical path (%.3fms self): %s%n",
+                pathNanos / 1e6, String.join(" -> ", path)));
+        sb.append("[SPRING-STARTUP] ------------------------------\n");
+        return sb.toString();
+    }
+
+    /** One "X" event per bean phase, nested by time; load in chrome://tracing or Perfetto. */
+    public String toChromeTraceJson() {
+        StringBuilder sb = new StringBuilder(256 + timings.size() * 400);
+        sb.append("{\"traceEvents\":[");
+        boolean first = true;
+        for (BeanTiming t : timings.values()) {
+            first = event(sb, first, t.name, "bean", t.instantiateStart, t.totalNanos(), t.threadId);
+            first = event(sb, first, "instantiate", t.name, t.instantiateStart, t.instantiateNanos(), t.threadId);
+            first = event(sb, first, "inject", t.name, t.instantiateEnd, t.injectNanos(), t.threadId);
+            first = event(sb, first, "init", t.name, t.initStart, t.initNanos(), t.threadId);
+            if (t.proxyNanos() > 0) {
+                first = event(sb, first, "proxy", t.name, t.initEnd, t.proxyNanos(), t.threadId);
+            }
+        }
+        sb.append("\n],\"displayTimeUnit\":\"ms\"}\n");
+        return sb.toString();
+    }
+
+    private boolean event(StringBuilder sb, boolean first, String name, String cat, long start, long dur, long tid) {
+        if (!first) sb.append(',');
+        sb.append("\n{\"name\":\"").append(name.replace("\"", "\\\"")).append('"')
+          .append(",\"cat\":\"").append(cat.replace("\"", "\\\"")).append('"')
+          .append(",\"ph\":\"X\",\"pid\":1,\"tid\":").append(tid)
+          .append(",\"ts\":").append(String.format(Locale.ROOT, "%.3f", (start - firstStart) / 1e3))
+          .append(",\"dur\":").append(String.format(Locale.ROOT, "%.3f", dur / 1e3))
+          .append('}');
+        return false;
+    }
+}